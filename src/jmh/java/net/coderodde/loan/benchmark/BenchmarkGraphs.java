@@ -0,0 +1,55 @@
+package net.coderodde.loan.benchmark;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class builds the input graphs of the benchmarks. The graphs are
+ * random, but the same parameters always yield the same graph.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class BenchmarkGraphs {
+
+    /**
+     * The seed of all benchmark graphs.
+     */
+    static final long SEED = 1L;
+
+    private BenchmarkGraphs() {}
+
+    /**
+     * Builds a graph, in which each of the ordered pairs of distinct nodes
+     * is connected with probability <code>loadFactor</code>.
+     *
+     * @param nodeCount    the amount of nodes.
+     * @param loadFactor   the probability of an arc.
+     * @param maxLoan      the maximum arc weight.
+     * @param distribution the distribution of the arc weights.
+     * @return the graph.
+     */
+    static CompactGraph createGraph(int nodeCount,
+                                    float loadFactor,
+                                    long maxLoan,
+                                    EquityDistribution distribution) {
+        Random random = new Random(SEED);
+        CompactGraph graph = new CompactGraph(nodeCount);
+
+        for (int i = 0; i < nodeCount; ++i) {
+            graph.addNode("" + i);
+        }
+
+        for (int lender = 0; lender < nodeCount; ++lender) {
+            for (int borrower = 0; borrower < nodeCount; ++borrower) {
+                if (lender != borrower && random.nextFloat() < loadFactor) {
+                    graph.setWeight(lender,
+                                    borrower,
+                                    distribution.nextWeight(random, maxLoan));
+                }
+            }
+        }
+
+        return graph;
+    }
+}
@@ -0,0 +1,41 @@
+package net.coderodde.loan.benchmark;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the benchmarks with the allocation profiler attached. The
+ * arguments are the ones of the JMH command line, for example
+ * <pre>
+ *   java -jar target/benchmarks.jar Heuristic -p nodeCount=1000
+ * </pre>
+ * runs the heuristic simplifiers on the graphs of 1000 nodes only.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String... args)
+            throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.shouldHelp()
+                || commandLineOptions.shouldList()
+                || commandLineOptions.shouldListProfilers()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        new Runner(new OptionsBuilder().parent(commandLineOptions)
+                                       .addProfiler(GCProfiler.class)
+                                       .build()).run();
+    }
+}
@@ -0,0 +1,44 @@
+package net.coderodde.loan.benchmark;
+
+import java.util.Random;
+
+/**
+ * This enumeration lists the distributions of the arc weights of the
+ * benchmark graphs, and thus of the node equities.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public enum EquityDistribution {
+
+    /**
+     * The weights are uniform over <tt>[1, maxLoan]</tt>.
+     */
+    UNIFORM {
+        @Override
+        long nextWeight(Random random, long maxLoan) {
+            return Math.abs(random.nextLong() % maxLoan) + 1L;
+        }
+    },
+
+    /**
+     * The weights follow a Pareto distribution of shape 1.5 truncated to
+     * <tt>[1, maxLoan]</tt>: most loans are small, a few are huge.
+     */
+    HEAVY_TAILED {
+        @Override
+        long nextWeight(Random random, long maxLoan) {
+            double weight = Math.pow(1.0 - random.nextDouble(), -1.0 / 1.5);
+            return (long) Math.min(maxLoan, Math.floor(weight));
+        }
+    };
+
+    /**
+     * Draws the weight of the next arc.
+     *
+     * @param random  the random number generator.
+     * @param maxLoan the maximum weight.
+     * @return a weight within <tt>[1, maxLoan]</tt>.
+     */
+    abstract long nextWeight(Random random, long maxLoan);
+}
@@ -0,0 +1,101 @@
+package net.coderodde.loan.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.support.DynamicProgrammingSimplifier;
+import net.coderodde.loan.model.support.ExactCombinatorialSimplifier;
+import net.coderodde.loan.model.support.FasterExactCombinatorialSimplifier;
+import net.coderodde.loan.model.support.ParallelExactCombinatorialSimplifier;
+import net.coderodde.loan.model.support.PartitionalSimplifier;
+import net.coderodde.loan.model.support.PermutationalSimplifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the simplifiers minimizing the amount of edges. Their
+ * running time grows exponentially, so the graphs are small.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExactSimplifierBenchmark {
+
+    @Param({"ExactCombinatorialSimplifier",
+            "FasterExactCombinatorialSimplifier",
+            "ParallelExactCombinatorialSimplifier",
+            "PartitionalSimplifier",
+            "DynamicProgrammingSimplifier",
+            "PermutationalSimplifier"})
+    public String algorithmName;
+
+    @Param({"6", "10"})
+    public int nodeCount;
+
+    @Param({"0.2", "0.5"})
+    public float loadFactor;
+
+    @Param({"10", "1000"})
+    public long maxLoan;
+
+    @Param({"UNIFORM", "HEAVY_TAILED"})
+    public EquityDistribution distribution;
+
+    private Algorithm algorithm;
+    private CompactGraph graph;
+
+    @Setup
+    public void setUp() {
+        algorithm = createAlgorithm(algorithmName);
+        graph = BenchmarkGraphs.createGraph(nodeCount,
+                                            loadFactor,
+                                            maxLoan,
+                                            distribution);
+    }
+
+    @Benchmark
+    public CompactGraph simplify() {
+        return algorithm.simplify(graph);
+    }
+
+    private static Algorithm createAlgorithm(String name) {
+        switch (name) {
+            case "ExactCombinatorialSimplifier":
+                return new ExactCombinatorialSimplifier();
+
+            case "FasterExactCombinatorialSimplifier":
+                return new FasterExactCombinatorialSimplifier();
+
+            case "ParallelExactCombinatorialSimplifier":
+                return new ParallelExactCombinatorialSimplifier();
+
+            case "PartitionalSimplifier":
+                return new PartitionalSimplifier();
+
+            case "DynamicProgrammingSimplifier":
+                return new DynamicProgrammingSimplifier();
+
+            case "PermutationalSimplifier":
+                return new PermutationalSimplifier();
+
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown algorithm: " + name);
+        }
+    }
+}
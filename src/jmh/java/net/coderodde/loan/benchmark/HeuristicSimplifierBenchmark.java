@@ -0,0 +1,95 @@
+package net.coderodde.loan.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.support.CyclePurgeBypassSimplifier;
+import net.coderodde.loan.model.support.FastGreedyCombinatorialSimplifier;
+import net.coderodde.loan.model.support.GreedyCombinatorialSimplifier;
+import net.coderodde.loan.model.support.LinearSimplifier;
+import net.coderodde.loan.model.support.MinimumFlowSimplifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the simplifiers that scale to large graphs.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicSimplifierBenchmark {
+
+    @Param({"LinearSimplifier",
+            "GreedyCombinatorialSimplifier",
+            "FastGreedyCombinatorialSimplifier",
+            "CyclePurgeBypassSimplifier",
+            "MinimumFlowSimplifier"})
+    public String algorithmName;
+
+    @Param({"50", "200"})
+    public int nodeCount;
+
+    @Param({"0.05", "0.5"})
+    public float loadFactor;
+
+    @Param({"30", "1000000"})
+    public long maxLoan;
+
+    @Param({"UNIFORM", "HEAVY_TAILED"})
+    public EquityDistribution distribution;
+
+    private Algorithm algorithm;
+    private CompactGraph graph;
+
+    @Setup
+    public void setUp() {
+        algorithm = createAlgorithm(algorithmName);
+        graph = BenchmarkGraphs.createGraph(nodeCount,
+                                            loadFactor,
+                                            maxLoan,
+                                            distribution);
+    }
+
+    @Benchmark
+    public CompactGraph simplify() {
+        return algorithm.simplify(graph);
+    }
+
+    private static Algorithm createAlgorithm(String name) {
+        switch (name) {
+            case "LinearSimplifier":
+                return new LinearSimplifier();
+
+            case "GreedyCombinatorialSimplifier":
+                return new GreedyCombinatorialSimplifier();
+
+            case "FastGreedyCombinatorialSimplifier":
+                return new FastGreedyCombinatorialSimplifier();
+
+            case "CyclePurgeBypassSimplifier":
+                return new CyclePurgeBypassSimplifier();
+
+            case "MinimumFlowSimplifier":
+                return new MinimumFlowSimplifier();
+
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown algorithm: " + name);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the time and the allocation per step of the
+ * combinatorial generators driving the innermost loops of the simplifiers.
+ * Each operation is a single step; a generator running out of steps is
+ * replaced by a fresh one, which the long enumerations amortize. Run with
+ * {@code net.coderodde.loan.benchmark.BenchmarkRunner} for the allocation
+ * rates.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @State(Scope.Thread)
+    public static class CombinationState {
+
+        @Param({"10", "20", "30"})
+        public int n;
+
+        CombinationIndexGenerator generator;
+
+        @Setup
+        public void setUp() {
+            generator = new CombinationIndexGenerator(n);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CombinationRemovalState {
+
+        @Param({"20", "40"})
+        public int n;
+
+        /**
+         * The amount of steps between two removals.
+         */
+        @Param({"16", "256"})
+        public int removalPeriod;
+
+        CombinationIndexGenerator generator;
+        int step;
+
+        @Setup
+        public void setUp() {
+            generator = new CombinationIndexGenerator(n);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SubsetSumState {
+
+        @Param({"10", "20", "30"})
+        public int n;
+
+        SubsetSumEnumerator enumerator;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(1L);
+            long[] weights = new long[n];
+
+            for (int i = 0; i < n; ++i) {
+                weights[i] = random.nextInt(1000) + 1;
+            }
+
+            enumerator = new SubsetSumEnumerator(weights);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PartitionState {
+
+        @Param({"8", "12", "16"})
+        public int n;
+
+        PartitionGenerator generator;
+
+        @Setup
+        public void setUp() {
+            generator = new PartitionGenerator(n);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SpecialPartitionState {
+
+        @Param({"8", "12", "16"})
+        public int n;
+
+        @Param({"2", "4", "6"})
+        public int k;
+
+        SpecialPartitionGenerator generator;
+
+        @Setup
+        public void setUp() {
+            generator = new SpecialPartitionGenerator(n, k);
+        }
+    }
+
+    @Benchmark
+    public int[] combinationInc(CombinationState state) {
+        int[] indices = state.generator.inc();
+
+        if (indices == null) {
+            state.generator.reset();
+        }
+
+        return indices;
+    }
+
+    @Benchmark
+    public int[] combinationIncAndRemove(CombinationRemovalState state) {
+        int[] indices = state.generator.inc();
+
+        if (indices == null) {
+            state.generator = new CombinationIndexGenerator(state.n);
+        } else if (++state.step % state.removalPeriod == 0) {
+            state.generator.remove();
+        }
+
+        return indices;
+    }
+
+    @Benchmark
+    public long subsetSumInc(SubsetSumState state) {
+        if (!state.enumerator.inc()) {
+            state.enumerator.reset();
+        }
+
+        return state.enumerator.getSum();
+    }
+
+    @Benchmark
+    public int[] partitionInc(PartitionState state) {
+        if (!state.generator.inc()) {
+            state.generator = new PartitionGenerator(state.n);
+        }
+
+        return state.generator.getIndices();
+    }
+
+    @Benchmark
+    public int[] specialPartitionInc(SpecialPartitionState state) {
+        if (!state.generator.inc()) {
+            state.generator = new SpecialPartitionGenerator(state.n,
+                                                            state.k);
+        }
+
+        return state.generator.getIndices();
+    }
+}
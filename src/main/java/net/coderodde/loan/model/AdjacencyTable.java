@@ -0,0 +1,268 @@
+package net.coderodde.loan.model;
+
+import java.util.Arrays;
+
+/**
+ * This class implements an open addressing hash table mapping primitive
+ * <code>int</code> node IDs to primitive <code>long</code> arc weights. It is
+ * used by {@link CompactGraph} for storing both the borrowers (with weights)
+ * and the lenders (without weights) of a node.
+ * <p>
+ * Removed entries are marked with a tombstone so that removing a key never
+ * relocates the other entries. This allows iterating over the slots while
+ * removing keys. Inserting a key, however, may rehash the table.
+ *
+ * <p>Note that this structure is micro-optimized for fast operation at cost
+ * of exposing implementation structures.</p>
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class AdjacencyTable {
+
+    /**
+     * Marks a slot that has never been occupied.
+     */
+    static final int EMPTY = -1;
+
+    /**
+     * Marks a slot whose key was removed.
+     */
+    static final int DELETED = -2;
+
+    private static final int MINIMUM_CAPACITY = 4;
+
+    /**
+     * The keys (node IDs) of this table.
+     */
+    private int[] keys;
+
+    /**
+     * The weights of this table or <code>null</code> if this table does not
+     * store weights.
+     */
+    private long[] weights;
+
+    /**
+     * The amount of keys in this table.
+     */
+    private int size;
+
+    /**
+     * The amount of keys plus the amount of tombstones in this table.
+     */
+    private int used;
+
+    /**
+     * Constructs a new table.
+     *
+     * @param expectedSize the expected amount of keys.
+     * @param weighted     whether to store the weights.
+     */
+    AdjacencyTable(int expectedSize, boolean weighted) {
+        int capacity = capacityFor(expectedSize);
+        this.keys = newKeyArray(capacity);
+        this.weights = weighted ? new long[capacity] : null;
+    }
+
+    /**
+     * Returns the amount of keys in this table.
+     *
+     * @return the amount of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of slots in this table.
+     *
+     * @return the amount of slots.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key stored in slot <code>slot</code>, or a negative value
+     * if the slot is vacant.
+     *
+     * @param slot the slot index.
+     * @return the key or a negative value.
+     */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the weight stored in slot <code>slot</code>.
+     *
+     * @param slot the slot index.
+     * @return the weight.
+     */
+    long weightAt(int slot) {
+        return weights[slot];
+    }
+
+    /**
+     * Sets the weight stored in slot <code>slot</code>.
+     *
+     * @param slot   the slot index.
+     * @param weight the new weight.
+     */
+    void setWeightAt(int slot, long weight) {
+        weights[slot] = weight;
+    }
+
+    /**
+     * Returns <code>true</code> if <code>key</code> is in this table.
+     *
+     * @param key the key to query.
+     * @return <code>true</code> if <code>key</code> is in this table.
+     */
+    boolean contains(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the weight associated with <code>key</code>, or zero if there
+     * is no such key.
+     *
+     * @param key the key to query.
+     * @return the weight of the key.
+     */
+    long get(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? 0L : weights[slot];
+    }
+
+    /**
+     * Associates <code>weight</code> with <code>key</code>.
+     *
+     * @param key    the key.
+     * @param weight the weight; ignored if this table is not weighted.
+     * @return <code>true</code> if the key was not in this table.
+     */
+    boolean put(int key, long weight) {
+        int slot = indexOf(key);
+
+        if (slot >= 0) {
+            if (weights != null) {
+                weights[slot] = weight;
+            }
+
+            return false;
+        }
+
+        if ((used + 1) * 4 > keys.length * 3) {
+            rehash(size * 2 + 2 > keys.length ? keys.length << 1
+                                              : keys.length);
+        }
+
+        insert(key, weight);
+        return true;
+    }
+
+    /**
+     * Removes <code>key</code> from this table.
+     *
+     * @param key the key to remove.
+     * @return <code>true</code> if the key was present.
+     */
+    boolean remove(int key) {
+        int slot = indexOf(key);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        keys[slot] = DELETED;
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the slot of <code>key</code> or <code>-1</code> if there is no
+     * such key.
+     *
+     * @param key the key to search.
+     * @return the slot of the key or <code>-1</code>.
+     */
+    int indexOf(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+
+        for (;;) {
+            int k = keys[slot];
+
+            if (k == key) {
+                return slot;
+            }
+
+            if (k == EMPTY) {
+                return -1;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(int key, long weight) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while (keys[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        if (keys[slot] == EMPTY) {
+            used++;
+        }
+
+        keys[slot] = key;
+
+        if (weights != null) {
+            weights[slot] = weight;
+        }
+
+        size++;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        long[] oldWeights = weights;
+
+        keys = newKeyArray(newCapacity);
+        weights = oldWeights == null ? null : new long[newCapacity];
+        size = 0;
+        used = 0;
+
+        for (int slot = 0; slot < oldKeys.length; ++slot) {
+            if (oldKeys[slot] >= 0) {
+                insert(oldKeys[slot],
+                       oldWeights == null ? 0L : oldWeights[slot]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+
+        while (capacity * 3 < expectedSize * 4 + 4) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static int[] newKeyArray(int capacity) {
+        int[] array = new int[capacity];
+        Arrays.fill(array, EMPTY);
+        return array;
+    }
+}
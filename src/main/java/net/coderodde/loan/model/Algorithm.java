@@ -16,4 +16,33 @@ public interface Algorithm {
      * @return the equivalent graph possibly with less edges.
      */
     Graph simplify(Graph g);
+
+    /**
+     * Computes and returns an equivalent compact loan graph to
+     * <code>g</code>. The default implementation converts <code>g</code> to a
+     * {@link Graph}, simplifies it and converts the result back; algorithms
+     * that can work on the primitive representation directly should override
+     * this method.
+     *
+     * @param g the compact graph to simplify.
+     * @return the equivalent compact graph possibly with less edges.
+     */
+    default CompactGraph simplify(CompactGraph g) {
+        return CompactGraph.fromGraph(simplify(g.toGraph()));
+    }
+
+    /**
+     * Computes and returns a compact loan graph with the equities given in
+     * <code>equities</code>. The ID of each node in the result equals its ID
+     * in <code>equities</code>. The default implementation simplifies
+     * {@link EquityVector#toCompactGraph()}; algorithms that only need the
+     * equities should override this method so that the input arcs are never
+     * materialized.
+     *
+     * @param equities the equities of the graph to simplify.
+     * @return the simplified compact graph.
+     */
+    default CompactGraph simplify(EquityVector equities) {
+        return simplify(equities.toCompactGraph());
+    }
 }
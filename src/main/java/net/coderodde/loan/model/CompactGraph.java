@@ -0,0 +1,634 @@
+package net.coderodde.loan.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class models a loan graph with primitive storage. Each node is
+ * identified by an <code>int</code> ID, which is the index at which the node
+ * was added, and each node keeps its borrowers and lenders in open addressing
+ * tables of primitive <code>int</code> keys and <code>long</code> weights.
+ * Unlike in {@link Graph}, no node objects, boxed weights or hash map entries
+ * are created per arc.
+ * <p>
+ * The node IDs of a compact graph obtained via {@link #fromGraph(Graph)}
+ * coincide with the node indices of the source graph.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class CompactGraph {
+
+    /**
+     * This interface specifies a visitor of the arcs of a compact graph.
+     */
+    public interface ArcVisitor {
+
+        /**
+         * Visits the arc <code>(lender, borrower)</code>.
+         *
+         * @param lender   the ID of the tail node.
+         * @param borrower the ID of the head node.
+         * @param weight   the arc weight.
+         */
+        void visit(int lender, int borrower, long weight);
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * This map maps names of the nodes to their IDs.
+     */
+    private final Map<String, Integer> nodeIdMap;
+
+    /**
+     * The names of the nodes indexed by node IDs.
+     */
+    private String[] names;
+
+    /**
+     * The equities of the nodes indexed by node IDs.
+     */
+    private long[] equities;
+
+    /**
+     * The borrower tables indexed by node IDs. Allocated lazily.
+     */
+    private AdjacencyTable[] borrowers;
+
+    /**
+     * The lender tables indexed by node IDs. Allocated lazily.
+     */
+    private AdjacencyTable[] lenders;
+
+    /**
+     * The amount of nodes in this graph.
+     */
+    private int size;
+
+    /**
+     * This variable caches the amount of edges in this graph.
+     */
+    private int edgeAmount;
+
+    /**
+     * This variable caches the total flow of this graph
+     * (sum of edge weights).
+     */
+    private long flow;
+
+    /**
+     * Constructs an empty graph.
+     */
+    public CompactGraph() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty graph with room for <code>expectedSize</code> nodes.
+     *
+     * @param expectedSize the expected amount of nodes.
+     */
+    public CompactGraph(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        this.nodeIdMap = new HashMap<>(capacity * 4 / 3 + 1);
+        this.names = new String[capacity];
+        this.equities = new long[capacity];
+        this.borrowers = new AdjacencyTable[capacity];
+        this.lenders = new AdjacencyTable[capacity];
+    }
+
+    /**
+     * Constructs a graph with the same nodes and arcs as <code>copy</code>.
+     *
+     * @param copy the graph to copy.
+     */
+    public CompactGraph(CompactGraph copy) {
+        this(copy.size);
+
+        for (int id = 0; id < copy.size; ++id) {
+            addNode(copy.names[id]);
+        }
+
+        copy.forEachArc(this::setWeight);
+    }
+
+    /**
+     * Converts <code>graph</code> to a compact graph. The ID of each node in
+     * the returned graph equals its index in <code>graph</code>.
+     *
+     * @param graph the graph to convert.
+     * @return a compact graph with the same nodes and arcs.
+     */
+    public static CompactGraph fromGraph(Graph graph) {
+        CompactGraph result = new CompactGraph(graph.size());
+
+        for (Node node : graph) {
+            result.addNode(node.getName());
+        }
+
+        for (Node node : graph) {
+            int lender = result.getNodeId(node.getName());
+
+            for (Node borrower : node) {
+                result.setWeight(lender,
+                                 result.getNodeId(borrower.getName()),
+                                 node.getWeightTo(borrower));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds a compact graph from the arcs listed in parallel arrays. The
+     * <code>i</code>th arc leads from the node <code>arcLenders[i]</code> to
+     * the node <code>arcBorrowers[i]</code> and weighs
+     * <code>arcWeights[i]</code>; the weights of repeated arcs add up. The
+     * node IDs are the indices of <code>names</code>. All adjacency tables
+     * are sized from the node degrees up front, so that none of them is ever
+     * rehashed.
+     *
+     * @param names        the distinct node names.
+     * @param arcLenders   the IDs of the tail nodes.
+     * @param arcBorrowers the IDs of the head nodes.
+     * @param arcWeights   the arc weights.
+     * @param arcAmount    the amount of arcs in the arrays.
+     * @return the compact graph.
+     */
+    public static CompactGraph fromArcs(String[] names,
+                                        int[] arcLenders,
+                                        int[] arcBorrowers,
+                                        long[] arcWeights,
+                                        int arcAmount) {
+        Objects.requireNonNull(names, "The name array is null.");
+
+        if (arcAmount < 0
+                || arcAmount > arcLenders.length
+                || arcAmount > arcBorrowers.length
+                || arcAmount > arcWeights.length) {
+            throw new IllegalArgumentException(
+                    "Illegal arc amount: " + arcAmount + ".");
+        }
+
+        CompactGraph result = new CompactGraph(names.length);
+
+        for (int id = 0; id < names.length; ++id) {
+            if (result.addNode(names[id]) != id) {
+                throw new IllegalArgumentException(
+                        "Duplicate node name: " + names[id]);
+            }
+        }
+
+        int[] outDegrees = new int[names.length];
+        int[] inDegrees = new int[names.length];
+
+        for (int i = 0; i < arcAmount; ++i) {
+            result.checkNodeId(arcLenders[i]);
+            result.checkNodeId(arcBorrowers[i]);
+            checkWeight(arcWeights[i]);
+            outDegrees[arcLenders[i]]++;
+            inDegrees[arcBorrowers[i]]++;
+        }
+
+        for (int id = 0; id < names.length; ++id) {
+            if (outDegrees[id] > 0) {
+                result.borrowers[id] =
+                        new AdjacencyTable(outDegrees[id], true);
+            }
+
+            if (inDegrees[id] > 0) {
+                result.lenders[id] = new AdjacencyTable(inDegrees[id], false);
+            }
+        }
+
+        for (int i = 0; i < arcAmount; ++i) {
+            int lender = arcLenders[i];
+            int borrower = arcBorrowers[i];
+            long weight = arcWeights[i];
+            AdjacencyTable table = result.borrowers[lender];
+            int slot = table.indexOf(borrower);
+
+            if (slot >= 0) {
+                table.setWeightAt(slot, table.weightAt(slot) + weight);
+            } else {
+                table.put(borrower, weight);
+                result.lenders[borrower].put(lender, 0L);
+                result.edgeAmount++;
+            }
+
+            result.flow += weight;
+            result.equities[lender] += weight;
+            result.equities[borrower] -= weight;
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts this compact graph to a {@link Graph}. The index of each node
+     * in the returned graph equals its ID in this graph.
+     *
+     * @return a graph with the same nodes and arcs.
+     */
+    public Graph toGraph() {
+        Graph result = new Graph();
+
+        for (int id = 0; id < size; ++id) {
+            result.add(new Node(names[id]));
+        }
+
+        forEachArc((lender, borrower, weight) -> {
+            Node tail = result.get(lender);
+            Node head = result.get(borrower);
+            tail.connectToBorrower(head);
+            tail.setWeightTo(head, weight);
+        });
+
+        return result;
+    }
+
+    /**
+     * Returns a graph with the same nodes as this graph but with no arcs.
+     *
+     * @return a copy of this graph without arcs.
+     */
+    public CompactGraph copyWithoutArcs() {
+        CompactGraph result = new CompactGraph(size);
+
+        for (int id = 0; id < size; ++id) {
+            result.addNode(names[id]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds a node to this graph if not already in this graph.
+     *
+     * @param name the name of the node.
+     * @return the ID of the node.
+     */
+    public int addNode(String name) {
+        Objects.requireNonNull(name, "The input node name is null.");
+        Integer id = nodeIdMap.get(name);
+
+        if (id != null) {
+            // Already in this graph.
+            return id;
+        }
+
+        if (size == names.length) {
+            int capacity = size << 1;
+            names = Arrays.copyOf(names, capacity);
+            equities = Arrays.copyOf(equities, capacity);
+            borrowers = Arrays.copyOf(borrowers, capacity);
+            lenders = Arrays.copyOf(lenders, capacity);
+        }
+
+        names[size] = name;
+        nodeIdMap.put(name, size);
+        return size++;
+    }
+
+    /**
+     * Returns the ID of the node with name <code>name</code>.
+     *
+     * @param name the name of the query node.
+     * @return the ID of the node or <code>-1</code> if there is no such node.
+     */
+    public int getNodeId(String name) {
+        Integer id = nodeIdMap.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the name of the node with ID <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the name of the node.
+     */
+    public String getNodeName(int id) {
+        checkNodeId(id);
+        return names[id];
+    }
+
+    /**
+     * Returns the amount of nodes in this graph.
+     *
+     * @return the amount of nodes in this graph.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of edges in this graph.
+     *
+     * @return the amount of edges in this graph.
+     */
+    public int getEdgeAmount() {
+        return edgeAmount;
+    }
+
+    /**
+     * Returns the total flow (sum of all edge weights) of this graph.
+     *
+     * @return the total flow of this graph.
+     */
+    public long getTotalFlow() {
+        return flow;
+    }
+
+    /**
+     * Returns the equity of the node with ID <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the equity of the node.
+     */
+    public long getEquity(int id) {
+        checkNodeId(id);
+        return equities[id];
+    }
+
+    /**
+     * Returns <code>true</code> if the arc <code>(lender, borrower)</code>
+     * is in this graph.
+     *
+     * @param lender   the ID of the tail node.
+     * @param borrower the ID of the head node.
+     * @return <code>true</code> if the arc is present.
+     */
+    public boolean isConnected(int lender, int borrower) {
+        checkNodeId(lender);
+        checkNodeId(borrower);
+        return borrowers[lender] != null && borrowers[lender].contains(borrower);
+    }
+
+    /**
+     * Returns the weight of the arc <code>(lender, borrower)</code>.
+     *
+     * @param lender   the ID of the tail node.
+     * @param borrower the ID of the head node.
+     * @return the arc weight.
+     */
+    public long getWeight(int lender, int borrower) {
+        checkArcExists(lender, borrower);
+        return borrowers[lender].get(borrower);
+    }
+
+    /**
+     * Sets the weight of the arc <code>(lender, borrower)</code>, creating
+     * the arc if it is not yet in this graph.
+     *
+     * @param lender   the ID of the tail node.
+     * @param borrower the ID of the head node.
+     * @param weight   the new arc weight.
+     */
+    public void setWeight(int lender, int borrower, long weight) {
+        checkNodeId(lender);
+        checkNodeId(borrower);
+        checkWeight(weight);
+
+        AdjacencyTable table = borrowers[lender];
+
+        if (table == null) {
+            table = borrowers[lender] = new AdjacencyTable(1, true);
+        }
+
+        int slot = table.indexOf(borrower);
+        long oldWeight = 0L;
+
+        if (slot >= 0) {
+            oldWeight = table.weightAt(slot);
+            table.setWeightAt(slot, weight);
+        } else {
+            table.put(borrower, weight);
+
+            if (lenders[borrower] == null) {
+                lenders[borrower] = new AdjacencyTable(1, false);
+            }
+
+            lenders[borrower].put(lender, 0L);
+            edgeAmount++;
+        }
+
+        long weightDelta = weight - oldWeight;
+        flow += weightDelta;
+        equities[lender] += weightDelta;
+        equities[borrower] -= weightDelta;
+    }
+
+    /**
+     * Adds <code>amount</code> to the weight of the arc
+     * <code>(lender, borrower)</code>, creating the arc if it is not yet in
+     * this graph.
+     *
+     * @param lender   the ID of the tail node.
+     * @param borrower the ID of the head node.
+     * @param amount   the amount to add.
+     */
+    public void addWeight(int lender, int borrower, long amount) {
+        checkNodeId(lender);
+        AdjacencyTable table = borrowers[lender];
+        long weight = table == null ? 0L : table.get(borrower);
+        setWeight(lender, borrower, weight + amount);
+    }
+
+    /**
+     * Removes the arc <code>(lender, borrower)</code> if present.
+     *
+     * @param lender   the ID of the tail node.
+     * @param borrower the ID of the head node.
+     * @return <code>true</code> if the arc was present.
+     */
+    public boolean removeArc(int lender, int borrower) {
+        checkNodeId(lender);
+        checkNodeId(borrower);
+
+        AdjacencyTable table = borrowers[lender];
+
+        if (table == null) {
+            return false;
+        }
+
+        int slot = table.indexOf(borrower);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        long weight = table.weightAt(slot);
+        table.remove(borrower);
+        lenders[borrower].remove(lender);
+        equities[lender] -= weight;
+        equities[borrower] += weight;
+        edgeAmount--;
+        flow -= weight;
+        return true;
+    }
+
+    /**
+     * Returns the number of borrowers of the node <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the number of borrowers.
+     */
+    public int getNumberOfBorrowers(int id) {
+        checkNodeId(id);
+        return borrowers[id] == null ? 0 : borrowers[id].size();
+    }
+
+    /**
+     * Returns the number of lenders of the node <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the number of lenders.
+     */
+    public int getNumberOfLenders(int id) {
+        checkNodeId(id);
+        return lenders[id] == null ? 0 : lenders[id].size();
+    }
+
+    /**
+     * Returns the amount of borrower slots of the node <code>id</code>. The
+     * borrowers may be iterated by calling {@link #getBorrowerAt(int, int)}
+     * for each slot. Removing arcs does not relocate the slots, adding arcs
+     * may.
+     *
+     * @param id the node ID.
+     * @return the amount of borrower slots.
+     */
+    public int getBorrowerSlotAmount(int id) {
+        checkNodeId(id);
+        return borrowers[id] == null ? 0 : borrowers[id].capacity();
+    }
+
+    /**
+     * Returns the borrower in the slot <code>slot</code> of the node
+     * <code>id</code>.
+     *
+     * @param id   the node ID.
+     * @param slot the slot index.
+     * @return the ID of the borrower or a negative value if the slot is
+     *         vacant.
+     */
+    public int getBorrowerAt(int id, int slot) {
+        return borrowers[id].keyAt(slot);
+    }
+
+    /**
+     * Returns the weight of the arc to the borrower in the slot
+     * <code>slot</code> of the node <code>id</code>.
+     *
+     * @param id   the node ID.
+     * @param slot the slot index.
+     * @return the arc weight.
+     */
+    public long getWeightAt(int id, int slot) {
+        return borrowers[id].weightAt(slot);
+    }
+
+    /**
+     * Returns the amount of lender slots of the node <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the amount of lender slots.
+     * @see #getBorrowerSlotAmount(int)
+     */
+    public int getLenderSlotAmount(int id) {
+        checkNodeId(id);
+        return lenders[id] == null ? 0 : lenders[id].capacity();
+    }
+
+    /**
+     * Returns the lender in the slot <code>slot</code> of the node
+     * <code>id</code>.
+     *
+     * @param id   the node ID.
+     * @param slot the slot index.
+     * @return the ID of the lender or a negative value if the slot is vacant.
+     */
+    public int getLenderAt(int id, int slot) {
+        return lenders[id].keyAt(slot);
+    }
+
+    /**
+     * Visits each arc of this graph.
+     *
+     * @param visitor the arc visitor.
+     */
+    public void forEachArc(ArcVisitor visitor) {
+        for (int lender = 0; lender < size; ++lender) {
+            AdjacencyTable table = borrowers[lender];
+
+            if (table == null) {
+                continue;
+            }
+
+            for (int slot = 0; slot < table.capacity(); ++slot) {
+                int borrower = table.keyAt(slot);
+
+                if (borrower >= 0) {
+                    visitor.visit(lender, borrower, table.weightAt(slot));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if this graph and <code>g</code> contain the
+     * same node names with the same equities.
+     *
+     * @param g the graph to compare against.
+     * @return <code>true</code> if the two graphs are equivalent.
+     */
+    public boolean isEquivalentTo(CompactGraph g) {
+        if (this.size != g.size) {
+            return false;
+        }
+
+        for (int id = 0; id < size; ++id) {
+            int otherId = g.getNodeId(names[id]);
+
+            if (otherId < 0) {
+                return false;
+            }
+
+            if (equities[id] != g.equities[otherId]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + size + " nodes, " + edgeAmount + " edges, " +
+               flow + " flow]";
+    }
+
+    private void checkNodeId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Node ID " + id + " is out of range [0, " + size + ").");
+        }
+    }
+
+    private void checkArcExists(int lender, int borrower) {
+        if (!isConnected(lender, borrower)) {
+            throw new IllegalArgumentException(
+                    "No arc (" + lender + ", " + borrower + ").");
+        }
+    }
+
+    private static void checkWeight(long weight) {
+        if (weight < 0L) {
+            throw new IllegalArgumentException(
+                    "Negative arc weight: " + weight + ".");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package net.coderodde.loan.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class implements a streaming loan ingestor. Each loan event
+ * <code>(lender, borrower, amount)</code> only updates a primitive equity
+ * table, so the memory consumption is linear in the amount of nodes instead
+ * of the amount of loans, and ingesting a loan between already known nodes
+ * allocates nothing. At any point, {@link #snapshot()} returns the current
+ * equities, which any {@link Algorithm} may simplify.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class EquityLedger {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * This map maps names of the nodes to their IDs.
+     */
+    private final Map<String, Integer> nodeIdMap;
+
+    /**
+     * The names of the nodes indexed by node IDs.
+     */
+    private String[] names;
+
+    /**
+     * The equities of the nodes indexed by node IDs.
+     */
+    private long[] equities;
+
+    /**
+     * The amount of nodes in this ledger.
+     */
+    private int size;
+
+    /**
+     * The amount of loans ingested so far.
+     */
+    private long loanAmount;
+
+    /**
+     * Constructs an empty ledger.
+     */
+    public EquityLedger() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty ledger with room for <code>expectedSize</code>
+     * nodes.
+     *
+     * @param expectedSize the expected amount of nodes.
+     */
+    public EquityLedger(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        this.nodeIdMap = new HashMap<>(capacity * 4 / 3 + 1);
+        this.names = new String[capacity];
+        this.equities = new long[capacity];
+    }
+
+    /**
+     * Registers a node unless already registered.
+     *
+     * @param name the name of the node.
+     * @return the ID of the node.
+     */
+    public int register(String name) {
+        Objects.requireNonNull(name, "The input node name is null.");
+        Integer id = nodeIdMap.get(name);
+
+        if (id != null) {
+            return id;
+        }
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size << 1);
+            equities = Arrays.copyOf(equities, size << 1);
+        }
+
+        names[size] = name;
+        nodeIdMap.put(name, size);
+        return size++;
+    }
+
+    /**
+     * Ingests a loan between two named nodes, registering them if needed.
+     *
+     * @param lender   the name of the lender.
+     * @param borrower the name of the borrower.
+     * @param amount   the loan amount.
+     */
+    public void addLoan(String lender, String borrower, long amount) {
+        checkAmount(amount);
+        addLoan(register(lender), register(borrower), amount);
+    }
+
+    /**
+     * Ingests a loan between two registered nodes.
+     *
+     * @param lender   the ID of the lender.
+     * @param borrower the ID of the borrower.
+     * @param amount   the loan amount.
+     */
+    public void addLoan(int lender, int borrower, long amount) {
+        checkNodeId(lender);
+        checkNodeId(borrower);
+        checkAmount(amount);
+        equities[lender] += amount;
+        equities[borrower] -= amount;
+        loanAmount++;
+    }
+
+    /**
+     * Returns the ID of the node with name <code>name</code>.
+     *
+     * @param name the name of the query node.
+     * @return the ID of the node or <code>-1</code> if there is no such node.
+     */
+    public int getNodeId(String name) {
+        Integer id = nodeIdMap.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the equity of the node <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the current equity of the node.
+     */
+    public long getEquity(int id) {
+        checkNodeId(id);
+        return equities[id];
+    }
+
+    /**
+     * Returns the amount of registered nodes.
+     *
+     * @return the amount of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of loans ingested so far.
+     *
+     * @return the amount of loans.
+     */
+    public long getLoanAmount() {
+        return loanAmount;
+    }
+
+    /**
+     * Returns the current equities. The returned vector does not change as
+     * more loans are ingested. The node IDs are retained.
+     *
+     * @return the snapshot of the equities.
+     */
+    public EquityVector snapshot() {
+        return EquityVector.wrap(Arrays.copyOf(names, size),
+                                 Arrays.copyOf(equities, size));
+    }
+
+    private void checkNodeId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Node ID " + id + " is out of range [0, " + size + ").");
+        }
+    }
+
+    private static void checkAmount(long amount) {
+        if (amount < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal loan amount: " + amount +
+                    "; must be at least 1.");
+        }
+    }
+}
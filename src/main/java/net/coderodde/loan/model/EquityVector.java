@@ -0,0 +1,238 @@
+package net.coderodde.loan.model;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class models the equities of a loan graph without its arcs. Since two
+ * loan graphs are equivalent if and only if their nodes have the same
+ * equities, an equity vector carries all the information an equity based
+ * simplification algorithm needs. The index of a node in an equity vector is
+ * its node ID.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class EquityVector {
+
+    /**
+     * The node names indexed by node IDs.
+     */
+    private final String[] names;
+
+    /**
+     * The node equities indexed by node IDs.
+     */
+    private final long[] equities;
+
+    /**
+     * Constructs a new equity vector. The names must be distinct and the
+     * equities must sum to zero.
+     *
+     * @param names    the node names.
+     * @param equities the node equities.
+     */
+    public EquityVector(String[] names, long[] equities) {
+        Objects.requireNonNull(names, "The name array is null.");
+        Objects.requireNonNull(equities, "The equity array is null.");
+
+        if (names.length != equities.length) {
+            throw new IllegalArgumentException(
+                    "The name array length (" + names.length + ") does not " +
+                    "match the equity array length (" + equities.length +
+                    ").");
+        }
+
+        Set<String> nameSet = new HashSet<>(names.length * 4 / 3 + 1);
+        long sum = 0L;
+
+        for (int i = 0; i < names.length; ++i) {
+            Objects.requireNonNull(names[i], "The name at index " + i +
+                                             " is null.");
+
+            if (!nameSet.add(names[i])) {
+                throw new IllegalArgumentException(
+                        "Duplicate node name: " + names[i]);
+            }
+
+            sum += equities[i];
+        }
+
+        if (sum != 0L) {
+            throw new IllegalArgumentException(
+                    "The equities do not sum to zero; sum: " + sum);
+        }
+
+        this.names = names.clone();
+        this.equities = equities.clone();
+    }
+
+    private EquityVector(String[] names, long[] equities, boolean trusted) {
+        this.names = names;
+        this.equities = equities;
+    }
+
+    /**
+     * Wraps the given arrays without copying or validating them. The caller
+     * must not modify the arrays afterwards.
+     *
+     * @param names    the distinct node names.
+     * @param equities the node equities summing to zero.
+     * @return an equity vector backed by the arrays.
+     */
+    static EquityVector wrap(String[] names, long[] equities) {
+        return new EquityVector(names, equities, true);
+    }
+
+    /**
+     * Returns the equity vector of <code>graph</code>. The ID of each node
+     * equals its index in <code>graph</code>.
+     *
+     * @param graph the graph.
+     * @return the equity vector of the graph.
+     */
+    public static EquityVector of(Graph graph) {
+        String[] names = new String[graph.size()];
+        long[] equities = new long[graph.size()];
+        int id = 0;
+
+        for (Node node : graph) {
+            names[id] = node.getName();
+            equities[id++] = node.getEquity();
+        }
+
+        return wrap(names, equities);
+    }
+
+    /**
+     * Returns the equity vector of <code>graph</code>. The IDs of the nodes
+     * are retained.
+     *
+     * @param graph the compact graph.
+     * @return the equity vector of the graph.
+     */
+    public static EquityVector of(CompactGraph graph) {
+        String[] names = new String[graph.size()];
+        long[] equities = new long[graph.size()];
+
+        for (int id = 0; id < names.length; ++id) {
+            names[id] = graph.getNodeName(id);
+            equities[id] = graph.getEquity(id);
+        }
+
+        return wrap(names, equities);
+    }
+
+    /**
+     * Returns the amount of nodes in this vector.
+     *
+     * @return the amount of nodes.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the node <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the name of the node.
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the equity of the node <code>id</code>.
+     *
+     * @param id the node ID.
+     * @return the equity of the node.
+     */
+    public long getEquity(int id) {
+        return equities[id];
+    }
+
+    /**
+     * Returns a copy of the equities of this vector.
+     *
+     * @return the equity array.
+     */
+    public long[] getEquities() {
+        return equities.clone();
+    }
+
+    /**
+     * Returns a compact graph with the nodes of this vector and no arcs. The
+     * ID of each node in the returned graph equals its ID in this vector.
+     *
+     * @return an empty compact graph.
+     */
+    public CompactGraph createEmptyGraph() {
+        CompactGraph graph = new CompactGraph(names.length);
+
+        for (String name : names) {
+            graph.addNode(name);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Returns a compact graph realizing the equities of this vector. The
+     * positive nodes are linked to the negative nodes in the order of their
+     * IDs, so that the result contains less arcs than nodes.
+     *
+     * @return a compact graph with the equities of this vector.
+     */
+    public CompactGraph toCompactGraph() {
+        CompactGraph graph = createEmptyGraph();
+        int ni = 0;
+        long negativeLeft = 0L;
+
+        for (int pi = 0; pi < equities.length; ++pi) {
+            long positiveLeft = equities[pi];
+
+            while (positiveLeft > 0L) {
+                while (negativeLeft == 0L) {
+                    negativeLeft = -Math.min(equities[ni++], 0L);
+                }
+
+                long weight = Math.min(positiveLeft, negativeLeft);
+                graph.setWeight(pi, ni - 1, weight);
+                positiveLeft -= weight;
+                negativeLeft -= weight;
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Returns <code>true</code> if <code>graph</code> contains the same node
+     * names with the same equities as this vector.
+     *
+     * @param graph the graph to compare against.
+     * @return <code>true</code> if the graph is equivalent to this vector.
+     */
+    public boolean isEquivalentTo(CompactGraph graph) {
+        if (graph.size() != names.length) {
+            return false;
+        }
+
+        for (int id = 0; id < names.length; ++id) {
+            int otherId = graph.getNodeId(names[id]);
+
+            if (otherId < 0 || graph.getEquity(otherId) != equities[id]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + names.length + " nodes]";
+    }
+}
@@ -0,0 +1,138 @@
+package net.coderodde.loan.model;
+
+/**
+ * This interface specifies a listener of the simplifications run by an
+ * {@link Algorithm}. A simplification reports its input, the time spent in
+ * each of its phases, the amounts of the work done and its result; all
+ * methods do nothing by default, so an implementation overrides only the
+ * events it exports. The events of a simplification are reported by the
+ * thread calling the algorithm, but an algorithm simplifying several graphs
+ * concurrently reports them concurrently.
+ * <p>
+ * The algorithms report to {@link #NO_OP} unless told otherwise, and skip
+ * reading the clock for it.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public interface SimplificationListener {
+
+    /**
+     * This enumeration lists the timed phases of a simplification. An
+     * algorithm reports only the phases it has.
+     */
+    enum Phase {
+
+        /**
+         * Splitting the nodes into the positive and the negative ones.
+         */
+        SPLIT,
+
+        /**
+         * Sorting the nodes by their equities.
+         */
+        SORT,
+
+        /**
+         * Searching for the groups of nodes to link separately.
+         */
+        SEARCH,
+
+        /**
+         * Linking the nodes into the result graph.
+         */
+        LINK,
+
+        /**
+         * Cancelling the directed cycles of the graph.
+         */
+        CYCLE_PURGE,
+
+        /**
+         * Bypassing the arc chains of the graph.
+         */
+        BYPASS
+    }
+
+    /**
+     * This enumeration lists the amounts of work counted by the algorithms.
+     */
+    enum Counter {
+
+        /**
+         * The amount of node combinations enumerated.
+         */
+        COMBINATIONS_ENUMERATED,
+
+        /**
+         * The amount of partitions enumerated.
+         */
+        PARTITIONS_ENUMERATED,
+
+        /**
+         * The amount of groups linked separately.
+         */
+        GROUPS_FOUND,
+
+        /**
+         * The amount of cycles cancelled.
+         */
+        CYCLES_PURGED,
+
+        /**
+         * The amount of arc chains bypassed.
+         */
+        BYPASSES_APPLIED
+    }
+
+    /**
+     * The listener ignoring all events.
+     */
+    SimplificationListener NO_OP = new SimplificationListener() {};
+
+    /**
+     * Reports the start of a simplification.
+     *
+     * @param algorithm  the simplifying algorithm.
+     * @param nodeAmount the amount of nodes.
+     * @param arcAmount  the amount of arcs of the input graph or -1 if only
+     *                   the equities were given.
+     * @param flow       the total flow of the input graph or -1 if only the
+     *                   equities were given.
+     */
+    default void onStart(Algorithm algorithm,
+                         int nodeAmount,
+                         int arcAmount,
+                         long flow) {}
+
+    /**
+     * Reports the time spent in a phase.
+     *
+     * @param algorithm the simplifying algorithm.
+     * @param phase     the phase.
+     * @param nanos     the duration of the phase in nanoseconds.
+     */
+    default void onPhase(Algorithm algorithm, Phase phase, long nanos) {}
+
+    /**
+     * Reports an amount of work done.
+     *
+     * @param algorithm the simplifying algorithm.
+     * @param counter   the kind of the work.
+     * @param amount    the amount of the work.
+     */
+    default void onCount(Algorithm algorithm, Counter counter, long amount) {}
+
+    /**
+     * Reports the end of a simplification.
+     *
+     * @param algorithm the simplifying algorithm.
+     * @param arcAmount the amount of arcs of the result graph.
+     * @param flow      the total flow of the result graph.
+     * @param nanos     the duration of the simplification in nanoseconds.
+     */
+    default void onFinish(Algorithm algorithm,
+                          int arcAmount,
+                          long flow,
+                          long nanos) {}
+}
@@ -0,0 +1,172 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class records the arc changes between two versions of a compact
+ * graph. Each change is a triple <code>(lender, borrower, weight)</code>
+ * together with the old weight: an added arc has the old weight zero, a
+ * removed arc has the new weight zero, and a reweighted arc has both weights
+ * positive.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class ArcDiff {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] lenders = new int[DEFAULT_CAPACITY];
+    private int[] borrowers = new int[DEFAULT_CAPACITY];
+    private long[] oldWeights = new long[DEFAULT_CAPACITY];
+    private long[] newWeights = new long[DEFAULT_CAPACITY];
+
+    /**
+     * The amount of changes in this diff.
+     */
+    private int size;
+
+    private int addedAmount;
+    private int removedAmount;
+
+    /**
+     * Records a change of the arc <code>(lender, borrower)</code>.
+     *
+     * @param lender    the ID of the tail node.
+     * @param borrower  the ID of the head node.
+     * @param oldWeight the old weight or zero if the arc is new.
+     * @param newWeight the new weight or zero if the arc is removed.
+     */
+    void add(int lender, int borrower, long oldWeight, long newWeight) {
+        if (size == lenders.length) {
+            int capacity = size << 1;
+            lenders = Arrays.copyOf(lenders, capacity);
+            borrowers = Arrays.copyOf(borrowers, capacity);
+            oldWeights = Arrays.copyOf(oldWeights, capacity);
+            newWeights = Arrays.copyOf(newWeights, capacity);
+        }
+
+        lenders[size] = lender;
+        borrowers[size] = borrower;
+        oldWeights[size] = oldWeight;
+        newWeights[size] = newWeight;
+        size++;
+
+        if (oldWeight == 0L) {
+            addedAmount++;
+        } else if (newWeight == 0L) {
+            removedAmount++;
+        }
+    }
+
+    /**
+     * Returns the amount of changes.
+     *
+     * @return the amount of changes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the lender of the change at index <code>index</code>.
+     *
+     * @param index the change index.
+     * @return the ID of the lender of the change.
+     */
+    public int getLender(int index) {
+        checkIndex(index);
+        return lenders[index];
+    }
+
+    /**
+     * Returns the borrower of the change at index <code>index</code>.
+     *
+     * @param index the change index.
+     * @return the ID of the borrower of the change.
+     */
+    public int getBorrower(int index) {
+        checkIndex(index);
+        return borrowers[index];
+    }
+
+    /**
+     * Returns the old weight of the change at index <code>index</code>.
+     *
+     * @param index the change index.
+     * @return the old weight, zero for an added arc.
+     */
+    public long getOldWeight(int index) {
+        checkIndex(index);
+        return oldWeights[index];
+    }
+
+    /**
+     * Returns the new weight of the change at index <code>index</code>.
+     *
+     * @param index the change index.
+     * @return the new weight, zero for a removed arc.
+     */
+    public long getNewWeight(int index) {
+        checkIndex(index);
+        return newWeights[index];
+    }
+
+    /**
+     * Returns the amount of added arcs.
+     *
+     * @return the amount of added arcs.
+     */
+    public int getAddedAmount() {
+        return addedAmount;
+    }
+
+    /**
+     * Returns the amount of removed arcs.
+     *
+     * @return the amount of removed arcs.
+     */
+    public int getRemovedAmount() {
+        return removedAmount;
+    }
+
+    /**
+     * Returns the amount of reweighted arcs.
+     *
+     * @return the amount of reweighted arcs.
+     */
+    public int getReweightedAmount() {
+        return size - addedAmount - removedAmount;
+    }
+
+    /**
+     * Applies the changes of this diff to <code>graph</code>, which must have
+     * the same node IDs as the graph this diff was computed for. The nodes
+     * referred to by the diff must already be in <code>graph</code>.
+     *
+     * @param graph the graph to update.
+     */
+    public void applyTo(CompactGraph graph) {
+        for (int i = 0; i < size; ++i) {
+            if (newWeights[i] == 0L) {
+                graph.removeArc(lenders[i], borrowers[i]);
+            } else {
+                graph.setWeight(lenders[i], borrowers[i], newWeights[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" + addedAmount + " added, " + removedAmount +
+               " removed, " + getReweightedAmount() + " reweighted]";
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of range [0, " + size + ").");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Objects;
+
+/**
+ * This abstract class is the base of the simplifiers whose search may be
+ * bounded by a {@link SearchBudget}. Each search starts from the solution of
+ * {@link LinearSimplifier}, improves it as it progresses and, if the budget
+ * runs out, returns the best solution found so far. Whether the last result
+ * is proven optimal is reported by {@link #isLastResultOptimal()}, separately
+ * for each thread, so that an instance may be shared by threads simplifying
+ * concurrently. A {@link SimplificationTask} reports it for its own result
+ * by {@link SimplificationTask#isResultOptimal()}.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public abstract class BudgetedSimplifier extends EquitySimplifier {
+
+    private final SearchBudget budget;
+
+    /**
+     * Whether the last result of each thread is proven optimal.
+     */
+    private final ThreadLocal<Boolean> lastResultOptimal =
+            ThreadLocal.withInitial(() -> Boolean.TRUE);
+
+    /**
+     * Constructs a simplifier with the given budget.
+     *
+     * @param budget the search budget.
+     */
+    protected BudgetedSimplifier(SearchBudget budget) {
+        this.budget = Objects.requireNonNull(budget, "The budget is null.");
+    }
+
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns <code>true</code> if the search of the last simplification run
+     * by the calling thread completed within the budget, so that its result
+     * is optimal.
+     *
+     * @return <code>true</code> if the last result is optimal.
+     */
+    public boolean isLastResultOptimal() {
+        return lastResultOptimal.get();
+    }
+
+    /**
+     * Starts a new search.
+     *
+     * @return the meter of the search.
+     */
+    SearchBudget.Meter startSearch() {
+        lastResultOptimal.set(Boolean.TRUE);
+        return budget.start();
+    }
+
+    /**
+     * Records that the search was skipped, so that the result is not proven
+     * optimal.
+     */
+    void skipSearch() {
+        lastResultOptimal.set(Boolean.FALSE);
+    }
+
+    /**
+     * Records the outcome of a search.
+     *
+     * @param meter the meter of the search.
+     */
+    void finishSearch(SearchBudget.Meter meter) {
+        lastResultOptimal.set(!meter.isExhausted());
+    }
+}
@@ -0,0 +1,230 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class cancels all directed cycles of a compact graph. The self-arcs,
+ * the cycles of a single node, are removed first. Since every other cycle
+ * lies within a strongly connected component, the graph is then decomposed
+ * into its components, and the cycles are cancelled only within the
+ * components of at least two nodes; the arcs between components are
+ * never scanned again. Each such component is copied to a graph of its own,
+ * the copies are processed concurrently in a {@link ForkJoinPool}, and the
+ * results are written back to the input graph sequentially. Before each
+ * cycle, the cancellation of the {@link SimplificationTask} running on the
+ * calling thread, if any, is checked.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class CycleCanceller {
+
+    private final ForkJoinPool pool;
+
+    CycleCanceller(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Cancels all cycles of <code>graph</code> in place.
+     *
+     * @param graph the graph to process.
+     * @return the amount of cycles cancelled.
+     * @throws CancellationException if the search is asked to stop.
+     */
+    int cancelCycles(CompactGraph graph) {
+        // The pool threads have no progress of their own:
+        SearchProgress progress = SearchProgress.current();
+        int cycles = 0;
+
+        for (int node = 0; node < graph.size(); ++node) {
+            if (graph.isConnected(node, node)) {
+                graph.removeArc(node, node);
+                ++cycles;
+            }
+        }
+
+        StronglyConnectedComponents scc =
+                new StronglyConnectedComponents(graph);
+
+        int componentAmount = scc.getComponentAmount();
+        int[][] members = new int[componentAmount][];
+        int[] memberAmounts = new int[componentAmount];
+        int[] localIds = new int[graph.size()];
+
+        for (int component = 0; component < componentAmount; ++component) {
+            if (scc.getComponentSize(component) > 1) {
+                members[component] = new int[scc.getComponentSize(component)];
+            }
+        }
+
+        for (int node = 0; node < graph.size(); ++node) {
+            int component = scc.getComponent(node);
+
+            if (members[component] != null) {
+                localIds[node] = memberAmounts[component];
+                members[component][memberAmounts[component]++] = node;
+            }
+        }
+
+        List<CompactGraph> localGraphs = new ArrayList<CompactGraph>();
+        List<int[]> localMembers = new ArrayList<int[]>();
+
+        for (int component = 0; component < componentAmount; ++component) {
+            if (members[component] != null) {
+                localGraphs.add(extract(graph,
+                                        scc,
+                                        component,
+                                        members[component],
+                                        localIds));
+                localMembers.add(members[component]);
+            }
+        }
+
+        if (localGraphs.size() == 1) {
+            cycles += cancelLocalCycles(localGraphs.get(0), progress);
+        } else if (localGraphs.size() > 1) {
+            List<ForkJoinTask<Integer>> tasks =
+                    new ArrayList<ForkJoinTask<Integer>>(localGraphs.size());
+
+            for (CompactGraph localGraph : localGraphs) {
+                tasks.add(pool.submit(() -> cancelLocalCycles(localGraph,
+                                                               progress)));
+            }
+
+            for (ForkJoinTask<Integer> task : tasks) {
+                cycles += task.join();
+            }
+        }
+
+        for (int i = 0; i < localGraphs.size(); ++i) {
+            writeBack(graph, scc, localGraphs.get(i), localMembers.get(i),
+                      localIds);
+        }
+
+        return cycles;
+    }
+
+    /**
+     * Copies the nodes and the internal arcs of a component.
+     */
+    private static CompactGraph extract(CompactGraph graph,
+                                        StronglyConnectedComponents scc,
+                                        int component,
+                                        int[] members,
+                                        int[] localIds) {
+        CompactGraph localGraph = new CompactGraph(members.length);
+
+        for (int node : members) {
+            localGraph.addNode(graph.getNodeName(node));
+        }
+
+        for (int node : members) {
+            for (int slot = 0;
+                    slot < graph.getBorrowerSlotAmount(node);
+                    ++slot) {
+                int borrower = graph.getBorrowerAt(node, slot);
+
+                if (borrower >= 0 && scc.getComponent(borrower) == component) {
+                    localGraph.setWeight(localIds[node],
+                                         localIds[borrower],
+                                         graph.getWeightAt(node, slot));
+                }
+            }
+        }
+
+        return localGraph;
+    }
+
+    /**
+     * Updates the internal arcs of a component from its processed copy.
+     */
+    private static void writeBack(CompactGraph graph,
+                                  StronglyConnectedComponents scc,
+                                  CompactGraph localGraph,
+                                  int[] members,
+                                  int[] localIds) {
+        int component = scc.getComponent(members[0]);
+
+        for (int node : members) {
+            for (int slot = 0;
+                    slot < graph.getBorrowerSlotAmount(node);
+                    ++slot) {
+                int borrower = graph.getBorrowerAt(node, slot);
+
+                if (borrower < 0 || scc.getComponent(borrower) != component) {
+                    continue;
+                }
+
+                int localNode = localIds[node];
+                int localBorrower = localIds[borrower];
+
+                if (localGraph.isConnected(localNode, localBorrower)) {
+                    graph.setWeight(node,
+                                    borrower,
+                                    localGraph.getWeight(localNode,
+                                                         localBorrower));
+                } else {
+                    graph.removeArc(node, borrower);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels all cycles of <code>graph</code> one by one.
+     *
+     * @param graph    the graph to process.
+     * @param progress the progress of the search.
+     * @return the amount of cycles cancelled.
+     */
+    private static int cancelLocalCycles(CompactGraph graph,
+                                         SearchProgress progress) {
+        IterativeCycleFinder cycleFinder = new IterativeCycleFinder(graph);
+        int[] cycle;
+        int cycles = 0;
+
+        while ((cycle = cycleFinder.findCycle()) != null) {
+            if (progress.isStopRequested()) {
+                throw new CancellationException(
+                        "The simplification is cancelled.");
+            }
+
+            resolveCycle(graph, cycle);
+            ++cycles;
+        }
+
+        return cycles;
+    }
+
+    private static void resolveCycle(CompactGraph graph, int[] cycle) {
+        long minimumWeight = Long.MAX_VALUE;
+
+        for (int i = 0; i < cycle.length; i++) {
+            int lender = cycle[i];
+            int borrower = cycle[(i + 1) % cycle.length];
+            long arcWeight = graph.getWeight(lender, borrower);
+            minimumWeight = Math.min(minimumWeight, arcWeight);
+        }
+
+        for (int i = 0; i < cycle.length; i++) {
+            int lender = cycle[i];
+            int borrower = cycle[(i + 1) % cycle.length];
+            long arcWeight = graph.getWeight(lender, borrower);
+
+            if (arcWeight == minimumWeight) {
+                // Remove the minimum weight arc:
+                graph.removeArc(lender, borrower);
+            } else {
+                // Subtract 'minimumWeight' from the '(lender, borrower)' arc
+                // weight:
+                graph.setWeight(lender, borrower, arcWeight - minimumWeight);
+            }
+        }
+    }
+}
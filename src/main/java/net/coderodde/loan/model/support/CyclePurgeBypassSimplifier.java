@@ -1,10 +1,12 @@
 package net.coderodde.loan.model.support;
 
-import java.util.List;
-import net.coderodde.loan.model.Algorithm;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.loan.model.CompactGraph;
 import net.coderodde.loan.model.Graph;
-import net.coderodde.loan.model.Node;
-import net.coderodde.loan.model.support.Utils.Triple;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
 
 /**
  * This class implements the cycle purge/bypass simplifier. In cycle purge
@@ -17,105 +19,182 @@ import net.coderodde.loan.model.support.Utils.Triple;
  * the minimum weight {@code w} of the {@code a_1} and {@code a_2}, subtract
  * {@code w} from both the arcs, and rearrange the arcs such that the total flow
  * is lowered.
+ * <p>
+ * The simplifier works on a {@link CompactGraph}. The cycles are purged by a
+ * {@link CycleCanceller} only within the nontrivial strongly connected
+ * components, which are processed concurrently. The arc chains are then
+ * bypassed through a worklist of the nodes having both lenders and
+ * borrowers, so that in the result each node only lends or only borrows.
+ * Both the phases check the cancellation of the running
+ * {@link SimplificationTask}, if any, and throw a
+ * {@link CancellationException} once it is cancelled.
  * 
  * @author Rodion "rodde" Efremov
  * @version 1.6 (Sep 2, 2021)
  * @since 1.6 (Sep 2, 2021)
  */
-public final class CyclePurgeBypassSimplifier implements Algorithm {
+public final class CyclePurgeBypassSimplifier extends InstrumentedSimplifier {
 
-    @Override
-    public Graph simplify(Graph g) {
-        Graph resultGraph = new Graph(g);
+    /**
+     * The amount of bypasses between two cancellation checks, minus one.
+     */
+    private static final int CANCELLATION_CHECK_MASK = (1 << 10) - 1;
 
-        if (g.size() < 2) {
-            return resultGraph;
-        }
+    private final CycleCanceller cycleCanceller;
 
-        RecursiveDepthFirstSearch rdfs = new RecursiveDepthFirstSearch();
-        List<Node> cycle;
+    /**
+     * Constructs a simplifier cancelling the cycles of independent strongly
+     * connected components in the common pool.
+     */
+    public CyclePurgeBypassSimplifier() {
+        this(ForkJoinPool.commonPool());
+    }
 
-        while ((cycle = rdfs.findCycle(resultGraph)) != null) {
-            resolveCycle(cycle);
-        }
+    /**
+     * Constructs a simplifier cancelling the cycles of independent strongly
+     * connected components in <code>pool</code>.
+     *
+     * @param pool the pool to run in.
+     */
+    public CyclePurgeBypassSimplifier(ForkJoinPool pool) {
+        this.cycleCanceller = new CycleCanceller(
+                Objects.requireNonNull(pool, "The pool is null."));
+    }
 
-        Triple<Node, Node, Node> arcChainToBypass;
+    @Override
+    public Graph simplify(Graph g) {
+        return simplify(CompactGraph.fromGraph(g)).toGraph();
+    }
 
-        while ((arcChainToBypass = findArcChain(resultGraph)) != null) {
-            resolveArcChain(arcChainToBypass.first,
-                            arcChainToBypass.second,
-                            arcChainToBypass.third);
+    @Override
+    public CompactGraph simplify(CompactGraph g) {
+        long startTime = start(g.size(), g.getEdgeAmount(), g.getTotalFlow());
+        CompactGraph resultGraph = new CompactGraph(g);
+
+        if (g.size() >= 2) {
+            long phaseStartTime = startPhase();
+            int cycles = cycleCanceller.cancelCycles(resultGraph);
+            finishPhase(Phase.CYCLE_PURGE, phaseStartTime);
+            count(Counter.CYCLES_PURGED, cycles);
+
+            phaseStartTime = startPhase();
+            int bypasses = bypassArcChains(resultGraph);
+            finishPhase(Phase.BYPASS, phaseStartTime);
+            count(Counter.BYPASSES_APPLIED, bypasses);
         }
 
+        finish(resultGraph.getEdgeAmount(),
+               resultGraph.getTotalFlow(),
+               startTime);
         return resultGraph;
     }
 
-    private static void resolveCycle(List<Node> cycle) {
-        long minimumWeight = Long.MAX_VALUE;
-
-        for (int i = 0; i < cycle.size(); i++) {
-            Node lender = cycle.get(i);
-            Node borrower = cycle.get((i + 1) % cycle.size());
-            long arcWeight = lender.getWeightTo(borrower);
-            minimumWeight = Math.min(minimumWeight, arcWeight);
+    /**
+     * Bypasses arc chains until no node has both lenders and borrowers.
+     * <p>
+     * After the cycles are purged, the graph is acyclic, and bypassing the
+     * chain {@code (n_1, n_2, n_3)} keeps it so. The bypass removes an arc
+     * incident to {@code n_2} and gives {@code n_1} an outgoing arc and
+     * {@code n_3} an incoming one, both of which they already have. So no
+     * node ever becomes an intermediate node, and the worklist holds only
+     * the initial ones; each is processed once, until it loses all its
+     * lenders or all its borrowers. Since no arc of {@code n_2} is added
+     * while processing it, its slots stay put and are each scanned once.
+     *
+     * @param graph the acyclic graph to process.
+     * @return the amount of chains bypassed.
+     * @throws CancellationException if the search is asked to stop.
+     */
+    private static int bypassArcChains(CompactGraph graph) {
+        SearchProgress progress = SearchProgress.current();
+        int[] worklist = new int[graph.size()];
+        int worklistSize = 0;
+        int bypasses = 0;
+
+        for (int node = 0; node < graph.size(); ++node) {
+            if (graph.getNumberOfLenders(node) > 0 &&
+                    graph.getNumberOfBorrowers(node) > 0) {
+                worklist[worklistSize++] = node;
+            }
         }
 
-        for (int i = 0; i < cycle.size(); i++) {
-            Node lender = cycle.get(i);
-            Node borrower = cycle.get((i + 1) % cycle.size());
-            long arcWeight = lender.getWeightTo(borrower);
-
-            if (arcWeight == minimumWeight) {
-                // Remove the minimum weight arc:
-                lender.removeBorrower(borrower);
-            } else {
-                // Subtract 'minimumWeight' from the '(lender, borrower)' arc
-                // weight:
-                lender.setWeightTo(borrower, 
-                        lender.getWeightTo(borrower) - minimumWeight);
+        while (worklistSize > 0) {
+            int n2 = worklist[--worklistSize];
+            int lenderSlot = nextOccupiedLenderSlot(graph, n2, 0);
+            int borrowerSlot = nextOccupiedBorrowerSlot(graph, n2, 0);
+
+            while (lenderSlot < graph.getLenderSlotAmount(n2) &&
+                    borrowerSlot < graph.getBorrowerSlotAmount(n2)) {
+                int n1 = graph.getLenderAt(n2, lenderSlot);
+                int n3 = graph.getBorrowerAt(n2, borrowerSlot);
+
+                if ((bypasses & CANCELLATION_CHECK_MASK) == 0
+                        && progress.isStopRequested()) {
+                    throw new CancellationException(
+                            "The simplification is cancelled.");
+                }
+
+                resolveArcChain(graph, n1, n2, n3);
+                ++bypasses;
+
+                if (!graph.isConnected(n1, n2)) {
+                    lenderSlot =
+                            nextOccupiedLenderSlot(graph, n2, lenderSlot + 1);
+                }
+
+                if (!graph.isConnected(n2, n3)) {
+                    borrowerSlot = nextOccupiedBorrowerSlot(graph,
+                                                            n2,
+                                                            borrowerSlot + 1);
+                }
             }
         }
+
+        return bypasses;
     }
 
-    private static Triple<Node, Node, Node> findArcChain(Graph graph) {
-        for (Node root : graph) {
-            return findArcChainImpl(root);
+    private static int nextOccupiedLenderSlot(CompactGraph graph,
+                                              int node,
+                                              int slot) {
+        while (slot < graph.getLenderSlotAmount(node) &&
+                graph.getLenderAt(node, slot) < 0) {
+            ++slot;
         }
 
-        return null;
+        return slot;
     }
 
-    private static Triple<Node, Node, Node> findArcChainImpl(Node root) {
-        for (Node child : root) {
-            for (Node grandChild : child) {
-                return new Triple<>(root, child, grandChild);
-            }
+    private static int nextOccupiedBorrowerSlot(CompactGraph graph,
+                                                int node,
+                                                int slot) {
+        while (slot < graph.getBorrowerSlotAmount(node) &&
+                graph.getBorrowerAt(node, slot) < 0) {
+            ++slot;
         }
 
-        return null;
+        return slot;
     }
 
-    private static void resolveArcChain(Node n1, Node n2, Node n3) {
-        long weightN1N2 = n1.getWeightTo(n2);
-        long weightN2N3 = n2.getWeightTo(n3);
+    private static void resolveArcChain(CompactGraph graph,
+                                        int n1,
+                                        int n2,
+                                        int n3) {
+        long weightN1N2 = graph.getWeight(n1, n2);
+        long weightN2N3 = graph.getWeight(n2, n3);
         long minimumWeight = Math.min(weightN1N2, weightN2N3);
 
-        n1.setWeightTo(n2, n1.getWeightTo(n2) - minimumWeight);
-        n2.setWeightTo(n3, n2.getWeightTo(n3) - minimumWeight);
-
-        if (n1.getWeightTo(n2) == 0L) {
-            n1.removeBorrower(n2);
-        }
-
-        if (n2.getWeightTo(n3) == 0L) {
-            n2.removeBorrower(n3);
+        if (weightN1N2 == minimumWeight) {
+            graph.removeArc(n1, n2);
+        } else {
+            graph.setWeight(n1, n2, weightN1N2 - minimumWeight);
         }
 
-        if (n1.isConnectedTo(n3)) {
-            n1.setWeightTo(n3, n1.getWeightTo(n3) + minimumWeight);
+        if (weightN2N3 == minimumWeight) {
+            graph.removeArc(n2, n3);
         } else {
-            n1.connectToBorrower(n3);
-            n1.setWeightTo(n3, minimumWeight);
+            graph.setWeight(n2, n3, weightN2N3 - minimumWeight);
         }
+
+        graph.addWeight(n1, n3, minimumWeight);
     }
 }
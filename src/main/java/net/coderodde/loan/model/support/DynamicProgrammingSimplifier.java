@@ -0,0 +1,353 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
+import net.coderodde.loan.model.support.Utils.Pair;
+import static net.coderodde.loan.model.support.Utils.linkGroup;
+import static net.coderodde.loan.model.support.Utils.resolveBinaryGroups;
+import static net.coderodde.loan.model.support.Utils.split;
+
+/**
+ * This is the implementation of an exact simplifier based on dynamic
+ * programming over node subsets. For a subset <tt>S</tt>,
+ * <tt>dp[S] = max dp[S - {i}] + [sum(S) = 0]</tt> over all <tt>i</tt> in
+ * <tt>S</tt> is the largest amount of groups <tt>S</tt> may be split into, and
+ * the groups are recovered by walking back from the set of all nodes. This
+ * takes <tt>O(2^n n)</tt> time, where <tt>n</tt> is the amount of nodes
+ * left after resolving the pairs of opposite equities.
+ * <p>
+ * The table entries are packed in four bits each, and the subset sums are
+ * computed from two tables of <tt>2^(n/2)</tt> half-subset sums. Filling
+ * the table spends an iteration of the {@link SearchBudget} per subset.
+ * <p>
+ * If the table for all the nodes would exceed the byte bound given at
+ * construction, or have more than <code>MAXIMUM_SIZE</code> nodes, or take
+ * more iterations than the budget allows, the table is built for as many
+ * nodes of the smallest absolute equities as fit. The
+ * most zero-sum groups within those nodes are split off, and the nodes left
+ * over are linked together with all the other nodes as a single group, as by
+ * {@link LinearSimplifier}. If the budget runs out before the table is
+ * filled, all the nodes are linked as a single group. In either case
+ * {@link #isLastResultOptimal()} returns <code>false</code>.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class DynamicProgrammingSimplifier extends BudgetedSimplifier {
+
+    /**
+     * The maximum amount of nodes the table is built for. With at most this
+     * many nodes, the amount of groups fits in four bits.
+     */
+    public static final int MAXIMUM_SIZE = 31;
+
+    /**
+     * The default bound on the table size in bytes.
+     */
+    public static final long DEFAULT_MAXIMUM_TABLE_BYTES = 1L << 30;
+
+    private final long maximumTableBytes;
+
+    /**
+     * Constructs a simplifier with unlimited budget and the default table
+     * bound.
+     */
+    public DynamicProgrammingSimplifier() {
+        this(DEFAULT_MAXIMUM_TABLE_BYTES);
+    }
+
+    /**
+     * Constructs a simplifier with unlimited budget whose table takes at
+     * most <code>maximumTableBytes</code> bytes.
+     *
+     * @param maximumTableBytes the bound on the table size in bytes.
+     */
+    public DynamicProgrammingSimplifier(long maximumTableBytes) {
+        this(SearchBudget.UNLIMITED, maximumTableBytes);
+    }
+
+    /**
+     * Constructs a simplifier with the given budget and the default table
+     * bound.
+     *
+     * @param budget the search budget.
+     */
+    public DynamicProgrammingSimplifier(SearchBudget budget) {
+        this(budget, DEFAULT_MAXIMUM_TABLE_BYTES);
+    }
+
+    /**
+     * Constructs a simplifier with the given budget whose table takes at
+     * most <code>maximumTableBytes</code> bytes.
+     *
+     * @param budget            the search budget.
+     * @param maximumTableBytes the bound on the table size in bytes.
+     */
+    public DynamicProgrammingSimplifier(SearchBudget budget,
+                                        long maximumTableBytes) {
+        super(budget);
+
+        if (maximumTableBytes < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal table bound: " + maximumTableBytes +
+                    "; must be at least 1.");
+        }
+
+        this.maximumTableBytes = maximumTableBytes;
+    }
+
+    /**
+     * Returns the largest amount of nodes, at most <code>n</code>, whose
+     * table fits the byte bound and may be filled within the iteration
+     * budget.
+     *
+     * @param n the amount of nodes.
+     * @return the amount of nodes the table is built for.
+     */
+    int getTableNodeAmount(int n) {
+        int size = Math.min(n, MAXIMUM_SIZE);
+
+        while (size > 0
+                && (getTableBytes(size) > maximumTableBytes
+                    || (1L << size) - 1L >
+                       getBudget().getMaximumIterations())) {
+            --size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the table size in bytes for <code>n</code> nodes.
+     *
+     * @param n the amount of nodes.
+     * @return the size of the table in bytes.
+     */
+    static long getTableBytes(int n) {
+        return ((1L << n) + 1L) >>> 1;
+    }
+
+    @Override
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
+        SearchBudget.Meter meter = startSearch();
+
+        if (equityVector.size() < 2) {
+            return ret;
+        }
+
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
+
+        List<Integer> positiveNodeList = pair.first;
+        List<Integer> negativeNodeList = pair.second;
+
+        if (positiveNodeList.isEmpty()) {
+            return ret;
+        }
+
+        phaseStartTime = startPhase();
+        EquityComparator equityComparator = new EquityComparator(equities);
+        Collections.sort(positiveNodeList, equityComparator);
+        Collections.sort(negativeNodeList, equityComparator);
+        finishPhase(Phase.SORT, phaseStartTime);
+
+        phaseStartTime = startPhase();
+
+        resolveBinaryGroups(positiveNodeList,
+                            negativeNodeList,
+                            equities,
+                            ret);
+
+        if (positiveNodeList.isEmpty()) {
+            finishPhase(Phase.SEARCH, phaseStartTime);
+            return ret;
+        }
+
+        // Take the nodes of the smallest absolute equities that fit the
+        // table:
+        int tableNodeAmount =
+                getTableNodeAmount(positiveNodeList.size() +
+                                   negativeNodeList.size());
+        int positiveAmount = 0;
+        int negativeAmount = 0;
+
+        while (positiveAmount + negativeAmount < tableNodeAmount) {
+            if (negativeAmount == negativeNodeList.size()
+                    || (positiveAmount < positiveNodeList.size()
+                        && equities[positiveNodeList.get(positiveAmount)] <=
+                          -equities[negativeNodeList.get(negativeAmount)])) {
+                ++positiveAmount;
+            } else {
+                ++negativeAmount;
+            }
+        }
+
+        List<Integer> tablePositiveNodeList =
+                positiveNodeList.subList(0, positiveAmount);
+        List<Integer> tableNegativeNodeList =
+                negativeNodeList.subList(0, negativeAmount);
+
+        // The bit i stands for the node nodeList.get(i); the positive nodes
+        // come first as expected by Utils.linkGroup(long, ...):
+        List<Integer> nodeList =
+                new ArrayList<Integer>(tablePositiveNodeList);
+        nodeList.addAll(tableNegativeNodeList);
+        int n = nodeList.size();
+
+        meter.expect(Math.pow(2.0, n));
+
+        int h = n / 2;
+        long[] lowSums = computeSubsetSums(nodeList, equities, 0, h);
+        long[] highSums = computeSubsetSums(nodeList, equities, h, n);
+        int lowMask = (1 << h) - 1;
+        int fullSet = (int)((1L << n) - 1L);
+        byte[] table = new byte[(int) getTableBytes(n)];
+
+        for (int set = 1; ; ++set) {
+            if (!meter.tick()) {
+                finishSearch(meter);
+                linkGroup(positiveNodeList, negativeNodeList, equities, ret);
+                finishPhase(Phase.SEARCH, phaseStartTime);
+                return ret;
+            }
+
+            int best = 0;
+
+            for (int rest = set; rest != 0; rest &= rest - 1) {
+                int value = get(table, set ^ (rest & -rest));
+
+                if (best < value) {
+                    best = value;
+                }
+            }
+
+            if (lowSums[set & lowMask] + highSums[set >>> h] == 0L) {
+                ++best;
+            }
+
+            put(table, set, best);
+
+            if (set == fullSet) {
+                break;
+            }
+        }
+
+        // Unless all the nodes are in the table, the nodes above the
+        // largest zero-sum subset are left over:
+        boolean balanced = lowSums[fullSet & lowMask] +
+                           highSums[fullSet >>> h] == 0L;
+        int leftover = 0;
+        int boundary = fullSet;
+        int set = fullSet;
+
+        while (set != 0) {
+            int value = get(table, set);
+
+            if (lowSums[set & lowMask] + highSums[set >>> h] == 0L) {
+                if (set != boundary) {
+                    if (balanced) {
+                        linkGroup(boundary ^ set,
+                                  tablePositiveNodeList,
+                                  tableNegativeNodeList,
+                                  equities,
+                                  ret);
+                    } else {
+                        leftover = boundary ^ set;
+                        balanced = true;
+                    }
+
+                    boundary = set;
+                }
+
+                --value;
+            }
+
+            for (int rest = set; rest != 0; rest &= rest - 1) {
+                int next = set ^ (rest & -rest);
+
+                if (get(table, next) == value) {
+                    set = next;
+                    break;
+                }
+            }
+        }
+
+        if (balanced) {
+            linkGroup(boundary,
+                      tablePositiveNodeList,
+                      tableNegativeNodeList,
+                      equities,
+                      ret);
+        } else {
+            leftover = boundary;
+        }
+
+        finishSearch(meter);
+
+        if (n < positiveNodeList.size() + negativeNodeList.size()) {
+            List<Integer> leftoverPositiveNodeList = new ArrayList<Integer>();
+            List<Integer> leftoverNegativeNodeList = new ArrayList<Integer>();
+
+            for (int i = 0; i < n; ++i) {
+                if ((leftover & (1 << i)) != 0) {
+                    (i < positiveAmount ?
+                            leftoverPositiveNodeList :
+                            leftoverNegativeNodeList).add(nodeList.get(i));
+                }
+            }
+
+            leftoverPositiveNodeList.addAll(
+                    positiveNodeList.subList(positiveAmount,
+                                             positiveNodeList.size()));
+            leftoverNegativeNodeList.addAll(
+                    negativeNodeList.subList(negativeAmount,
+                                             negativeNodeList.size()));
+            linkGroup(leftoverPositiveNodeList,
+                      leftoverNegativeNodeList,
+                      equities,
+                      ret);
+            skipSearch();
+        }
+
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        return ret;
+    }
+
+    /**
+     * Computes the signed equity sums of all subsets of the nodes at indices
+     * <tt>[from, to)</tt>.
+     */
+    private static long[] computeSubsetSums(List<Integer> nodeList,
+                                            long[] equities,
+                                            int from,
+                                            int to) {
+        long[] sums = new long[1 << (to - from)];
+
+        for (int set = 1; set < sums.length; ++set) {
+            int lowest = Integer.numberOfTrailingZeros(set);
+            sums[set] = sums[set & (set - 1)] +
+                        equities[nodeList.get(from + lowest)];
+        }
+
+        return sums;
+    }
+
+    private static int get(byte[] table, int set) {
+        return (table[set >>> 1] >>> ((set & 1) << 2)) & 0xf;
+    }
+
+    private static void put(byte[] table, int set, int value) {
+        int shift = (set & 1) << 2;
+        int index = set >>> 1;
+        table[index] = (byte)((table[index] & ~(0xf << shift)) |
+                              (value << shift));
+    }
+}
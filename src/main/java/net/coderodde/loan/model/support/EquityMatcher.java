@@ -0,0 +1,283 @@
+package net.coderodde.loan.model.support;
+
+import java.util.List;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class resolves the smallest groups before any combinatorial search:
+ * the pairs of a positive and a negative node of equal absolute equities,
+ * and the triples of a node and two nodes of the opposite sign summing up to
+ * it. The nodes of each sign are bucketed by their absolute equities in a
+ * primitive hash table, so that a pair is found by a single lookup. The
+ * triples are searched over the buckets rather than the nodes: each distinct
+ * equity is tried against the distinct equities of the opposite sign at most
+ * half of it, and all the triples of the two buckets are linked at once.
+ * Hence the work of the triple pass is proportional to the product of the
+ * amounts of distinct equities of the two signs, which on data with many
+ * matching balances is far below the product of the node amounts.
+ * <p>
+ * Resolving the pairs never lowers the amount of groups attainable by the
+ * remaining nodes, so it is safe for the exact simplifiers; resolving the
+ * triples may, so it is meant for the heuristic ones only. The matched nodes
+ * are removed from the node lists in a single pass by
+ * {@link #removeMatched()}.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class EquityMatcher {
+
+    private final List<Integer> positiveNodeList;
+    private final List<Integer> negativeNodeList;
+    private final long[] positiveEquityArray;
+    private final long[] negativeEquityArray;
+    private final boolean[] positiveMatched;
+    private final boolean[] negativeMatched;
+    private final EquityIndex positiveIndex;
+    private final EquityIndex negativeIndex;
+
+    EquityMatcher(List<Integer> positiveNodeList,
+                  List<Integer> negativeNodeList,
+                  long[] equities) {
+        this.positiveNodeList = positiveNodeList;
+        this.negativeNodeList = negativeNodeList;
+        this.positiveEquityArray =
+                Utils.getEquityArray(positiveNodeList, equities);
+        this.negativeEquityArray =
+                Utils.getEquityArray(negativeNodeList, equities);
+        this.positiveMatched = new boolean[positiveEquityArray.length];
+        this.negativeMatched = new boolean[negativeEquityArray.length];
+        this.positiveIndex = new EquityIndex(positiveEquityArray,
+                                             positiveMatched);
+        this.negativeIndex = new EquityIndex(negativeEquityArray,
+                                             negativeMatched);
+    }
+
+    /**
+     * Links each positive node with a negative node of the same absolute
+     * equity, if any.
+     *
+     * @param graph the graph to link the pairs in.
+     * @return the amount of pairs linked.
+     */
+    int matchPairs(CompactGraph graph) {
+        int matched = 0;
+
+        for (int pi = 0; pi < positiveEquityArray.length; ++pi) {
+            if (positiveMatched[pi]) {
+                continue;
+            }
+
+            int ni = negativeIndex.find(positiveEquityArray[pi], -1);
+
+            if (ni >= 0) {
+                positiveMatched[pi] = true;
+                negativeMatched[ni] = true;
+                graph.addWeight(positiveNodeList.get(pi),
+                                negativeNodeList.get(ni),
+                                positiveEquityArray[pi]);
+                ++matched;
+            }
+        }
+
+        return matched;
+    }
+
+    /**
+     * Links the triples of a positive node and two negative nodes, and then
+     * the triples of two positive nodes and a negative node.
+     *
+     * @param graph the graph to link the triples in.
+     * @return the amount of triples linked.
+     */
+    int matchTriples(CompactGraph graph) {
+        return matchTriples(positiveIndex, negativeIndex, true, graph)
+             + matchTriples(negativeIndex, positiveIndex, false, graph);
+    }
+
+    /**
+     * Links the triples of a node of <code>targetIndex</code> and two nodes
+     * of <code>partIndex</code>. Each distinct target equity is tried
+     * against each distinct part equity at most half of it, so the work
+     * depends on the amounts of distinct equities rather than of nodes.
+     *
+     * @param targetIndex     the index of the single nodes of the triples.
+     * @param partIndex       the index of the node pairs of the triples.
+     * @param positiveTargets whether the target nodes are positive.
+     * @param graph           the graph to link the triples in.
+     * @return the amount of triples linked.
+     */
+    private int matchTriples(EquityIndex targetIndex,
+                             EquityIndex partIndex,
+                             boolean positiveTargets,
+                             CompactGraph graph) {
+        int matched = 0;
+
+        for (int v = 0; v < targetIndex.valueAmount; ++v) {
+            long equity = targetIndex.values[v];
+            int target = targetIndex.find(equity, -1);
+
+            for (int w = 0; target >= 0 && w < partIndex.valueAmount; ++w) {
+                long part = partIndex.values[w];
+
+                if (part > equity - part) {
+                    continue;
+                }
+
+                while (target >= 0) {
+                    int first = partIndex.find(part, -1);
+                    int second = first < 0 ?
+                                 -1 :
+                                 partIndex.find(equity - part, first);
+
+                    if (second < 0) {
+                        break;
+                    }
+
+                    targetIndex.matched[target] = true;
+                    partIndex.matched[first] = true;
+                    partIndex.matched[second] = true;
+
+                    if (positiveTargets) {
+                        link(target, first, part, graph);
+                        link(target, second, equity - part, graph);
+                    } else {
+                        link(first, target, part, graph);
+                        link(second, target, equity - part, graph);
+                    }
+
+                    ++matched;
+                    target = targetIndex.find(equity, -1);
+                }
+            }
+        }
+
+        return matched;
+    }
+
+    private void link(int positiveIndex,
+                      int negativeIndex,
+                      long weight,
+                      CompactGraph graph) {
+        graph.addWeight(positiveNodeList.get(positiveIndex),
+                        negativeNodeList.get(negativeIndex),
+                        weight);
+    }
+
+    /**
+     * Removes the matched nodes from the node lists, keeping the order of
+     * the remaining ones.
+     */
+    void removeMatched() {
+        removeMatched(positiveNodeList, positiveMatched);
+        removeMatched(negativeNodeList, negativeMatched);
+    }
+
+    private static void removeMatched(List<Integer> nodeList,
+                                      boolean[] matched) {
+        int size = 0;
+
+        for (int i = 0; i < matched.length; ++i) {
+            if (!matched[i]) {
+                nodeList.set(size++, nodeList.get(i));
+            }
+        }
+
+        nodeList.subList(size, nodeList.size()).clear();
+    }
+
+    /**
+     * This class implements a primitive hash table mapping each equity to
+     * the chain of the indices of the nodes having it. The matched nodes are
+     * skipped lazily and unlinked once they reach the head of their chain.
+     * The distinct equities are listed in the order of their first nodes.
+     */
+    private static final class EquityIndex {
+
+        private final long[] keys;
+        private final int[] heads;
+        private final int[] nextIndices;
+        private final boolean[] matched;
+        private final long[] values;
+        private final int valueAmount;
+        private final int mask;
+
+        EquityIndex(long[] equityArray, boolean[] matched) {
+            int capacity = Integer.highestOneBit(
+                    Math.max(1, equityArray.length) * 2 - 1) << 1;
+
+            this.keys = new long[capacity];
+            this.heads = new int[capacity];
+            this.nextIndices = new int[equityArray.length];
+            this.matched = matched;
+            this.mask = capacity - 1;
+
+            // Insert backwards so that each chain lists the indices in
+            // ascending order:
+            for (int i = equityArray.length - 1; i >= 0; --i) {
+                int slot = locate(equityArray[i]);
+
+                if (keys[slot] == 0L) {
+                    keys[slot] = equityArray[i];
+                    heads[slot] = -1;
+                }
+
+                nextIndices[i] = heads[slot];
+                heads[slot] = i;
+            }
+
+            this.values = new long[equityArray.length];
+            int valueAmount = 0;
+
+            for (int i = 0; i < equityArray.length; ++i) {
+                if (heads[locate(equityArray[i])] == i) {
+                    values[valueAmount++] = equityArray[i];
+                }
+            }
+
+            this.valueAmount = valueAmount;
+        }
+
+        /**
+         * Returns the lowest index of an unmatched node other than
+         * <code>excluded</code> having the equity <code>equity</code>.
+         *
+         * @param equity   the absolute equity to look up.
+         * @param excluded the index to skip or -1.
+         * @return the index of the node or -1 if there is no such node.
+         */
+        int find(long equity, int excluded) {
+            int slot = locate(equity);
+
+            if (keys[slot] == 0L) {
+                return -1;
+            }
+
+            while (heads[slot] >= 0 && matched[heads[slot]]) {
+                heads[slot] = nextIndices[heads[slot]];
+            }
+
+            for (int i = heads[slot]; i >= 0; i = nextIndices[i]) {
+                if (i != excluded && !matched[i]) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Returns the slot of <code>key</code> or the empty slot it would be
+         * inserted in. The equities are positive, so zero marks empty slots.
+         */
+        private int locate(long key) {
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+            while (keys[slot] != 0L && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package net.coderodde.loan.model.support;
+
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.Graph;
+
+/**
+ * This abstract class is the base of all simplifiers that read nothing but the
+ * node equities of the input graph. Subclasses implement
+ * {@link #simplifyEquities(EquityVector)}; the graph entry points only
+ * extract the equities, so the input arcs are never copied. All entry points
+ * report the start and the end of the simplification to the listener.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public abstract class EquitySimplifier extends InstrumentedSimplifier {
+
+    @Override
+    public Graph simplify(Graph g) {
+        return simplify(EquityVector.of(g),
+                        g.getEdgeAmount(),
+                        g.getTotalFlow()).toGraph();
+    }
+
+    @Override
+    public CompactGraph simplify(CompactGraph g) {
+        return simplify(EquityVector.of(g),
+                        g.getEdgeAmount(),
+                        g.getTotalFlow());
+    }
+
+    @Override
+    public final CompactGraph simplify(EquityVector equities) {
+        return simplify(equities, -1, -1L);
+    }
+
+    /**
+     * Computes a compact loan graph with the equities given in
+     * <code>equities</code>. The ID of each node in the result must equal
+     * its ID in <code>equities</code>.
+     *
+     * @param equities the equities of the graph to simplify.
+     * @return the simplified compact graph.
+     */
+    protected abstract CompactGraph simplifyEquities(EquityVector equities);
+
+    private CompactGraph simplify(EquityVector equities,
+                                  int arcAmount,
+                                  long flow) {
+        long startTime = start(equities.size(), arcAmount, flow);
+        CompactGraph result = simplifyEquities(equities);
+        finish(result.getEdgeAmount(), result.getTotalFlow(), startTime);
+        return result;
+    }
+}
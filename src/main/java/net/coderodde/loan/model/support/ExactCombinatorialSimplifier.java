@@ -1,147 +1,215 @@
 package net.coderodde.loan.model.support;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
-import net.coderodde.loan.model.Algorithm;
-import net.coderodde.loan.model.Graph;
-import net.coderodde.loan.model.Node;
-import net.coderodde.loan.model.support.Utils.Triple;
-import static net.coderodde.loan.model.support.Utils.createGroup;
-import static net.coderodde.loan.model.support.Utils.equityComparator;
-import static net.coderodde.loan.model.support.Utils.groupOrderComparator;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
+import net.coderodde.loan.model.support.Utils.Pair;
 import static net.coderodde.loan.model.support.Utils.linkGroup;
+import static net.coderodde.loan.model.support.Utils.resolveBinaryGroups;
+import static net.coderodde.loan.model.support.Utils.rotateMask;
 import static net.coderodde.loan.model.support.Utils.split;
 import static net.coderodde.loan.model.support.Utils.sumNodeEquities;
+import static net.coderodde.loan.model.support.Utils.toMask;
 
 /**
- * This is the implementation of an exact combinatorial simplifier.
+ * This is the implementation of an exact combinatorial simplifier. With a
+ * limited {@link SearchBudget}, the group search stops when the budget runs
+ * out and the best cover of the groups found so far is returned.
+ * <p>
+ * The combinations of the nodes of one sign are enumerated and matched with
+ * the subsets of the other sign by a {@link SubsetSumIndex}. The side to
+ * index is the one making the search cheaper, so a handful of nodes of one
+ * sign against many of the other are either indexed themselves or
+ * enumerated against an index of the many. The nodes beyond what the index
+ * holds within <code>SubsetSumIndex.MAXIMUM_BUILD_BYTES</code> are
+ * enumerated on each lookup, so the search stays exact at any size the
+ * group masks allow. Building the index is charged to the budget as well;
+ * if the budget runs out before the index is built, or the nodes are too
+ * many for the group masks, the remaining nodes are linked in a single
+ * group as by {@link LinearSimplifier}, and the result is not reported
+ * optimal.
+ * <p>
+ * This class also implements {@link FasterExactCombinatorialSimplifier},
+ * which resolves the matching pairs of equities before the search.
  *
  * @author coderodde
  * @version 1.6
  */
-public class ExactCombinatorialSimplifier implements Algorithm {
+public class ExactCombinatorialSimplifier extends BudgetedSimplifier {
+
+    /**
+     * Whether the matching pairs of equities are resolved before the search.
+     */
+    private final boolean resolvesBinaryGroups;
+
+    /**
+     * Constructs a simplifier with unlimited budget.
+     */
+    public ExactCombinatorialSimplifier() {
+        this(SearchBudget.UNLIMITED);
+    }
+
+    /**
+     * Constructs a simplifier with the given budget.
+     *
+     * @param budget the search budget.
+     */
+    public ExactCombinatorialSimplifier(SearchBudget budget) {
+        this(budget, false);
+    }
+
+    ExactCombinatorialSimplifier(SearchBudget budget,
+                                 boolean resolvesBinaryGroups) {
+        super(budget);
+        this.resolvesBinaryGroups = resolvesBinaryGroups;
+    }
 
     @Override
-    public Graph simplify(Graph g) {
-        Graph ret = g.copyWithoutArcs();
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
+        SearchBudget.Meter meter = startSearch();
 
-        if (g.size() < 2) {
+        if (equityVector.size() < 2) {
             return ret;
         }
 
-        Triple<List<Node>, List<Node>, List<Node>> triple = split(g);
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
 
-        List<Node> positiveNodeList = triple.first;
-        List<Node> negativeNodeList = triple.second;
+        List<Integer> positiveNodeList = pair.first;
+        List<Integer> negativeNodeList = pair.second;
 
+        if (positiveNodeList.isEmpty()) {
+            return ret;
+        }
+
+        phaseStartTime = startPhase();
+        EquityComparator equityComparator = new EquityComparator(equities);
         Collections.sort(positiveNodeList, equityComparator);
         Collections.sort(negativeNodeList, equityComparator);
+        finishPhase(Phase.SORT, phaseStartTime);
 
-        CombinationIndexGenerator positiveGenerator;
-        CombinationIndexGenerator negativeGenerator;
-
-        int[] positiveIndices;
-        int[] negativeIndices;
-
-        Deque<Set<Node>> groups = new LinkedList<Set<Node>>();
-
-        positiveGenerator =
-                new CombinationIndexGenerator(positiveNodeList.size());
-
-        outer:
-        while ((positiveIndices = positiveGenerator.inc()) != null) {
-            long currentPositiveSum = sumNodeEquities(positiveNodeList,
-                                                      positiveIndices);
-
-            negativeGenerator =
-                    new CombinationIndexGenerator(negativeNodeList.size());
+        phaseStartTime = startPhase();
+        int groupsFound = 0;
 
-            while ((negativeIndices = negativeGenerator.inc()) != null) {
-                long currentNegativeSum = sumNodeEquities(negativeNodeList,
-                                                          negativeIndices);
+        if (resolvesBinaryGroups) {
+            groupsFound = resolveBinaryGroups(positiveNodeList,
+                                              negativeNodeList,
+                                              equities,
+                                              ret);
 
-                if (currentNegativeSum > currentPositiveSum) {
-                    if (negativeIndices[0] == 0
-                            && negativeGenerator.hasNoGaps()) {
-                        continue outer;
-                    }
-                } else if (currentPositiveSum == currentNegativeSum) {
-                    groups.add(createGroup(positiveNodeList,
-                                           negativeNodeList,
-                                           positiveIndices,
-                                           negativeIndices));
-                }
+            if (positiveNodeList.isEmpty()) {
+                finishPhase(Phase.SEARCH, phaseStartTime);
+                count(Counter.GROUPS_FOUND, groupsFound);
+                return ret;
             }
         }
 
-        Set<Node>[] groupArray = new Set[groups.size()];
-        int index = 0;
-
-        for (Set<Node> group : groups) {
-            groupArray[index++] = group;
+        int p = positiveNodeList.size();
+        int q = negativeNodeList.size();
+        int nodeAmount = p + q;
+
+        if (nodeAmount > GroupCoverFinder.MAXIMUM_SIZE) {
+            skipSearch();
+            return linkSingleGroup(positiveNodeList,
+                                   negativeNodeList,
+                                   equities,
+                                   groupsFound,
+                                   phaseStartTime,
+                                   ret);
         }
 
-        Arrays.sort(groupArray, groupOrderComparator);
-
-        int n = 0;
-        int i = 0;
-        final int N = positiveNodeList.size() + negativeNodeList.size();
-
-        while (n < N) {
-            n += groupArray[i++].size();
+        // Index the side that makes the search cheaper, the negative one on
+        // a tie; the nodes of the enumerated side take the lowest bits:
+        boolean indexesPositives = SubsetSumIndex.getSearchIterations(q, p)
+                                   < SubsetSumIndex.getSearchIterations(p, q);
+        List<Integer> enumeratedNodeList = indexesPositives ?
+                                           negativeNodeList :
+                                           positiveNodeList;
+        List<Integer> indexedNodeList = indexesPositives ?
+                                        positiveNodeList :
+                                        negativeNodeList;
+        int e = enumeratedNodeList.size();
+
+        meter.expect(SubsetSumIndex.getSearchIterations(e, nodeAmount - e));
+
+        SubsetSumIndex index =
+                new SubsetSumIndex(indexedNodeList, equities, e, meter);
+
+        if (meter.isExhausted()) {
+            finishSearch(meter);
+            return linkSingleGroup(positiveNodeList,
+                                   negativeNodeList,
+                                   equities,
+                                   groupsFound,
+                                   phaseStartTime,
+                                   ret);
         }
 
-        CombinationIndexGenerator cig =
-                new CombinationIndexGenerator(groupArray.length);
+        CombinationIndexGenerator generator =
+                new CombinationIndexGenerator(e);
 
-        int bestGroupAmount = -1;
-        List<Set<Node>> bestGroupList = new ArrayList<Set<Node>>(n);
-        Set<Node> set = new HashSet<Node>(n);
+        int[] indices;
 
-        outer2:
-        for (;;) {
-            if (cig.getK() > n) {
-                break;
-            }
+        LongList groups = new LongList();
+        long combinations = 0L;
 
-            int[] indices = cig.inc();
+        while (meter.tick() && (indices = generator.inc()) != null) {
+            ++combinations;
 
-            if (indices == null) {
+            if (!index.findGroups(toMask(indices),
+                                  sumNodeEquities(enumeratedNodeList,
+                                                  equities,
+                                                  indices),
+                                  groups,
+                                  meter)) {
                 break;
             }
+        }
 
-            set.clear();
-
-            for (int index2 : indices) {
-                if (Collections.disjoint(set, groupArray[index2])) {
-                    set.addAll(groupArray[index2]);
-                } else {
-                    continue outer2;
-                }
+        // The cover search only tells the two sides apart:
+        long[] bestCover = new GroupCoverFinder(groups,
+                                                (1L << e) - 1L,
+                                                nodeAmount,
+                                                meter).find();
+        finishSearch(meter);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        count(Counter.COMBINATIONS_ENUMERATED, combinations);
+        count(Counter.GROUPS_FOUND, groupsFound + bestCover.length);
+
+        phaseStartTime = startPhase();
+
+        for (long group : bestCover) {
+            if (indexesPositives) {
+                group = rotateMask(group, q, p);
             }
 
-            if (set.size() == N) {
-                if (bestGroupAmount < indices.length) {
-                    bestGroupAmount = indices.length;
-                    bestGroupList.clear();
-
-                    for (int index2 : indices) {
-                        bestGroupList.add(groupArray[index2]);
-                    }
-                }
-            }
+            linkGroup(group, positiveNodeList, negativeNodeList, equities, ret);
         }
 
-        for (Set<Node> group : bestGroupList) {
-            linkGroup(group, ret);
-        }
+        finishPhase(Phase.LINK, phaseStartTime);
+        return ret;
+    }
 
+    /**
+     * Links the nodes left without a search in a single group, as
+     * {@link LinearSimplifier} would, and reports the search phase.
+     */
+    private CompactGraph linkSingleGroup(List<Integer> positiveNodeList,
+                                         List<Integer> negativeNodeList,
+                                         long[] equities,
+                                         int groupsFound,
+                                         long phaseStartTime,
+                                         CompactGraph ret) {
+        linkGroup(positiveNodeList, negativeNodeList, equities, ret);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        count(Counter.GROUPS_FOUND, groupsFound + 1);
         return ret;
     }
 }
@@ -0,0 +1,603 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
+import net.coderodde.loan.model.support.Utils.Pair;
+import static net.coderodde.loan.model.support.Utils.getEquityArray;
+import static net.coderodde.loan.model.support.Utils.link;
+import static net.coderodde.loan.model.support.Utils.resolveSmallGroups;
+import static net.coderodde.loan.model.support.Utils.split;
+
+/**
+ * This class implements a greedy combinatorial simplifier for large inputs.
+ * Like {@link GreedyCombinatorialSimplifier}, it splits off the smallest
+ * zero-sum groups first, but only up to a bounded group size <tt>k</tt>;
+ * the nodes left over are linked as a single group.
+ * <p>
+ * The pairs and triples are resolved by {@link EquityMatcher}. For each
+ * larger group size and each split of it into <tt>a</tt> positive and
+ * <tt>b</tt> negative nodes, the subsets of one side are put in a primitive
+ * hash table by their sums, and the subsets of the other side are
+ * enumerated with their sums updated incrementally and looked up in the
+ * table. Either all the subsets of one side are put in the table, or only
+ * the subsets one node short of it, in which case each enumerated subset is
+ * looked up once per node of the indexed side, with the equity of the node
+ * subtracted from its sum. Of these, the split with the least work is
+ * chosen. The nodes of the groups found are marked used and skipped from
+ * then on. Each side of a group holds at most {@value #MAXIMUM_SIDE_SIZE}
+ * nodes, so the running time is about <tt>O(n^(k / 2 + 1))</tt>; with the
+ * default <tt>k = 4</tt> it is quadratic and the simplifier handles
+ * thousands of nodes. The subset enumerations check the cancellation of the
+ * running {@link SimplificationTask}, if any, and throw a
+ * {@link CancellationException} once it is cancelled.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class FastGreedyCombinatorialSimplifier extends EquitySimplifier {
+
+    /**
+     * The default maximum group size.
+     */
+    public static final int DEFAULT_MAXIMUM_GROUP_SIZE = 4;
+
+    /**
+     * The maximum amount of nodes of each sign in a group.
+     */
+    public static final int MAXIMUM_SIDE_SIZE = 3;
+
+    /**
+     * The maximum amount of subsets put in a hash table. The group size
+     * splits requiring larger tables on both sides are skipped.
+     */
+    private static final long MAXIMUM_TABLE_SIZE = 1L << 24;
+
+    /**
+     * The amount of subsets between two cancellation checks, minus one.
+     */
+    private static final long CANCELLATION_CHECK_MASK = (1L << 10) - 1L;
+
+    private static final int INDEX_BITS = 21;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1L;
+
+    private final int maximumGroupSize;
+
+    /**
+     * Constructs a simplifier with the default maximum group size.
+     */
+    public FastGreedyCombinatorialSimplifier() {
+        this(DEFAULT_MAXIMUM_GROUP_SIZE);
+    }
+
+    /**
+     * Constructs a simplifier splitting off groups of at most
+     * <code>maximumGroupSize</code> nodes.
+     *
+     * @param maximumGroupSize the maximum group size <tt>k</tt>.
+     */
+    public FastGreedyCombinatorialSimplifier(int maximumGroupSize) {
+        if (maximumGroupSize < 2 || maximumGroupSize > 2 * MAXIMUM_SIDE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Illegal maximum group size: " + maximumGroupSize +
+                    "; must be within [2, " + 2 * MAXIMUM_SIDE_SIZE + "].");
+        }
+
+        this.maximumGroupSize = maximumGroupSize;
+    }
+
+    /**
+     * Returns the maximum size of the groups split off.
+     *
+     * @return the maximum group size.
+     */
+    public int getMaximumGroupSize() {
+        return maximumGroupSize;
+    }
+
+    @Override
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
+
+        if (equityVector.size() < 2) {
+            return ret;
+        }
+
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
+
+        List<Integer> positiveNodeList = pair.first;
+        List<Integer> negativeNodeList = pair.second;
+
+        if (positiveNodeList.isEmpty()) {
+            return ret;
+        }
+
+        phaseStartTime = startPhase();
+        EquityComparator equityComparator = new EquityComparator(equities);
+        Collections.sort(positiveNodeList, equityComparator);
+        Collections.sort(negativeNodeList, equityComparator);
+        finishPhase(Phase.SORT, phaseStartTime);
+
+        phaseStartTime = startPhase();
+
+        int groups;
+
+        if (maximumGroupSize >= 3) {
+            groups = resolveSmallGroups(positiveNodeList,
+                                        negativeNodeList,
+                                        equities,
+                                        ret);
+        } else {
+            groups = Utils.resolveBinaryGroups(positiveNodeList,
+                                               negativeNodeList,
+                                               equities,
+                                               ret);
+        }
+
+        if (positiveNodeList.isEmpty()) {
+            finishPhase(Phase.SEARCH, phaseStartTime);
+            count(Counter.GROUPS_FOUND, groups);
+            return ret;
+        }
+
+        SearchProgress progress = SearchProgress.current();
+        Side positiveSide = new Side(positiveNodeList, equities, progress);
+        Side negativeSide = new Side(negativeNodeList, equities, progress);
+
+        for (int groupSize = 4; groupSize <= maximumGroupSize; ++groupSize) {
+            for (int positiveSize = 1;
+                    positiveSize < groupSize;
+                    ++positiveSize) {
+                int negativeSize = groupSize - positiveSize;
+
+                if (positiveSize <= MAXIMUM_SIDE_SIZE
+                        && negativeSize <= MAXIMUM_SIDE_SIZE) {
+                    groups += findGroups(positiveSide,
+                                         positiveSize,
+                                         negativeSide,
+                                         negativeSize,
+                                         ret);
+                }
+            }
+        }
+
+        List<Integer> remainingPositives = positiveSide.getUnusedNodes();
+        List<Integer> remainingNegatives = negativeSide.getUnusedNodes();
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        phaseStartTime = startPhase();
+
+        if (!remainingPositives.isEmpty()) {
+            link(remainingPositives,
+                 remainingNegatives,
+                 getEquityArray(remainingPositives, equities),
+                 getEquityArray(remainingNegatives, equities),
+                 ret);
+            ++groups;
+        }
+
+        finishPhase(Phase.LINK, phaseStartTime);
+        count(Counter.GROUPS_FOUND, groups);
+        return ret;
+    }
+
+    /**
+     * Splits off all the groups of <code>positiveSize</code> positive and
+     * <code>negativeSize</code> negative unused nodes found.
+     *
+     * @return the amount of groups found.
+     */
+    private int findGroups(Side positiveSide,
+                           int positiveSize,
+                           Side negativeSide,
+                           int negativeSize,
+                           CompactGraph graph) {
+        if (positiveSide.countSubsets(positiveSize) == 0L
+                || negativeSide.countSubsets(negativeSize) == 0L) {
+            return 0;
+        }
+
+        // Choose the side to index and whether to leave a single node of it
+        // out of the table, minimizing the work within the table bound:
+        boolean indexPositive = false;
+        boolean pivoting = false;
+        double bestWork = Double.POSITIVE_INFINITY;
+
+        for (int choice = 0; choice < 4; ++choice) {
+            boolean positive = (choice & 1) != 0;
+            boolean pivot = (choice & 2) != 0;
+            Side indexed = positive ? positiveSide : negativeSide;
+            Side enumerated = positive ? negativeSide : positiveSide;
+            int indexedSize = (positive ? positiveSize : negativeSize)
+                              - (pivot ? 1 : 0);
+            int enumeratedSize = positive ? negativeSize : positiveSize;
+
+            if (indexedSize == 0) {
+                continue;
+            }
+
+            long tableSize = indexed.countSubsets(indexedSize);
+            double work = tableSize
+                        + (double) enumerated.countSubsets(enumeratedSize)
+                        * (pivot ? indexed.unused : 1);
+
+            if (tableSize <= MAXIMUM_TABLE_SIZE && work < bestWork) {
+                indexPositive = positive;
+                pivoting = pivot;
+                bestWork = work;
+            }
+        }
+
+        if (bestWork == Double.POSITIVE_INFINITY) {
+            return 0;
+        }
+
+        boolean pivot = pivoting;
+        boolean positive = indexPositive;
+        Side indexedSide = positive ? positiveSide : negativeSide;
+        Side enumeratedSide = positive ? negativeSide : positiveSide;
+        int indexedSize = (positive ? positiveSize : negativeSize)
+                          - (pivot ? 1 : 0);
+        int enumeratedSize = positive ? negativeSize : positiveSize;
+        SubsetSumTable table =
+                new SubsetSumTable((int) indexedSide.countSubsets(indexedSize));
+
+        indexedSide.forEachSubset(indexedSize, (indices, sum) -> {
+            table.put(sum, pack(indices));
+            return false;
+        });
+
+        int[] tableIndices = new int[indexedSize];
+        int[] matchIndices = new int[indexedSize + (pivot ? 1 : 0)];
+        long[] lookups = { table.size };
+        int[] groups = new int[1];
+
+        enumeratedSide.forEachSubset(enumeratedSize, (indices, sum) -> {
+            if (!pivot) {
+                ++lookups[0];
+
+                if (!table.find(sum, indexedSide.used, -1, matchIndices)) {
+                    return false;
+                }
+            } else if (!findPivoted(table,
+                                    indexedSide,
+                                    sum,
+                                    tableIndices,
+                                    matchIndices,
+                                    lookups)) {
+                return false;
+            }
+
+            int[] positiveIndices = positive ? matchIndices : indices;
+            int[] negativeIndices = positive ? indices : matchIndices;
+            List<Integer> positiveNodeList =
+                    positiveSide.use(positiveIndices);
+            List<Integer> negativeNodeList =
+                    negativeSide.use(negativeIndices);
+
+            link(positiveNodeList,
+                 negativeNodeList,
+                 positiveSide.getEquityArray(positiveIndices),
+                 negativeSide.getEquityArray(negativeIndices),
+                 graph);
+
+            ++groups[0];
+            return true;
+        });
+
+        count(Counter.COMBINATIONS_ENUMERATED, lookups[0]);
+        return groups[0];
+    }
+
+    /**
+     * Finds a subset of unused nodes of <code>indexedSide</code> summing to
+     * <code>sum</code> made of a subset in <code>table</code> and a single
+     * node outside it. The single node goes to the last element of
+     * <code>matchIndices</code>.
+     *
+     * @return <code>true</code> if a subset was found.
+     */
+    private static boolean findPivoted(SubsetSumTable table,
+                                       Side indexedSide,
+                                       long sum,
+                                       int[] tableIndices,
+                                       int[] matchIndices,
+                                       long[] lookups) {
+        long[] equityArray = indexedSide.equityArray;
+        boolean[] used = indexedSide.used;
+
+        // The equities ascend, so the remaining sum only decreases:
+        for (int pivot = 0;
+                pivot < used.length && equityArray[pivot] < sum;
+                ++pivot) {
+            if (used[pivot]) {
+                continue;
+            }
+
+            ++lookups[0];
+
+            if (table.find(sum - equityArray[pivot],
+                           used,
+                           pivot,
+                           tableIndices)) {
+                System.arraycopy(tableIndices,
+                                 0,
+                                 matchIndices,
+                                 0,
+                                 tableIndices.length);
+                matchIndices[tableIndices.length] = pivot;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long pack(int[] indices) {
+        long packed = 0L;
+
+        for (int i = indices.length - 1; i >= 0; --i) {
+            packed = (packed << INDEX_BITS) | indices[i];
+        }
+
+        return packed;
+    }
+
+    private static void unpack(long packed, int[] indices) {
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = (int) (packed & INDEX_MASK);
+            packed >>>= INDEX_BITS;
+        }
+    }
+
+    /**
+     * This interface specifies the callback for the subsets of a side.
+     */
+    @FunctionalInterface
+    private interface SubsetVisitor {
+
+        /**
+         * Visits a subset.
+         *
+         * @param indices the ascending indices of the subset.
+         * @param sum     the sum of the absolute equities of the subset.
+         * @return <code>true</code> if the subset was used up.
+         */
+        boolean visit(int[] indices, long sum);
+    }
+
+    /**
+     * This class holds the nodes of one sign in ascending order of their
+     * absolute equities.
+     */
+    private static final class Side {
+
+        private final List<Integer> nodeList;
+        private final long[] equityArray;
+        private final boolean[] used;
+        private final SearchProgress progress;
+        private int unused;
+
+        Side(List<Integer> nodeList,
+             long[] equities,
+             SearchProgress progress) {
+            if (nodeList.size() > INDEX_MASK) {
+                throw new IllegalArgumentException(
+                        "Too many nodes: " + nodeList.size() + ".");
+            }
+
+            this.nodeList = nodeList;
+            this.equityArray = Utils.getEquityArray(nodeList, equities);
+            this.used = new boolean[nodeList.size()];
+            this.progress = progress;
+            this.unused = nodeList.size();
+        }
+
+        long countSubsets(int size) {
+            long count = 1L;
+
+            for (int i = 0; i < size; ++i) {
+                count = count * (unused - i) / (i + 1);
+            }
+
+            return Math.max(count, 0L);
+        }
+
+        /**
+         * Visits each subset of <code>size</code> unused nodes. The sum of
+         * each subset is computed from the sum of its prefix. After a subset
+         * is used up, the enumeration resumes past its first node.
+         *
+         * @throws CancellationException if the search is asked to stop.
+         */
+        void forEachSubset(int size, SubsetVisitor visitor) {
+            int[] indices = new int[size];
+            long[] prefixSums = new long[size + 1];
+            long steps = 0L;
+            int depth = 0;
+            indices[0] = -1;
+
+            while (depth >= 0) {
+                if ((++steps & CANCELLATION_CHECK_MASK) == 0L
+                        && progress.isStopRequested()) {
+                    throw new CancellationException(
+                            "The simplification is cancelled.");
+                }
+
+                int i = indices[depth] + 1;
+
+                while (i < used.length && used[i]) {
+                    ++i;
+                }
+
+                if (i >= used.length) {
+                    --depth;
+                    continue;
+                }
+
+                indices[depth] = i;
+                prefixSums[depth + 1] = prefixSums[depth] + equityArray[i];
+
+                if (depth < size - 1) {
+                    indices[++depth] = i;
+                } else if (visitor.visit(indices, prefixSums[size])) {
+                    depth = 0;
+                }
+            }
+        }
+
+        List<Integer> use(int[] indices) {
+            List<Integer> ret = new ArrayList<Integer>(indices.length);
+
+            for (int index : indices) {
+                used[index] = true;
+                ret.add(nodeList.get(index));
+            }
+
+            unused -= indices.length;
+            return ret;
+        }
+
+        long[] getEquityArray(int[] indices) {
+            long[] ret = new long[indices.length];
+
+            for (int i = 0; i < indices.length; ++i) {
+                ret[i] = equityArray[indices[i]];
+            }
+
+            return ret;
+        }
+
+        List<Integer> getUnusedNodes() {
+            List<Integer> ret = new ArrayList<Integer>(unused);
+
+            for (int i = 0; i < used.length; ++i) {
+                if (!used[i]) {
+                    ret.add(nodeList.get(i));
+                }
+            }
+
+            return ret;
+        }
+    }
+
+    /**
+     * This class implements a primitive hash table mapping each sum to the
+     * chain of the packed subsets having it.
+     */
+    private static final class SubsetSumTable {
+
+        private final long[] keys;
+        private final int[] heads;
+        private final long[] subsets;
+        private final int[] nextEntries;
+        private final int mask;
+        private int size;
+
+        SubsetSumTable(int capacity) {
+            int tableCapacity =
+                    Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+
+            this.keys = new long[tableCapacity];
+            this.heads = new int[tableCapacity];
+            this.subsets = new long[capacity];
+            this.nextEntries = new int[capacity];
+            this.mask = tableCapacity - 1;
+        }
+
+        void put(long sum, long subset) {
+            int slot = locate(sum);
+
+            if (keys[slot] == 0L) {
+                keys[slot] = sum;
+                heads[slot] = -1;
+            }
+
+            subsets[size] = subset;
+            nextEntries[size] = heads[slot];
+            heads[slot] = size++;
+        }
+
+        /**
+         * Finds a subset of unused nodes with the sum <code>sum</code>. The
+         * subsets with used nodes met are dropped from the table.
+         *
+         * @param sum      the sum to look up.
+         * @param used     the used flags of the nodes.
+         * @param excluded the node the subset may not contain, or -1.
+         * @param indices  the array to unpack the subset found into.
+         * @return <code>true</code> if a subset was found.
+         */
+        boolean find(long sum, boolean[] used, int excluded, int[] indices) {
+            int slot = locate(sum);
+
+            if (keys[slot] == 0L) {
+                return false;
+            }
+
+            int previousEntry = -1;
+
+            for (int entry = heads[slot];
+                    entry >= 0;
+                    entry = nextEntries[entry]) {
+                unpack(subsets[entry], indices);
+
+                if (contains(indices, used)) {
+                    if (previousEntry < 0) {
+                        heads[slot] = nextEntries[entry];
+                    } else {
+                        nextEntries[previousEntry] = nextEntries[entry];
+                    }
+                } else if (!contains(indices, excluded)) {
+                    return true;
+                } else {
+                    previousEntry = entry;
+                }
+            }
+
+            return false;
+        }
+
+        private static boolean contains(int[] indices, boolean[] used) {
+            for (int index : indices) {
+                if (used[index]) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static boolean contains(int[] indices, int node) {
+            for (int index : indices) {
+                if (index == node) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Returns the slot of <code>key</code> or the empty slot it would be
+         * inserted in. The sums are positive, so zero marks empty slots.
+         */
+        private int locate(long key) {
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+            while (keys[slot] != 0L && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+    }
+}
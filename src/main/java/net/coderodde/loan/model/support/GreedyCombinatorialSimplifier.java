@@ -1,104 +1,143 @@
 package net.coderodde.loan.model.support;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import net.coderodde.loan.model.Algorithm;
-import net.coderodde.loan.model.Graph;
-import net.coderodde.loan.model.Node;
+import java.util.concurrent.CancellationException;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
 import net.coderodde.loan.model.support.Utils.Pair;
-import net.coderodde.loan.model.support.Utils.Triple;
-import static net.coderodde.loan.model.support.Utils.equityComparator;
+import static net.coderodde.loan.model.support.Utils.getEquityArray;
 import static net.coderodde.loan.model.support.Utils.removeNodesFromLists;
+import static net.coderodde.loan.model.support.Utils.resolveSmallGroups;
 import static net.coderodde.loan.model.support.Utils.link;
 import static net.coderodde.loan.model.support.Utils.split;
-import static net.coderodde.loan.model.support.Utils.splitFromGraph;
-import static net.coderodde.loan.model.support.Utils.sumNodeEquities;
+import static net.coderodde.loan.model.support.Utils.splitGroup;
 
 /**
- * This is the implementation of a greedy combinatorial simplifier.
+ * This is the implementation of a greedy combinatorial simplifier. The pairs
+ * and triples of matching equities are resolved up front by
+ * {@link EquityMatcher}. The search alone finds the groups with a single
+ * positive node before those with two, so where a triple of two positive
+ * nodes competes with a larger group of a single one, the result differs
+ * from that of the search alone. The remaining subsets are then enumerated
+ * by size, and within each size in lexicographic order, as by
+ * {@link CombinationIndexGenerator}, with their sums maintained by
+ * {@link SubsetSumEnumerator}. A
+ * search run by a cancelled {@link SimplificationTask} throws a
+ * {@link CancellationException}.
  *
  * @author coderodde
  * @version 1.6
  */
-public class GreedyCombinatorialSimplifier implements Algorithm {
+public class GreedyCombinatorialSimplifier extends EquitySimplifier {
+
+    /**
+     * The amount of combinations between two cancellation checks, minus one.
+     */
+    private static final long CANCELLATION_CHECK_MASK = (1L << 10) - 1L;
 
     @Override
-    public Graph simplify(Graph g) {
-        Graph ret = g.copyWithoutArcs();
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
 
-        if (g.size() < 2) {
+        if (equityVector.size() < 2) {
             return ret;
         }
 
-        Triple<List<Node>, List<Node>, List<Node>> triple = split(g);
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
 
-        List<Node> positiveNodeList = triple.first;
-        List<Node> negativeNodeList = triple.second;
+        List<Integer> positiveNodeList = pair.first;
+        List<Integer> negativeNodeList = pair.second;
 
+        if (positiveNodeList.isEmpty()) {
+            return ret;
+        }
+
+        phaseStartTime = startPhase();
+        EquityComparator equityComparator = new EquityComparator(equities);
         Collections.sort(positiveNodeList, equityComparator);
         Collections.sort(negativeNodeList, equityComparator);
+        finishPhase(Phase.SORT, phaseStartTime);
 
-        CombinationIndexGenerator positiveGenerator =
-                new CombinationIndexGenerator(positiveNodeList.size());
-
-        int[] positiveIndices;
-        int[] negativeIndices;
+        phaseStartTime = startPhase();
+        long groups = resolveSmallGroups(positiveNodeList,
+                                         negativeNodeList,
+                                         equities,
+                                         ret);
+        long combinations = 0L;
+        SearchProgress progress = SearchProgress.current();
+        progress.expect(Math.pow(2.0, positiveNodeList.size()) - 1.0,
+                        Long.MAX_VALUE);
+
+        SubsetSumEnumerator positiveEnumerator =
+                new SubsetSumEnumerator(getEquityArray(positiveNodeList,
+                                                       equities),
+                                        true);
+        SubsetSumEnumerator negativeEnumerator =
+                new SubsetSumEnumerator(getEquityArray(negativeNodeList,
+                                                       equities),
+                                        true);
 
         outer:
-        while ((positiveIndices = positiveGenerator.inc()) != null) {
-            long currentPositiveSum = sumNodeEquities(positiveNodeList,
-                                                      positiveIndices);
-
-            CombinationIndexGenerator negativeGenerator =
-                    new CombinationIndexGenerator(negativeNodeList.size());
+        while (positiveEnumerator.inc()) {
+            long currentPositiveSum = positiveEnumerator.getSum();
+            negativeEnumerator.reset();
+            progress.advance(1L);
+
+            while (negativeEnumerator.inc()) {
+                if ((++combinations & CANCELLATION_CHECK_MASK) == 0L
+                        && progress.isStopRequested()) {
+                    throw new CancellationException(
+                            "The simplification is cancelled.");
+                }
 
-            while ((negativeIndices = negativeGenerator.inc()) != null) {
-                long currentNegativeSum = sumNodeEquities(negativeNodeList,
-                                                          negativeIndices);
+                long currentNegativeSum = negativeEnumerator.getSum();
 
                 if (currentNegativeSum > currentPositiveSum) {
-                    if (negativeIndices[0] == 0
-                            && negativeGenerator.hasNoGaps()) {
+                    if (negativeEnumerator.hasNoGaps()) {
+                        // No larger negative subset is small enough:
                         continue outer;
                     }
                 } else if (currentPositiveSum == currentNegativeSum) {
-//                    System.out.print(currentPositiveSum + ": ");
-//
-//                    for (int i : positiveIndices) {
-//                        System.out.print(positiveNodeList.get(i).getEquity() + " ");
-//                    }
-//
-//                    for (int i : negativeIndices) {
-//                        System.out.print(negativeNodeList.get(i).getEquity() + " ");
-//                    }
-//
-//                    System.out.println();
-
-                    Pair<Pair<List<Node>, List<Node>>,
+                    int[] positiveIndices = positiveEnumerator.getIndices();
+                    int[] negativeIndices = negativeEnumerator.getIndices();
+
+                    Pair<Pair<List<Integer>, List<Integer>>,
                          Pair<long[], long[]>> data =
-                            splitFromGraph(ret,
-                                           positiveNodeList,
-                                           negativeNodeList,
-                                           positiveIndices,
-                                           negativeIndices);
+                            splitGroup(positiveNodeList,
+                                       negativeNodeList,
+                                       equities,
+                                       positiveIndices,
+                                       negativeIndices);
 
                     link(data.first.first,
                          data.first.second,
                          data.second.first,
-                         data.second.second);
+                         data.second.second,
+                         ret);
 
                     removeNodesFromLists(positiveNodeList,
                                          negativeNodeList,
                                          positiveIndices,
                                          negativeIndices);
 
-                    positiveGenerator.remove();
+                    positiveEnumerator.remove();
+                    negativeEnumerator.remove();
+                    ++groups;
                     continue outer;
                 }
             }
         }
 
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        count(Counter.COMBINATIONS_ENUMERATED, combinations);
+        count(Counter.GROUPS_FOUND, groups);
         return ret;
     }
 }
@@ -0,0 +1,199 @@
+package net.coderodde.loan.model.support;
+
+/**
+ * This class finds the largest set of mutually disjoint groups covering all
+ * the nodes. The nodes are identified by bits <tt>0, 1, ..., N - 1</tt> and
+ * each group is a <code>long</code> bitmask of its nodes.
+ * <p>
+ * The search is a branch-and-bound over the covered nodes: the lowest
+ * uncovered node must be covered by a group whose lowest node it is, since
+ * every other group containing it also contains a covered node. So the
+ * groups are bucketed by their lowest nodes and only one bucket is tried per
+ * level. As each group contains at least one positive and one negative node,
+ * the search of a branch is cut whenever the minimum of the uncovered
+ * positive and negative node amounts cannot improve the best cover.
+ * <p>
+ * The set of all nodes must be a group. Then the nodes not covered by a set
+ * of disjoint groups form a group as well, so each partial cover completed
+ * with its uncovered nodes is a cover. The search starts from the cover
+ * completing the greedy descent taking the smallest fitting group at each
+ * level, and records the completed partial covers as it goes, so a search
+ * cut short by its {@link SearchBudget} still returns a good cover.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class GroupCoverFinder {
+
+    /**
+     * The maximum amount of nodes.
+     */
+    static final int MAXIMUM_SIZE = Long.SIZE;
+
+    /**
+     * The groups bucketed by their lowest nodes; each bucket in ascending
+     * order of group sizes.
+     */
+    private final long[][] buckets;
+
+    private final long positiveMask;
+    private final long fullMask;
+
+    private final SearchBudget.Meter meter;
+    private final long[] cover;
+    private long[] bestCover;
+    private int bestCoverSize;
+
+    /**
+     * Constructs a finder over <code>groups</code>.
+     *
+     * @param groups       the candidate groups.
+     * @param positiveMask the mask of positive nodes.
+     * @param nodeAmount   the total amount of nodes.
+     */
+    GroupCoverFinder(LongList groups, long positiveMask, int nodeAmount) {
+        this(groups, positiveMask, nodeAmount, SearchBudget.UNLIMITED.start());
+    }
+
+    /**
+     * Constructs a finder over <code>groups</code> searching within the
+     * budget metered by <code>meter</code>.
+     *
+     * @param groups       the candidate groups.
+     * @param positiveMask the mask of positive nodes.
+     * @param nodeAmount   the total amount of nodes.
+     * @param meter        the meter of the search budget.
+     */
+    GroupCoverFinder(LongList groups,
+                     long positiveMask,
+                     int nodeAmount,
+                     SearchBudget.Meter meter) {
+        if (nodeAmount < 1 || nodeAmount > MAXIMUM_SIZE) {
+            throw new IllegalArgumentException(
+                    "Illegal node amount: " + nodeAmount +
+                    "; must be within [1, " + MAXIMUM_SIZE + "].");
+        }
+
+        this.positiveMask = positiveMask;
+        this.fullMask = nodeAmount == Long.SIZE ?
+                        -1L :
+                        (1L << nodeAmount) - 1L;
+        this.meter = meter;
+        this.cover = new long[nodeAmount];
+        this.buckets = bucket(groups, nodeAmount);
+    }
+
+    /**
+     * Returns the largest cover found.
+     *
+     * @return the groups of the best cover.
+     */
+    long[] find() {
+        bestCoverSize = 0;
+        descendGreedily();
+        search(0L, 0);
+
+        long[] ret = new long[bestCoverSize];
+        System.arraycopy(bestCover, 0, ret, 0, bestCoverSize);
+        return ret;
+    }
+
+    private void search(long covered, int coverSize) {
+        if (!meter.tick()) {
+            return;
+        }
+
+        long uncovered = fullMask & ~covered;
+
+        if (uncovered == 0L) {
+            if (bestCoverSize < coverSize) {
+                bestCoverSize = coverSize;
+                bestCover = cover.clone();
+            }
+
+            return;
+        }
+
+        if (bestCoverSize < coverSize + 1) {
+            recordCompletedCover(coverSize, uncovered);
+        }
+
+        int uncoveredPositives = Long.bitCount(uncovered & positiveMask);
+        int uncoveredNegatives = Long.bitCount(uncovered & ~positiveMask);
+
+        if (coverSize + Math.min(uncoveredPositives, uncoveredNegatives)
+                <= bestCoverSize) {
+            return;
+        }
+
+        for (long group : buckets[Long.numberOfTrailingZeros(uncovered)]) {
+            if ((group & covered) == 0L) {
+                cover[coverSize] = group;
+                search(covered | group, coverSize + 1);
+            }
+        }
+    }
+
+    private void descendGreedily() {
+        long covered = 0L;
+        int coverSize = 0;
+
+        outer:
+        while (covered != fullMask) {
+            long uncovered = fullMask & ~covered;
+
+            for (long group : buckets[Long.numberOfTrailingZeros(uncovered)]) {
+                if ((group & covered) == 0L && group != uncovered) {
+                    cover[coverSize++] = group;
+                    covered |= group;
+                    continue outer;
+                }
+            }
+
+            break;
+        }
+
+        recordCompletedCover(coverSize, fullMask & ~covered);
+    }
+
+    /**
+     * Records the first <code>coverSize</code> groups of the current cover
+     * completed with the group of the uncovered nodes as the best cover.
+     */
+    private void recordCompletedCover(int coverSize, long uncovered) {
+        bestCover = new long[coverSize + 1];
+        System.arraycopy(cover, 0, bestCover, 0, coverSize);
+        bestCover[coverSize] = uncovered;
+        bestCoverSize = coverSize + 1;
+    }
+
+    private static long[][] bucket(LongList groups, int nodeAmount) {
+        int[] bucketSizes = new int[nodeAmount];
+
+        for (int i = 0; i < groups.size(); ++i) {
+            bucketSizes[Long.numberOfTrailingZeros(groups.get(i))]++;
+        }
+
+        long[][] buckets = new long[nodeAmount][];
+
+        for (int i = 0; i < nodeAmount; ++i) {
+            buckets[i] = new long[bucketSizes[i]];
+            bucketSizes[i] = 0;
+        }
+
+        // Counting sort by group size keeps the groups of equal size in
+        // their original order:
+        for (int size = 1; size <= nodeAmount; ++size) {
+            for (int i = 0; i < groups.size(); ++i) {
+                long group = groups.get(i);
+
+                if (Long.bitCount(group) == size) {
+                    int lowest = Long.numberOfTrailingZeros(group);
+                    buckets[lowest][bucketSizes[lowest]++] = group;
+                }
+            }
+        }
+
+        return buckets;
+    }
+}
@@ -0,0 +1,375 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+import java.util.Objects;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+
+/**
+ * This class implements an incremental simplifier. Given a simplified graph
+ * and a batch of equity deltas, it repairs the graph in place and returns the
+ * arc changes. Since each (weakly) connected component of a simplified graph
+ * is a group (its equities sum to zero), only the components touching a node
+ * with a non-zero delta need to be relinked, and all the other arcs stay
+ * untouched. The work done is thus proportional to the size of the affected
+ * components, not to the size of the entire graph.
+ * <p>
+ * The affected components are relinked group by group, so that they split
+ * back into their groups once the deltas settle: each of them is spanned by
+ * a breadth-first tree from a node with a delta, and the tree is cut above
+ * every subtree whose updated equities sum to zero. The pieces are
+ * simplified separately by the wrapped algorithm. The pieces left with a
+ * non-zero sum, one per tree, are then joined by a sweep over a
+ * representative node of each, the one of the largest equity of the sign of
+ * the sum, whose equity is adjusted accordingly within its piece. Each joint
+ * is a single arc, so when the sums of the joined pieces return to zero, the
+ * joint is cut and the pieces part again.
+ * <p>
+ * The instances of this class keep reusable internal state and are not
+ * thread-safe.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class IncrementalSimplifier {
+
+    /**
+     * The algorithm for relinking the affected components.
+     */
+    private final Algorithm algorithm;
+
+    /**
+     * The node marks of the current update indexed by node IDs. A node is
+     * affected if and only if its mark equals <code>currentMark</code>.
+     */
+    private int[] marks = new int[0];
+
+    /**
+     * Maps the affected node IDs to their indices in <code>queue</code>.
+     */
+    private int[] localIds = new int[0];
+
+    /**
+     * The affected nodes in discovery order.
+     */
+    private int[] queue = new int[0];
+
+    /**
+     * The index in <code>queue</code> of the parent of each affected node in
+     * its breadth-first tree, or -1 for the roots.
+     */
+    private int[] parents = new int[0];
+
+    private int currentMark;
+
+    /**
+     * Constructs an incremental simplifier relinking the affected components
+     * with {@link LinearSimplifier}.
+     */
+    public IncrementalSimplifier() {
+        this(new LinearSimplifier());
+    }
+
+    /**
+     * Constructs an incremental simplifier relinking the affected components
+     * with <code>algorithm</code>.
+     *
+     * @param algorithm the algorithm for the affected components.
+     */
+    public IncrementalSimplifier(Algorithm algorithm) {
+        this.algorithm = Objects.requireNonNull(algorithm,
+                                                "The algorithm is null.");
+    }
+
+    /**
+     * Applies <code>deltas</code> to the equities of <code>graph</code> and
+     * repairs its arcs. The nodes of <code>deltas</code> that are not yet in
+     * <code>graph</code> are added to it.
+     *
+     * @param graph  the previously simplified graph; updated in place.
+     * @param deltas the equity deltas keyed by node names.
+     * @return the arc changes applied to <code>graph</code>.
+     */
+    public ArcDiff update(CompactGraph graph, EquityVector deltas) {
+        ArcDiff diff = new ArcDiff();
+        int[] seeds = new int[deltas.size()];
+        int seedAmount = 0;
+
+        for (int i = 0; i < deltas.size(); ++i) {
+            if (deltas.getEquity(i) != 0L) {
+                seeds[seedAmount++] = graph.addNode(deltas.getName(i));
+            }
+        }
+
+        if (seedAmount == 0) {
+            return diff;
+        }
+
+        int affectedAmount = markAffectedNodes(graph, seeds, seedAmount);
+
+        String[] names = new String[affectedAmount];
+        long[] equities = new long[affectedAmount];
+
+        for (int i = 0; i < affectedAmount; ++i) {
+            names[i] = graph.getNodeName(queue[i]);
+            equities[i] = graph.getEquity(queue[i]);
+        }
+
+        for (int i = 0; i < deltas.size(); ++i) {
+            if (deltas.getEquity(i) != 0L) {
+                int id = graph.getNodeId(deltas.getName(i));
+                equities[localIds[id]] += deltas.getEquity(i);
+            }
+        }
+
+        // Record the old arcs before touching the graph:
+        int oldArcAmount = 0;
+
+        for (int i = 0; i < affectedAmount; ++i) {
+            oldArcAmount += graph.getNumberOfBorrowers(queue[i]);
+        }
+
+        int[] oldLenders = new int[oldArcAmount];
+        int[] oldBorrowers = new int[oldArcAmount];
+        long[] oldWeights = new long[oldArcAmount];
+        int arc = 0;
+
+        for (int i = 0; i < affectedAmount; ++i) {
+            int lender = queue[i];
+
+            for (int slot = 0;
+                    slot < graph.getBorrowerSlotAmount(lender);
+                    ++slot) {
+                int borrower = graph.getBorrowerAt(lender, slot);
+
+                if (borrower >= 0) {
+                    oldLenders[arc] = lender;
+                    oldBorrowers[arc] = borrower;
+                    oldWeights[arc++] = graph.getWeightAt(lender, slot);
+                }
+            }
+        }
+
+        CompactGraph relinked = relink(names, equities);
+
+        int[] affected = queue;
+
+        relinked.forEachArc((localLender, localBorrower, weight) -> {
+            int lender = affected[localLender];
+            int borrower = affected[localBorrower];
+            long oldWeight = graph.isConnected(lender, borrower) ?
+                             graph.getWeight(lender, borrower) : 0L;
+
+            if (oldWeight != weight) {
+                graph.setWeight(lender, borrower, weight);
+                diff.add(lender, borrower, oldWeight, weight);
+            }
+        });
+
+        for (int i = 0; i < oldArcAmount; ++i) {
+            int lender = oldLenders[i];
+            int borrower = oldBorrowers[i];
+
+            if (!relinked.isConnected(localIds[lender], localIds[borrower])) {
+                graph.removeArc(lender, borrower);
+                diff.add(lender, borrower, oldWeights[i], 0L);
+            }
+        }
+
+        return diff;
+    }
+
+    /**
+     * Relinks the affected nodes group by group.
+     *
+     * @param names    the names of the affected nodes in discovery order.
+     * @param equities the updated equities of the affected nodes.
+     * @return the relinked graph over the affected nodes.
+     */
+    private CompactGraph relink(String[] names, long[] equities) {
+        int n = names.length;
+        CompactGraph relinked = new EquityVector(names,
+                                                 equities).createEmptyGraph();
+
+        // The parents precede their children in the discovery order:
+        long[] subtreeSums = equities.clone();
+
+        for (int i = n - 1; i >= 0; --i) {
+            if (parents[i] >= 0) {
+                subtreeSums[parents[i]] += subtreeSums[i];
+            }
+        }
+
+        int[] pieces = new int[n];
+        int pieceAmount = 0;
+
+        for (int i = 0; i < n; ++i) {
+            pieces[i] = parents[i] < 0 || subtreeSums[i] == 0L ?
+                        pieceAmount++ :
+                        pieces[parents[i]];
+        }
+
+        long[] pieceSums = new long[pieceAmount];
+        int[] representatives = new int[pieceAmount];
+        int[] pieceStarts = new int[pieceAmount + 1];
+
+        Arrays.fill(representatives, -1);
+
+        for (int i = 0; i < n; ++i) {
+            int piece = pieces[i];
+            pieceSums[piece] += equities[i];
+            ++pieceStarts[piece + 1];
+        }
+
+        for (int i = 0; i < n; ++i) {
+            int piece = pieces[i];
+            int representative = representatives[piece];
+
+            if (representative < 0
+                    || (pieceSums[piece] > 0L
+                        && equities[representative] < equities[i])
+                    || (pieceSums[piece] < 0L
+                        && equities[representative] > equities[i])) {
+                representatives[piece] = i;
+            }
+        }
+
+        for (int piece = 0; piece < pieceAmount; ++piece) {
+            pieceStarts[piece + 1] += pieceStarts[piece];
+        }
+
+        int[] pieceNodes = new int[n];
+        int[] fill = Arrays.copyOf(pieceStarts, pieceAmount);
+
+        for (int i = 0; i < n; ++i) {
+            pieceNodes[fill[pieces[i]]++] = i;
+        }
+
+        for (int piece = 0; piece < pieceAmount; ++piece) {
+            int start = pieceStarts[piece];
+            int size = pieceStarts[piece + 1] - start;
+            String[] pieceNames = new String[size];
+            long[] pieceEquities = new long[size];
+
+            for (int j = 0; j < size; ++j) {
+                int node = pieceNodes[start + j];
+                pieceNames[j] = names[node];
+                pieceEquities[j] = equities[node];
+
+                if (node == representatives[piece]) {
+                    pieceEquities[j] -= pieceSums[piece];
+                }
+            }
+
+            algorithm.simplify(new EquityVector(pieceNames, pieceEquities))
+                     .forEachArc((lender, borrower, weight) ->
+                        relinked.setWeight(pieceNodes[start + lender],
+                                           pieceNodes[start + borrower],
+                                           weight));
+        }
+
+        int borrowerPiece = 0;
+
+        for (int lenderPiece = 0; lenderPiece < pieceAmount; ++lenderPiece) {
+            while (pieceSums[lenderPiece] > 0L) {
+                while (pieceSums[borrowerPiece] >= 0L) {
+                    ++borrowerPiece;
+                }
+
+                long amount = Math.min(pieceSums[lenderPiece],
+                                       -pieceSums[borrowerPiece]);
+                relinked.setWeight(representatives[lenderPiece],
+                                   representatives[borrowerPiece],
+                                   amount);
+                pieceSums[lenderPiece] -= amount;
+                pieceSums[borrowerPiece] += amount;
+            }
+        }
+
+        return relinked;
+    }
+
+    /**
+     * Marks all the nodes weakly connected to the seeds and stores them in
+     * <code>queue</code>. The component of each seed not yet marked is
+     * searched breadth-first before the next seed, so each affected
+     * component gets a single breadth-first tree, stored in
+     * <code>parents</code>.
+     *
+     * @param graph      the graph.
+     * @param seeds      the seed node IDs.
+     * @param seedAmount the amount of seeds.
+     * @return the amount of marked nodes.
+     */
+    private int markAffectedNodes(CompactGraph graph,
+                                  int[] seeds,
+                                  int seedAmount) {
+        if (marks.length < graph.size()) {
+            int capacity = Math.max(graph.size(), marks.length << 1);
+            marks = Arrays.copyOf(marks, capacity);
+            localIds = Arrays.copyOf(localIds, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+        }
+
+        if (++currentMark == 0) {
+            // The mark counter wrapped around:
+            Arrays.fill(marks, 0);
+            currentMark = 1;
+        }
+
+        int head = 0;
+        int tail = 0;
+
+        for (int i = 0; i < seedAmount; ++i) {
+            tail = mark(seeds[i], -1, tail);
+
+            for (; head < tail; ++head) {
+                int node = queue[head];
+
+                for (int slot = 0;
+                        slot < graph.getBorrowerSlotAmount(node);
+                        ++slot) {
+                    int borrower = graph.getBorrowerAt(node, slot);
+
+                    if (borrower >= 0) {
+                        tail = mark(borrower, head, tail);
+                    }
+                }
+
+                for (int slot = 0;
+                        slot < graph.getLenderSlotAmount(node);
+                        ++slot) {
+                    int lender = graph.getLenderAt(node, slot);
+
+                    if (lender >= 0) {
+                        tail = mark(lender, head, tail);
+                    }
+                }
+            }
+        }
+
+        return tail;
+    }
+
+    /**
+     * Appends <code>node</code> to <code>queue</code> unless it is already
+     * marked.
+     *
+     * @param node   the node ID.
+     * @param parent the index of the parent of the node in the queue.
+     * @param tail   the current queue length.
+     * @return the new queue length.
+     */
+    private int mark(int node, int parent, int tail) {
+        if (marks[node] != currentMark) {
+            marks[node] = currentMark;
+            localIds[node] = tail;
+            parents[tail] = parent;
+            queue[tail++] = node;
+        }
+
+        return tail;
+    }
+}
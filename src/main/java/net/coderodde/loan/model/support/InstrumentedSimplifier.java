@@ -0,0 +1,99 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Objects;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.SimplificationListener;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+
+/**
+ * This abstract class is the base of the simplifiers reporting to a
+ * {@link SimplificationListener}. The listener should be set before the
+ * simplifier is shared between threads. With the default
+ * {@link SimplificationListener#NO_OP} listener, the clock is never read and
+ * no event is reported.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public abstract class InstrumentedSimplifier implements Algorithm {
+
+    private SimplificationListener listener = SimplificationListener.NO_OP;
+
+    public SimplificationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the listener to report the subsequent simplifications to.
+     *
+     * @param listener the listener.
+     */
+    public void setListener(SimplificationListener listener) {
+        this.listener = Objects.requireNonNull(listener,
+                                               "The listener is null.");
+    }
+
+    /**
+     * Returns <code>true</code> if the events are reported anywhere.
+     *
+     * @return <code>true</code> if the listener is not the no-op one.
+     */
+    final boolean isInstrumented() {
+        return listener != SimplificationListener.NO_OP;
+    }
+
+    /**
+     * Reports the start of a simplification.
+     *
+     * @return the start time to pass to {@link #finish(int, long, long)}.
+     */
+    final long start(int nodeAmount, int arcAmount, long flow) {
+        if (!isInstrumented()) {
+            return 0L;
+        }
+
+        listener.onStart(this, nodeAmount, arcAmount, flow);
+        return System.nanoTime();
+    }
+
+    /**
+     * Reports the end of a simplification started at
+     * <code>startTime</code>.
+     */
+    final void finish(int arcAmount, long flow, long startTime) {
+        if (isInstrumented()) {
+            listener.onFinish(this,
+                              arcAmount,
+                              flow,
+                              System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return the start time to pass to {@link #finishPhase(Phase, long)}.
+     */
+    final long startPhase() {
+        return isInstrumented() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Reports a phase started at <code>startTime</code>.
+     */
+    final void finishPhase(Phase phase, long startTime) {
+        if (isInstrumented()) {
+            listener.onPhase(this, phase, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Reports an amount of work done.
+     */
+    final void count(Counter counter, long amount) {
+        if (isInstrumented()) {
+            listener.onCount(this, counter, amount);
+        }
+    }
+}
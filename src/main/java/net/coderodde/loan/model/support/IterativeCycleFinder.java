@@ -0,0 +1,155 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class implements an iterative depth-first search returning directed
+ * cycles of a compact graph one by one. The search state lives in primitive
+ * arrays indexed by node IDs, and the search resumes where it left off
+ * instead of restarting after each cycle.
+ * <p>
+ * Between two calls to {@link #findCycle()}, the caller must remove at least
+ * one arc of the last returned cycle, and may change the weights of any
+ * arcs, but must not add arcs. Since arcs are only removed, a node fully
+ * explored without finding a cycle never lies on a cycle later, and the arcs
+ * already scanned need not be scanned again. On resumption, the nodes of the
+ * search path after the first removed arc of the cycle return to unvisited;
+ * each of them continues from its current arc when visited again. The total
+ * running time of purging all cycles is thus
+ * <tt>O(V + E + L)</tt>, where <tt>L</tt> is the total length of the cycles
+ * returned.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class IterativeCycleFinder {
+
+    private static final byte UNVISITED = 0;
+    private static final byte ON_PATH = 1;
+    private static final byte EXPLORED = 2;
+
+    private final CompactGraph graph;
+
+    /**
+     * The search state of each node.
+     */
+    private final byte[] states;
+
+    /**
+     * The current borrower slot of each node.
+     */
+    private final int[] slots;
+
+    /**
+     * The index of each node on the search path.
+     */
+    private final int[] pathIndices;
+
+    /**
+     * The search path.
+     */
+    private final int[] path;
+
+    private int pathLength;
+
+    /**
+     * The lowest node ID that may still be unvisited.
+     */
+    private int nextRoot;
+
+    /**
+     * The index of the first node of the last returned cycle on the search
+     * path or -1 if there is no such cycle.
+     */
+    private int cycleStart = -1;
+
+    IterativeCycleFinder(CompactGraph graph) {
+        this.graph = graph;
+        this.states = new byte[graph.size()];
+        this.slots = new int[graph.size()];
+        this.pathIndices = new int[graph.size()];
+        this.path = new int[graph.size()];
+    }
+
+    /**
+     * Returns the next directed cycle as the array of its node IDs, each
+     * node lending to the next one and the last node lending to the first
+     * one.
+     *
+     * @return the next cycle or <code>null</code> if the graph is acyclic.
+     */
+    int[] findCycle() {
+        if (cycleStart >= 0) {
+            unwindCycle();
+        }
+
+        for (;;) {
+            if (pathLength == 0) {
+                while (nextRoot < states.length
+                        && states[nextRoot] != UNVISITED) {
+                    ++nextRoot;
+                }
+
+                if (nextRoot == states.length) {
+                    return null;
+                }
+
+                push(nextRoot);
+            }
+
+            int node = path[pathLength - 1];
+            int slotAmount = graph.getBorrowerSlotAmount(node);
+            boolean pushed = false;
+
+            while (slots[node] < slotAmount) {
+                int borrower = graph.getBorrowerAt(node, slots[node]);
+
+                if (borrower < 0 || states[borrower] == EXPLORED) {
+                    ++slots[node];
+                } else if (states[borrower] == ON_PATH) {
+                    cycleStart = pathIndices[borrower];
+                    return Arrays.copyOfRange(path, cycleStart, pathLength);
+                } else {
+                    push(borrower);
+                    pushed = true;
+                    break;
+                }
+            }
+
+            if (!pushed) {
+                states[node] = EXPLORED;
+
+                if (--pathLength > 0) {
+                    ++slots[path[pathLength - 1]];
+                }
+            }
+        }
+    }
+
+    private void push(int node) {
+        states[node] = ON_PATH;
+        pathIndices[node] = pathLength;
+        path[pathLength++] = node;
+    }
+
+    /**
+     * Pops the nodes after the first removed arc of the last cycle off the
+     * search path.
+     */
+    private void unwindCycle() {
+        for (int i = cycleStart; i < pathLength - 1; ++i) {
+            if (!graph.isConnected(path[i], path[i + 1])) {
+                for (int j = i + 1; j < pathLength; ++j) {
+                    states[path[j]] = UNVISITED;
+                    nextRoot = Math.min(nextRoot, path[j]);
+                }
+
+                pathLength = i + 1;
+                break;
+            }
+        }
+
+        cycleStart = -1;
+    }
+}
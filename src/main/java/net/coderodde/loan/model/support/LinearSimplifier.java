@@ -1,11 +1,10 @@
 package net.coderodde.loan.model.support;
 
 import java.util.List;
-import net.coderodde.loan.model.Algorithm;
-import net.coderodde.loan.model.Graph;
-import net.coderodde.loan.model.Node;
-import net.coderodde.loan.model.support.Utils.Triple;
-import static net.coderodde.loan.model.support.Utils.fetchFromGraph;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.Pair;
 import static net.coderodde.loan.model.support.Utils.getEquityArray;
 import static net.coderodde.loan.model.support.Utils.link;
 import static net.coderodde.loan.model.support.Utils.split;
@@ -17,22 +16,28 @@ import static net.coderodde.loan.model.support.Utils.split;
  * @author coderodde
  * @version 1.6
  */
-public class LinearSimplifier implements Algorithm {
+public class LinearSimplifier extends EquitySimplifier {
 
     @Override
-    public Graph simplify(Graph g) {
-        Graph resultGraph = g.copyWithoutArcs();
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph resultGraph = equityVector.createEmptyGraph();
 
-        if (g.size() < 2) {
+        if (equityVector.size() < 2) {
             return resultGraph;
         }
 
-        Triple<List<Node>, List<Node>, List<Node>> triple = split(g);
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
 
-        link(fetchFromGraph(triple.first,  resultGraph),
-             fetchFromGraph(triple.second, resultGraph),
-             getEquityArray(triple.first),
-             getEquityArray(triple.second));
+        phaseStartTime = startPhase();
+        link(pair.first,
+             pair.second,
+             getEquityArray(pair.first,  equities),
+             getEquityArray(pair.second, equities),
+             resultGraph);
+        finishPhase(Phase.LINK, phaseStartTime);
 
         return resultGraph;
     }
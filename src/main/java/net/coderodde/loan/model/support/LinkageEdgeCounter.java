@@ -0,0 +1,92 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+
+/**
+ * This class counts the edges needed to link a pair of partitions of the
+ * positive and the negative nodes. The pair is linkable if the sorted block
+ * sums of both partitions are equal, in which case the <tt>i</tt>th smallest
+ * positive block is linked with the <tt>i</tt>th smallest negative block, as
+ * done by {@link Utils#linkPartitions}.
+ * <p>
+ * The block sums are accumulated into primitive arrays allocated once and
+ * reused across calls, so scoring a pair of partitions produces no garbage.
+ * An instance is not thread-safe.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class LinkageEdgeCounter {
+
+    private final long[] positiveEquityArray;
+    private final long[] negativeEquityArray;
+    private final long[] positiveBlockSums;
+    private final long[] negativeBlockSums;
+
+    /**
+     * Constructs a counter for the given nodes.
+     *
+     * @param positiveEquityArray the equities of the positive nodes.
+     * @param negativeEquityArray the absolute equities of the negative
+     *                            nodes.
+     */
+    LinkageEdgeCounter(long[] positiveEquityArray,
+                       long[] negativeEquityArray) {
+        this.positiveEquityArray = positiveEquityArray;
+        this.negativeEquityArray = negativeEquityArray;
+        this.positiveBlockSums = new long[positiveEquityArray.length];
+        this.negativeBlockSums = new long[negativeEquityArray.length];
+    }
+
+    /**
+     * Returns the amount of edges linking the given partitions.
+     *
+     * @param positivePartition the block of each positive node.
+     * @param negativePartition the block of each negative node.
+     * @return the amount of edges or {@link Integer#MAX_VALUE} if the
+     *         partitions cannot be linked.
+     */
+    int count(int[] positivePartition, int[] negativePartition) {
+        int k = sumBlocks(positiveEquityArray,
+                          positivePartition,
+                          positiveBlockSums);
+
+        if (k != sumBlocks(negativeEquityArray,
+                           negativePartition,
+                           negativeBlockSums)) {
+            return Integer.MAX_VALUE;
+        }
+
+        Arrays.sort(positiveBlockSums, 0, k);
+        Arrays.sort(negativeBlockSums, 0, k);
+
+        for (int i = 0; i < k; ++i) {
+            if (positiveBlockSums[i] != negativeBlockSums[i]) {
+                return Integer.MAX_VALUE;
+            }
+        }
+
+        return positiveEquityArray.length + negativeEquityArray.length - k;
+    }
+
+    /**
+     * Sums the blocks of a partition and returns the amount of blocks.
+     */
+    private static int sumBlocks(long[] equityArray,
+                                 int[] partition,
+                                 long[] blockSums) {
+        int k = 0;
+
+        for (int block : partition) {
+            k = Math.max(k, block + 1);
+        }
+
+        Arrays.fill(blockSums, 0, k, 0L);
+
+        for (int i = 0; i < partition.length; ++i) {
+            blockSums[partition[i]] += equityArray[i];
+        }
+
+        return k;
+    }
+}
@@ -0,0 +1,53 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a growable list of primitive <code>long</code>
+ * values.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class LongList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values = new long[DEFAULT_CAPACITY];
+    private int size;
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+
+        values[size++] = value;
+    }
+
+    void addAll(LongList list) {
+        if (size + list.size > values.length) {
+            values = Arrays.copyOf(values,
+                                   Math.max(size + list.size, size << 1));
+        }
+
+        System.arraycopy(list.values, 0, values, size, list.size);
+        size += list.size;
+    }
+
+    long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of range [0, " + size + ").");
+        }
+
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,595 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.Graph;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+
+/**
+ * This class implements a simplifier minimizing the total flow. In every
+ * equivalent graph, each node of positive equity lends at least its equity,
+ * so the total flow is at least the sum of the positive equities; the bound
+ * is attained exactly by the graphs in which each arc runs from a node of
+ * positive equity to a node of negative equity. Among those graphs, this
+ * simplifier solves the transportation problem charging nothing for the
+ * lender/borrower pairs already connected in the input graph and a unit cost
+ * for any other pair, so the result keeps as much of the settled amount on
+ * the existing loans as possible.
+ * <p>
+ * The transportation problem is solved as a maximum flow over the existing
+ * positive-to-negative arcs by Dinic's algorithm, on primitive arrays; the
+ * remaining equities are linked by a sweep. The resulting arcs are then
+ * inserted one by one into a spanning forest, and whenever an arc closes an
+ * undirected cycle, the cycle is cancelled in the direction that does not
+ * raise the cost until one of its arcs vanishes. The result is a forest,
+ * each tree of which is a zero-sum group. Still, a plain sweep over all the
+ * equities, as done by {@link LinearSimplifier}, may close more zero-sum
+ * groups than the forest has trees; whenever it yields fewer arcs, its graph
+ * is returned instead. It runs each arc from a node of positive equity to a
+ * node of negative equity as well, so the total flow stays minimal, but it
+ * gives up on keeping the existing loans. Either way, the result has at most
+ * as many arcs as the result of {@link LinearSimplifier}.
+ * <p>
+ * The augmentations and the forest insertions check the cancellation of the
+ * running {@link SimplificationTask}, if any, and throw a
+ * {@link CancellationException} once it is cancelled.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class MinimumFlowSimplifier extends InstrumentedSimplifier {
+
+    /**
+     * The amount of steps between two cancellation checks, minus one.
+     */
+    private static final long CANCELLATION_CHECK_MASK = (1L << 10) - 1L;
+
+    @Override
+    public Graph simplify(Graph g) {
+        return simplify(CompactGraph.fromGraph(g)).toGraph();
+    }
+
+    @Override
+    public CompactGraph simplify(CompactGraph g) {
+        long startTime = start(g.size(), g.getEdgeAmount(), g.getTotalFlow());
+        CompactGraph resultGraph = simplifyImpl(g);
+        finish(resultGraph.getEdgeAmount(),
+               resultGraph.getTotalFlow(),
+               startTime);
+        return resultGraph;
+    }
+
+    private CompactGraph simplifyImpl(CompactGraph g) {
+        CompactGraph resultGraph = g.copyWithoutArcs();
+        int n = g.size();
+
+        if (n < 2) {
+            return resultGraph;
+        }
+
+        long[] equities = new long[n];
+
+        for (int node = 0; node < n; ++node) {
+            equities[node] = g.getEquity(node);
+        }
+
+        SearchProgress progress = SearchProgress.current();
+        long phaseStartTime = startPhase();
+        FlowNetwork network = new FlowNetwork(g, equities);
+        network.computeMaximumFlow(progress);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+
+        phaseStartTime = startPhase();
+        SpanningForest forest = new SpanningForest(equities);
+
+        for (int i = 0; i < network.existingArcAmount; ++i) {
+            checkCancellation(i, progress);
+            long flow = network.getExistingArcFlow(i);
+
+            if (flow > 0L) {
+                forest.insert(network.existingArcLenders[i],
+                              network.existingArcBorrowers[i],
+                              flow,
+                              (byte) 0);
+            }
+        }
+
+        long[] residuals = network.getResidualEquities();
+        int borrower = 0;
+        long insertions = 0L;
+
+        for (int lender = 0; lender < n; ++lender) {
+            while (residuals[lender] > 0L) {
+                checkCancellation(++insertions, progress);
+
+                while (residuals[borrower] >= 0L) {
+                    ++borrower;
+                }
+
+                long amount = Math.min(residuals[lender], -residuals[borrower]);
+                forest.insert(lender, borrower, amount, (byte) 1);
+                residuals[lender] -= amount;
+                residuals[borrower] += amount;
+            }
+        }
+
+        forest.copyTo(resultGraph);
+        CompactGraph linearGraph = g.copyWithoutArcs();
+
+        if (sweep(equities, linearGraph) < resultGraph.getEdgeAmount()) {
+            resultGraph = linearGraph;
+        }
+
+        finishPhase(Phase.LINK, phaseStartTime);
+        return resultGraph;
+    }
+
+    /**
+     * Throws a {@link CancellationException} if the search is asked to stop.
+     * Checks only every {@code CANCELLATION_CHECK_MASK + 1}th step.
+     *
+     * @param step     the number of the current step.
+     * @param progress the progress of the search.
+     */
+    private static void checkCancellation(long step, SearchProgress progress) {
+        if ((step & CANCELLATION_CHECK_MASK) == 0L
+                && progress.isStopRequested()) {
+            throw new CancellationException("The simplification is cancelled.");
+        }
+    }
+
+    /**
+     * Links the nodes of positive equity to the nodes of negative equity in
+     * the order of their IDs, just like {@link LinearSimplifier} does.
+     *
+     * @param equities the equities of the nodes.
+     * @param graph    the graph to put the arcs into.
+     * @return the amount of arcs created.
+     */
+    private static int sweep(long[] equities, CompactGraph graph) {
+        long[] residuals = equities.clone();
+        int borrower = 0;
+        int arcAmount = 0;
+
+        for (int lender = 0; lender < residuals.length; ++lender) {
+            while (residuals[lender] > 0L) {
+                while (residuals[borrower] >= 0L) {
+                    ++borrower;
+                }
+
+                long amount = Math.min(residuals[lender], -residuals[borrower]);
+                graph.setWeight(lender, borrower, amount);
+                residuals[lender] -= amount;
+                residuals[borrower] += amount;
+                ++arcAmount;
+            }
+        }
+
+        return arcAmount;
+    }
+
+    /**
+     * This class implements the flow network from a source to each node of
+     * positive equity, over the existing arcs to the nodes of negative
+     * equity, and on to a sink.
+     */
+    private static final class FlowNetwork {
+
+        private final int source;
+        private final int sink;
+
+        private final int[] firstArcs;
+        private final int[] nextArcs;
+        private final int[] heads;
+        private final long[] capacities;
+        private int arcAmount;
+
+        /**
+         * The arc from the source or to the sink of each node or -1 if the
+         * node has zero equity.
+         */
+        private final int[] equityArcs;
+
+        private final int[] existingArcLenders;
+        private final int[] existingArcBorrowers;
+        private final int[] existingArcs;
+        private int existingArcAmount;
+
+        private final int[] levels;
+        private final int[] currentArcs;
+        private final int[] queue;
+        private final int[] pathArcs;
+
+        FlowNetwork(CompactGraph graph, long[] equities) {
+            int n = graph.size();
+            int candidateArcAmount = 0;
+
+            for (int node = 0; node < n; ++node) {
+                if (equities[node] > 0L) {
+                    candidateArcAmount += graph.getNumberOfBorrowers(node);
+                }
+            }
+
+            this.source = n;
+            this.sink = n + 1;
+            this.firstArcs = new int[n + 2];
+            this.nextArcs = new int[2 * (n + candidateArcAmount)];
+            this.heads = new int[nextArcs.length];
+            this.capacities = new long[nextArcs.length];
+            this.equityArcs = new int[n];
+            this.existingArcLenders = new int[candidateArcAmount];
+            this.existingArcBorrowers = new int[candidateArcAmount];
+            this.existingArcs = new int[candidateArcAmount];
+            this.levels = new int[n + 2];
+            this.currentArcs = new int[n + 2];
+            this.queue = new int[n + 2];
+            this.pathArcs = new int[n + 2];
+
+            Arrays.fill(firstArcs, -1);
+            Arrays.fill(equityArcs, -1);
+            long totalEquity = 0L;
+
+            for (int node = 0; node < n; ++node) {
+                if (equities[node] > 0L) {
+                    equityArcs[node] = addArc(source, node, equities[node]);
+                    totalEquity += equities[node];
+                } else if (equities[node] < 0L) {
+                    equityArcs[node] = addArc(node, sink, -equities[node]);
+                }
+            }
+
+            for (int lender = 0; lender < n; ++lender) {
+                if (equities[lender] <= 0L) {
+                    continue;
+                }
+
+                for (int slot = 0;
+                        slot < graph.getBorrowerSlotAmount(lender);
+                        ++slot) {
+                    int borrower = graph.getBorrowerAt(lender, slot);
+
+                    if (borrower >= 0 && equities[borrower] < 0L) {
+                        existingArcLenders[existingArcAmount] = lender;
+                        existingArcBorrowers[existingArcAmount] = borrower;
+                        existingArcs[existingArcAmount++] =
+                                addArc(lender, borrower, totalEquity);
+                    }
+                }
+            }
+        }
+
+        long getExistingArcFlow(int index) {
+            // The reverse arc holds the flow:
+            return capacities[existingArcs[index] ^ 1];
+        }
+
+        /**
+         * Returns the equities of the nodes not routed over the existing
+         * arcs.
+         */
+        long[] getResidualEquities() {
+            long[] residuals = new long[equityArcs.length];
+
+            for (int node = 0; node < residuals.length; ++node) {
+                int arc = equityArcs[node];
+
+                if (arc < 0) {
+                    continue;
+                }
+
+                residuals[node] = heads[arc] == sink ?
+                                  -capacities[arc] :
+                                  capacities[arc];
+            }
+
+            return residuals;
+        }
+
+        long computeMaximumFlow(SearchProgress progress) {
+            long flow = 0L;
+            long augmentations = 0L;
+
+            while (computeLevels()) {
+                checkCancellation(0L, progress);
+                System.arraycopy(firstArcs, 0,
+                                 currentArcs, 0,
+                                 firstArcs.length);
+                long pathFlow;
+
+                while ((pathFlow = augment()) > 0L) {
+                    checkCancellation(++augmentations, progress);
+                    flow += pathFlow;
+                }
+            }
+
+            return flow;
+        }
+
+        private int addArc(int tail, int head, long capacity) {
+            int arc = arcAmount;
+
+            heads[arcAmount] = head;
+            capacities[arcAmount] = capacity;
+            nextArcs[arcAmount] = firstArcs[tail];
+            firstArcs[tail] = arcAmount++;
+
+            heads[arcAmount] = tail;
+            capacities[arcAmount] = 0L;
+            nextArcs[arcAmount] = firstArcs[head];
+            firstArcs[head] = arcAmount++;
+
+            return arc;
+        }
+
+        /**
+         * Computes the breadth-first levels of the residual network.
+         *
+         * @return <code>true</code> if the sink is reachable.
+         */
+        private boolean computeLevels() {
+            Arrays.fill(levels, -1);
+            int queueHead = 0;
+            int queueTail = 0;
+            levels[source] = 0;
+            queue[queueTail++] = source;
+
+            while (queueHead < queueTail) {
+                int node = queue[queueHead++];
+
+                for (int arc = firstArcs[node]; arc >= 0; arc = nextArcs[arc]) {
+                    if (capacities[arc] > 0L && levels[heads[arc]] < 0) {
+                        levels[heads[arc]] = levels[node] + 1;
+                        queue[queueTail++] = heads[arc];
+                    }
+                }
+            }
+
+            return levels[sink] >= 0;
+        }
+
+        /**
+         * Augments the flow along a single path of the level graph.
+         *
+         * @return the amount augmented or zero if there is no path.
+         */
+        private long augment() {
+            int node = source;
+            int depth = 0;
+
+            for (;;) {
+                if (node == sink) {
+                    long bottleneck = Long.MAX_VALUE;
+
+                    for (int i = 0; i < depth; ++i) {
+                        bottleneck = Math.min(bottleneck,
+                                              capacities[pathArcs[i]]);
+                    }
+
+                    for (int i = 0; i < depth; ++i) {
+                        capacities[pathArcs[i]] -= bottleneck;
+                        capacities[pathArcs[i] ^ 1] += bottleneck;
+                    }
+
+                    return bottleneck;
+                }
+
+                boolean advanced = false;
+
+                for (; currentArcs[node] >= 0;
+                        currentArcs[node] = nextArcs[currentArcs[node]]) {
+                    int arc = currentArcs[node];
+
+                    if (capacities[arc] > 0L
+                            && levels[heads[arc]] == levels[node] + 1) {
+                        pathArcs[depth++] = arc;
+                        node = heads[arc];
+                        advanced = true;
+                        break;
+                    }
+                }
+
+                if (!advanced) {
+                    if (depth == 0) {
+                        return 0L;
+                    }
+
+                    // A dead end; never enter it again in this phase:
+                    levels[node] = -1;
+                    node = heads[pathArcs[--depth] ^ 1];
+                    currentArcs[node] = nextArcs[currentArcs[node]];
+                }
+            }
+        }
+    }
+
+    /**
+     * This class maintains a spanning forest of the arcs inserted so far.
+     * Each tree is rooted, and the arc between a node and its parent is
+     * stored at the node; the lender of the arc is the end of positive
+     * equity.
+     */
+    private static final class SpanningForest {
+
+        private final long[] equities;
+        private final int[] parents;
+        private final long[] weights;
+        private final byte[] costs;
+
+        private final int[] marks;
+        private int mark;
+
+        private final int[] lenderPath;
+        private final int[] borrowerPath;
+
+        SpanningForest(long[] equities) {
+            int n = equities.length;
+            this.equities = equities;
+            this.parents = new int[n];
+            this.weights = new long[n];
+            this.costs = new byte[n];
+            this.marks = new int[n];
+            this.lenderPath = new int[n];
+            this.borrowerPath = new int[n];
+            Arrays.fill(parents, -1);
+        }
+
+        /**
+         * Inserts the arc <code>(lender, borrower)</code>.
+         *
+         * @param lender   the node of positive equity.
+         * @param borrower the node of negative equity.
+         * @param weight   the arc weight.
+         * @param cost     the cost of a unit of weight on the arc.
+         */
+        void insert(int lender, int borrower, long weight, byte cost) {
+            ++mark;
+
+            for (int node = lender; node >= 0; node = parents[node]) {
+                marks[node] = mark;
+            }
+
+            int lowestCommonAncestor = borrower;
+
+            while (lowestCommonAncestor >= 0
+                    && marks[lowestCommonAncestor] != mark) {
+                lowestCommonAncestor = parents[lowestCommonAncestor];
+            }
+
+            if (lowestCommonAncestor < 0) {
+                link(lender, borrower, weight, cost);
+                return;
+            }
+
+            // The cycle runs over the new arc, up from the borrower to the
+            // common ancestor and down to the lender. An arc is traversed
+            // forward if it is traversed from its lender.
+            int lenderPathLength = 0;
+            int borrowerPathLength = 0;
+
+            for (int node = lender;
+                    node != lowestCommonAncestor;
+                    node = parents[node]) {
+                lenderPath[lenderPathLength++] = node;
+            }
+
+            for (int node = borrower;
+                    node != lowestCommonAncestor;
+                    node = parents[node]) {
+                borrowerPath[borrowerPathLength++] = node;
+            }
+
+            long minimumForwardWeight = weight;
+            long minimumBackwardWeight = Long.MAX_VALUE;
+            int costDelta = cost;
+
+            for (int i = 0; i < borrowerPathLength; ++i) {
+                int node = borrowerPath[i];
+
+                if (equities[node] > 0L) {
+                    minimumForwardWeight = Math.min(minimumForwardWeight,
+                                                    weights[node]);
+                    costDelta += costs[node];
+                } else {
+                    minimumBackwardWeight = Math.min(minimumBackwardWeight,
+                                                     weights[node]);
+                    costDelta -= costs[node];
+                }
+            }
+
+            for (int i = 0; i < lenderPathLength; ++i) {
+                int node = lenderPath[i];
+
+                if (equities[node] < 0L) {
+                    minimumForwardWeight = Math.min(minimumForwardWeight,
+                                                    weights[node]);
+                    costDelta += costs[node];
+                } else {
+                    minimumBackwardWeight = Math.min(minimumBackwardWeight,
+                                                     weights[node]);
+                    costDelta -= costs[node];
+                }
+            }
+
+            // Pushing along the cycle changes the cost by 'costDelta' per
+            // unit, pushing against it by '-costDelta':
+            long delta = costDelta < 0 ?
+                         minimumBackwardWeight :
+                         -minimumForwardWeight;
+
+            weight += delta;
+
+            for (int i = 0; i < borrowerPathLength; ++i) {
+                int node = borrowerPath[i];
+                weights[node] += equities[node] > 0L ? delta : -delta;
+            }
+
+            for (int i = 0; i < lenderPathLength; ++i) {
+                int node = lenderPath[i];
+                weights[node] += equities[node] < 0L ? delta : -delta;
+            }
+
+            cutVanished(borrowerPath, borrowerPathLength);
+            cutVanished(lenderPath, lenderPathLength);
+
+            if (weight > 0L) {
+                link(lender, borrower, weight, cost);
+            }
+        }
+
+        /**
+         * Adds the arcs of this forest to <code>graph</code>.
+         *
+         * @param graph the graph to add to.
+         */
+        void copyTo(CompactGraph graph) {
+            for (int node = 0; node < parents.length; ++node) {
+                if (parents[node] >= 0) {
+                    if (equities[node] > 0L) {
+                        graph.setWeight(node, parents[node], weights[node]);
+                    } else {
+                        graph.setWeight(parents[node], node, weights[node]);
+                    }
+                }
+            }
+        }
+
+        private void cutVanished(int[] path, int pathLength) {
+            for (int i = 0; i < pathLength; ++i) {
+                if (weights[path[i]] == 0L) {
+                    parents[path[i]] = -1;
+                }
+            }
+        }
+
+        /**
+         * Links the trees of <code>lender</code> and <code>borrower</code>
+         * by making the borrower the root of its tree and attaching it to
+         * the lender.
+         */
+        private void link(int lender, int borrower, long weight, byte cost) {
+            int previous = -1;
+            long previousWeight = 0L;
+            byte previousCost = 0;
+
+            for (int node = borrower; node >= 0;) {
+                int parent = parents[node];
+                long nodeWeight = weights[node];
+                byte nodeCost = costs[node];
+
+                parents[node] = previous;
+                weights[node] = previousWeight;
+                costs[node] = previousCost;
+
+                previous = node;
+                previousWeight = nodeWeight;
+                previousCost = nodeCost;
+                node = parent;
+            }
+
+            parents[borrower] = lender;
+            weights[borrower] = weight;
+            costs[borrower] = cost;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
+import net.coderodde.loan.model.support.Utils.Pair;
+import static net.coderodde.loan.model.support.Utils.linkGroup;
+import static net.coderodde.loan.model.support.Utils.resolveBinaryGroups;
+import static net.coderodde.loan.model.support.Utils.rotateMask;
+import static net.coderodde.loan.model.support.Utils.split;
+import static net.coderodde.loan.model.support.Utils.sumNodeEquities;
+import static net.coderodde.loan.model.support.Utils.toMask;
+
+/**
+ * This is the implementation of a parallel exact combinatorial simplifier.
+ * The nodes of one sign are indexed by a {@link SubsetSumIndex}, on the same
+ * side as in {@link ExactCombinatorialSimplifier}. For each combination size
+ * <tt>k</tt>, the lexicographically ordered <tt>k</tt>-combinations of the
+ * nodes of the other sign are identified by their ranks, and the rank range
+ * is split recursively into subranges searched in a {@link ForkJoinPool}.
+ * The groups found in the subranges are concatenated in rank order, so the
+ * group list is exactly the one of {@link FasterExactCombinatorialSimplifier}
+ * and so is the result, also when the nodes are too many to search and are
+ * linked in a single group.
+ * <p>
+ * Building the index, the subranges and the cover search spend a single
+ * {@link SearchBudget}, pooled among the threads as described in
+ * <code>SearchBudget.Meter</code>. A search running out of the budget, or
+ * cancelled by its {@link SimplificationTask}, returns the best cover of the
+ * groups found so far, which depend on the order the subranges were run in,
+ * and is not reported optimal.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class ParallelExactCombinatorialSimplifier extends BudgetedSimplifier {
+
+    /**
+     * Rank ranges of at most this many combinations are searched without
+     * splitting.
+     */
+    private static final long LEAF_RANGE_LENGTH = 1L << 10;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a simplifier with unlimited budget searching in the common
+     * pool.
+     */
+    public ParallelExactCombinatorialSimplifier() {
+        this(SearchBudget.UNLIMITED);
+    }
+
+    /**
+     * Constructs a simplifier with unlimited budget searching in
+     * <code>pool</code>.
+     *
+     * @param pool the pool to run the search in.
+     */
+    public ParallelExactCombinatorialSimplifier(ForkJoinPool pool) {
+        this(SearchBudget.UNLIMITED, pool);
+    }
+
+    /**
+     * Constructs a simplifier with the given budget searching in the common
+     * pool.
+     *
+     * @param budget the search budget.
+     */
+    public ParallelExactCombinatorialSimplifier(SearchBudget budget) {
+        this(budget, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a simplifier with the given budget searching in
+     * <code>pool</code>.
+     *
+     * @param budget the search budget.
+     * @param pool   the pool to run the search in.
+     */
+    public ParallelExactCombinatorialSimplifier(SearchBudget budget,
+                                                ForkJoinPool pool) {
+        super(budget);
+        this.pool = Objects.requireNonNull(pool, "The pool is null.");
+    }
+
+    @Override
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
+        SearchBudget.Meter meter = startSearch();
+
+        if (equityVector.size() < 2) {
+            return ret;
+        }
+
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
+
+        List<Integer> positiveNodeList = pair.first;
+        List<Integer> negativeNodeList = pair.second;
+
+        if (positiveNodeList.isEmpty()) {
+            return ret;
+        }
+
+        phaseStartTime = startPhase();
+        EquityComparator equityComparator = new EquityComparator(equities);
+        Collections.sort(positiveNodeList, equityComparator);
+        Collections.sort(negativeNodeList, equityComparator);
+        finishPhase(Phase.SORT, phaseStartTime);
+
+        phaseStartTime = startPhase();
+        int groupsFound = resolveBinaryGroups(positiveNodeList,
+                                              negativeNodeList,
+                                              equities,
+                                              ret);
+
+        if (positiveNodeList.isEmpty()) {
+            finishPhase(Phase.SEARCH, phaseStartTime);
+            count(Counter.GROUPS_FOUND, groupsFound);
+            return ret;
+        }
+
+        int p = positiveNodeList.size();
+        int q = negativeNodeList.size();
+        int nodeAmount = p + q;
+
+        if (nodeAmount > GroupCoverFinder.MAXIMUM_SIZE) {
+            skipSearch();
+            return linkSingleGroup(positiveNodeList,
+                                   negativeNodeList,
+                                   equities,
+                                   groupsFound,
+                                   phaseStartTime,
+                                   ret);
+        }
+
+        // The same side as in the sequential search is indexed:
+        boolean indexesPositives = SubsetSumIndex.getSearchIterations(q, p)
+                                   < SubsetSumIndex.getSearchIterations(p, q);
+        List<Integer> enumeratedNodeList = indexesPositives ?
+                                           negativeNodeList :
+                                           positiveNodeList;
+        List<Integer> indexedNodeList = indexesPositives ?
+                                        positiveNodeList :
+                                        negativeNodeList;
+        int n = enumeratedNodeList.size();
+
+        long[][] binomials = computeBinomials(n);
+        meter.expect(SubsetSumIndex.getSearchIterations(n, nodeAmount - n));
+
+        SubsetSumIndex index =
+                new SubsetSumIndex(indexedNodeList, equities, n, meter);
+
+        if (meter.isExhausted()) {
+            finishSearch(meter);
+            return linkSingleGroup(positiveNodeList,
+                                   negativeNodeList,
+                                   equities,
+                                   groupsFound,
+                                   phaseStartTime,
+                                   ret);
+        }
+
+        // The leaves of the search and the cover search share the rest of
+        // the budget:
+        SearchBudget.Meter searchMeter = meter.split(1)[0];
+        LongAdder combinations = new LongAdder();
+        LongList groups = new LongList();
+
+        for (int k = 1; k <= n && !searchMeter.isExhausted(); ++k) {
+            groups.addAll(pool.invoke(new GroupSearchTask(enumeratedNodeList,
+                                                          index,
+                                                          equities,
+                                                          binomials,
+                                                          k,
+                                                          0L,
+                                                          binomials[n][k],
+                                                          searchMeter,
+                                                          combinations)));
+        }
+
+        long[] bestCover = new GroupCoverFinder(groups,
+                                                (1L << n) - 1L,
+                                                nodeAmount,
+                                                searchMeter).find();
+        finishSearch(searchMeter);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        count(Counter.COMBINATIONS_ENUMERATED, combinations.sum());
+        count(Counter.GROUPS_FOUND, groupsFound + bestCover.length);
+
+        phaseStartTime = startPhase();
+
+        for (long group : bestCover) {
+            if (indexesPositives) {
+                group = rotateMask(group, q, p);
+            }
+
+            linkGroup(group, positiveNodeList, negativeNodeList, equities, ret);
+        }
+
+        finishPhase(Phase.LINK, phaseStartTime);
+        return ret;
+    }
+
+    /**
+     * Links the nodes left without a search in a single group, as
+     * {@link LinearSimplifier} would, and reports the search phase.
+     */
+    private CompactGraph linkSingleGroup(List<Integer> positiveNodeList,
+                                         List<Integer> negativeNodeList,
+                                         long[] equities,
+                                         int groupsFound,
+                                         long phaseStartTime,
+                                         CompactGraph ret) {
+        linkGroup(positiveNodeList, negativeNodeList, equities, ret);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        count(Counter.GROUPS_FOUND, groupsFound + 1);
+        return ret;
+    }
+
+    /**
+     * Computes the Pascal's triangle up to row <code>n</code>.
+     *
+     * @param n the last row.
+     * @return the binomial coefficients indexed by <tt>[n][k]</tt>.
+     */
+    static long[][] computeBinomials(int n) {
+        long[][] binomials = new long[n + 1][n + 1];
+
+        for (int i = 0; i <= n; ++i) {
+            binomials[i][0] = 1L;
+
+            for (int j = 1; j <= i; ++j) {
+                binomials[i][j] = binomials[i - 1][j - 1] + binomials[i - 1][j];
+            }
+        }
+
+        return binomials;
+    }
+
+    /**
+     * Loads to <code>indices</code> the lexicographically
+     * <code>rank</code>th combination of <code>indices.length</code> out of
+     * <code>n</code> indices.
+     *
+     * @param n         the amount of indices to choose from.
+     * @param rank      the rank of the combination.
+     * @param binomials the binomial coefficients.
+     * @param indices   the output array.
+     */
+    static void unrank(int n, long rank, long[][] binomials, int[] indices) {
+        int k = indices.length;
+        int candidate = 0;
+
+        for (int i = 0; i < k; ++i) {
+            for (;;) {
+                long count = binomials[n - 1 - candidate][k - 1 - i];
+
+                if (rank < count) {
+                    break;
+                }
+
+                rank -= count;
+                ++candidate;
+            }
+
+            indices[i] = candidate++;
+        }
+    }
+
+    /**
+     * Advances <code>indices</code> to the lexicographically next combination
+     * of the same size.
+     *
+     * @param n       the amount of indices to choose from.
+     * @param indices the combination to advance.
+     * @return <code>false</code> if <code>indices</code> was the last
+     *         combination.
+     */
+    static boolean next(int n, int[] indices) {
+        int k = indices.length;
+        int i = k - 1;
+
+        while (i >= 0 && indices[i] == n - k + i) {
+            --i;
+        }
+
+        if (i < 0) {
+            return false;
+        }
+
+        ++indices[i];
+
+        for (int j = i + 1; j < k; ++j) {
+            indices[j] = indices[j - 1] + 1;
+        }
+
+        return true;
+    }
+
+    /**
+     * Searches the <code>k</code>-combinations of the enumerated nodes with
+     * ranks within <tt>[from, to)</tt>.
+     */
+    private static final class GroupSearchTask
+    extends RecursiveTask<LongList> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Integer> enumeratedNodeList;
+        private final SubsetSumIndex index;
+        private final long[] equities;
+        private final long[][] binomials;
+        private final int k;
+        private final long from;
+        private final long to;
+        private final SearchBudget.Meter meter;
+        private final LongAdder combinations;
+
+        GroupSearchTask(List<Integer> enumeratedNodeList,
+                        SubsetSumIndex index,
+                        long[] equities,
+                        long[][] binomials,
+                        int k,
+                        long from,
+                        long to,
+                        SearchBudget.Meter meter,
+                        LongAdder combinations) {
+            this.enumeratedNodeList = enumeratedNodeList;
+            this.index = index;
+            this.equities = equities;
+            this.binomials = binomials;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.meter = meter;
+            this.combinations = combinations;
+        }
+
+        @Override
+        protected LongList compute() {
+            if (to - from <= LEAF_RANGE_LENGTH) {
+                return search();
+            }
+
+            long middle = from + (to - from) / 2;
+
+            GroupSearchTask left = new GroupSearchTask(enumeratedNodeList,
+                                                       index,
+                                                       equities,
+                                                       binomials,
+                                                       k,
+                                                       from,
+                                                       middle,
+                                                       meter,
+                                                       combinations);
+            GroupSearchTask right = new GroupSearchTask(enumeratedNodeList,
+                                                        index,
+                                                        equities,
+                                                        binomials,
+                                                        k,
+                                                        middle,
+                                                        to,
+                                                        meter,
+                                                        combinations);
+            left.fork();
+            LongList rightGroups = right.compute();
+            LongList groups = left.join();
+            groups.addAll(rightGroups);
+            return groups;
+        }
+
+        private LongList search() {
+            SearchBudget.Meter leafMeter = meter.split();
+            LongList groups = new LongList();
+            int n = enumeratedNodeList.size();
+            int[] indices = new int[k];
+            unrank(n, from, binomials, indices);
+            long rank;
+
+            for (rank = from; rank < to; ++rank) {
+                if (!leafMeter.tick()
+                        || !index.findGroups(
+                                toMask(indices),
+                                sumNodeEquities(enumeratedNodeList,
+                                                equities,
+                                                indices),
+                                groups,
+                                leafMeter)) {
+                    break;
+                }
+
+                next(n, indices);
+            }
+
+            combinations.add(rank - from);
+            leafMeter.flush();
+            return groups;
+        }
+    }
+}
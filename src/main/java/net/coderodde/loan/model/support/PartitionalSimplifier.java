@@ -1,45 +1,240 @@
 package net.coderodde.loan.model.support;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import net.coderodde.loan.model.Algorithm;
-import net.coderodde.loan.model.Graph;
-import net.coderodde.loan.model.Node;
-import net.coderodde.loan.model.support.Utils.Triple;
-import static net.coderodde.loan.model.support.Utils.countLinkageEdges;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
+import net.coderodde.loan.model.support.Utils.Pair;
+import static net.coderodde.loan.model.support.Utils.getEquityArray;
 import static net.coderodde.loan.model.support.Utils.linkPartitions;
+import static net.coderodde.loan.model.support.Utils.resolveBinaryGroups;
 import static net.coderodde.loan.model.support.Utils.split;
 
 /**
- * This is the implementation of a partitional simplifier.
+ * This is the implementation of a partitional simplifier. The first pair of
+ * partitions tried puts all nodes in a single group, which is the solution
+ * of {@link LinearSimplifier}; with a limited {@link SearchBudget}, the best
+ * pair of partitions tried before the budget runs out is linked.
+ * <p>
+ * In the {@link SearchMode#ENUMERATION} mode, every partition of one side is
+ * paired with every partition of the other side into as many blocks. In the
+ * {@link SearchMode#BRANCH_AND_BOUND} mode, the partitions are built block
+ * by block: the positive part of each block contains the lowest unassigned
+ * positive node and is extended in the order of the node indices, and each
+ * of its prefixes is closed by the negative subsets of the same sum. A
+ * negative subset is abandoned as soon as its smallest next node exceeds the
+ * remaining sum, and a branch is cut whenever even a block per remaining
+ * node of the scarcer sign would not beat the best partition found so far.
+ * <p>
+ * The {@link SearchMode#PARALLEL_ENUMERATION} mode spreads the partitions of
+ * the smaller side over the tasks of a {@link ForkJoinPool} round-robin, so
+ * that each task gets partitions of all block amounts. A pair of partitions
+ * into <tt>k</tt> blocks needs <tt>p + q - k</tt> edges, so the tasks share
+ * the largest block amount matched so far and skip the partitions of fewer
+ * blocks without sweeping the other side. Among the pairs of the largest
+ * block amount, the one enumerated first is linked, so the result equals the
+ * one of {@link SearchMode#ENUMERATION}. The tasks share the budget; each
+ * partition of a task is charged, even if it is skipped.
  *
  * @author coderodde
  * @version 1.6
  */
-public class PartitionalSimplifier implements Algorithm {
+public class PartitionalSimplifier extends BudgetedSimplifier {
+
+    /**
+     * This enumeration lists the ways of searching the partitions.
+     */
+    public enum SearchMode {
+
+        /**
+         * Enumerates all the pairs of partitions.
+         */
+        ENUMERATION,
+
+        /**
+         * Builds the partitions block by block, pruning the blocks that
+         * cannot be matched and bounding on the best partition so far.
+         */
+        BRANCH_AND_BOUND,
+
+        /**
+         * Enumerates the pairs of partitions concurrently, skipping the
+         * partitions of fewer blocks than in the best pair so far.
+         */
+        PARALLEL_ENUMERATION
+    }
+
+    /**
+     * The amount of tasks per worker thread of the pool.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final SearchMode searchMode;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a branch-and-bound simplifier with unlimited budget.
+     */
+    public PartitionalSimplifier() {
+        this(SearchBudget.UNLIMITED);
+    }
+
+    /**
+     * Constructs a branch-and-bound simplifier with the given budget.
+     *
+     * @param budget the search budget.
+     */
+    public PartitionalSimplifier(SearchBudget budget) {
+        this(budget, SearchMode.BRANCH_AND_BOUND);
+    }
+
+    /**
+     * Constructs a simplifier with the given budget and search mode.
+     *
+     * @param budget     the search budget.
+     * @param searchMode the search mode.
+     */
+    public PartitionalSimplifier(SearchBudget budget, SearchMode searchMode) {
+        this(budget, searchMode, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a simplifier with the given budget and search mode. The
+     * {@link SearchMode#PARALLEL_ENUMERATION} mode searches in
+     * <code>pool</code>.
+     *
+     * @param budget     the search budget.
+     * @param searchMode the search mode.
+     * @param pool       the pool to run the search in.
+     */
+    public PartitionalSimplifier(SearchBudget budget,
+                                 SearchMode searchMode,
+                                 ForkJoinPool pool) {
+        super(budget);
+        this.searchMode = Objects.requireNonNull(searchMode,
+                                                 "The search mode is null.");
+        this.pool = Objects.requireNonNull(pool, "The pool is null.");
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
 
     @Override
-    public Graph simplify(Graph g) {
-        Graph ret = new Graph(g);
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
+        SearchBudget.Meter meter = startSearch();
 
         if (ret.size() < 2) {
             return ret;
         }
 
-        Triple<List<Node>, List<Node>, List<Node>> triple = split(g);
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
 
-        return (triple.first.size() < triple.second.size() ?
-                simplifyImplPositiveOutermost(ret,
-                                              triple.first,
-                                              triple.second) :
-                simplifyImplNegativeOutermost(ret,
-                                              triple.first,
-                                              triple.second));
+        if (pair.first.isEmpty()) {
+            return ret;
+        }
+
+        phaseStartTime = startPhase();
+
+        if (searchMode != SearchMode.BRANCH_AND_BOUND) {
+            meter.expect(countPartitionPairs(pair.first.size(),
+                                             pair.second.size()));
+        }
+
+        if (searchMode == SearchMode.BRANCH_AND_BOUND) {
+            simplifyImplBranchAndBound(ret,
+                                       pair.first,
+                                       pair.second,
+                                       equities,
+                                       meter);
+        } else if (searchMode == SearchMode.PARALLEL_ENUMERATION) {
+            meter = simplifyImplParallel(ret,
+                                         pair.first,
+                                         pair.second,
+                                         equities,
+                                         meter);
+        } else if (pair.first.size() < pair.second.size()) {
+            simplifyImplPositiveOutermost(ret,
+                                          pair.first,
+                                          pair.second,
+                                          equities,
+                                          meter);
+        } else {
+            simplifyImplNegativeOutermost(ret,
+                                          pair.first,
+                                          pair.second,
+                                          equities,
+                                          meter);
+        }
+
+        if (searchMode == SearchMode.ENUMERATION) {
+            count(Counter.PARTITIONS_ENUMERATED, meter.getIterations());
+        }
+
+        finishSearch(meter);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+        return ret;
     }
 
-    private Graph simplifyImplPositiveOutermost(Graph graph,
-                                                List<Node> positiveNodeList,
-                                                List<Node> negativeNodeList) {
+    private CompactGraph simplifyImplBranchAndBound(
+            CompactGraph graph,
+            List<Integer> positiveNodeList,
+            List<Integer> negativeNodeList,
+            long[] equities,
+            SearchBudget.Meter meter) {
+        EquityComparator equityComparator = new EquityComparator(equities);
+        Collections.sort(positiveNodeList, equityComparator);
+        Collections.sort(negativeNodeList, equityComparator);
+
+        resolveBinaryGroups(positiveNodeList,
+                            negativeNodeList,
+                            equities,
+                            graph);
+
+        if (positiveNodeList.isEmpty()) {
+            return graph;
+        }
+
+        BranchAndBound search =
+                new BranchAndBound(getEquityArray(positiveNodeList, equities),
+                                   getEquityArray(negativeNodeList, equities),
+                                   meter);
+        search.run();
+
+        linkPartitions(positiveNodeList,
+                       negativeNodeList,
+                       equities,
+                       search.bestPositiveBlocks,
+                       search.bestNegativeBlocks,
+                       graph);
+
+        return graph;
+    }
+
+    private CompactGraph simplifyImplPositiveOutermost(
+            CompactGraph graph,
+            List<Integer> positiveNodeList,
+            List<Integer> negativeNodeList,
+            long[] equities,
+            SearchBudget.Meter meter) {
         int bestEdgeAmount = Integer.MAX_VALUE;
+        LinkageEdgeCounter counter =
+                new LinkageEdgeCounter(
+                        getEquityArray(positiveNodeList, equities),
+                        getEquityArray(negativeNodeList, equities));
         PartitionGenerator outermostGenerator =
                 new PartitionGenerator(positiveNodeList.size());
 
@@ -55,10 +250,8 @@ public class PartitionalSimplifier implements Algorithm {
 
             do {
                 int[] innermostIndices = innermostGenerator.getIndices();
-                int linkageEdges = countLinkageEdges(positiveNodeList,
-                                                     negativeNodeList,
-                                                     outermostIndices,
-                                                     innermostIndices);
+                int linkageEdges = counter.count(outermostIndices,
+                                                 innermostIndices);
 
                 if (bestEdgeAmount > linkageEdges) {
                     bestEdgeAmount = linkageEdges;
@@ -75,11 +268,12 @@ public class PartitionalSimplifier implements Algorithm {
                                      0,
                                      innermostIndices.length);
                 }
-            } while (innermostGenerator.inc());
-        } while (outermostGenerator.inc());
+            } while (meter.tick() && innermostGenerator.inc());
+        } while (!meter.isExhausted() && outermostGenerator.inc());
 
         linkPartitions(positiveNodeList,
                        negativeNodeList,
+                       equities,
                        bestOutermostIndices,
                        bestInnermostIndices,
                        graph);
@@ -87,10 +281,17 @@ public class PartitionalSimplifier implements Algorithm {
         return graph;
     }
 
-    private Graph simplifyImplNegativeOutermost(Graph graph,
-                                                List<Node> positiveNodeList,
-                                                List<Node> negativeNodeList) {
+    private CompactGraph simplifyImplNegativeOutermost(
+            CompactGraph graph,
+            List<Integer> positiveNodeList,
+            List<Integer> negativeNodeList,
+            long[] equities,
+            SearchBudget.Meter meter) {
         int bestEdgeAmount = Integer.MAX_VALUE;
+        LinkageEdgeCounter counter =
+                new LinkageEdgeCounter(
+                        getEquityArray(positiveNodeList, equities),
+                        getEquityArray(negativeNodeList, equities));
         PartitionGenerator outermostGenerator =
                 new PartitionGenerator(negativeNodeList.size());
 
@@ -106,10 +307,8 @@ public class PartitionalSimplifier implements Algorithm {
 
             do {
                 int[] innermostIndices = innermostGenerator.getIndices();
-                int linkageEdges = countLinkageEdges(positiveNodeList,
-                                                     negativeNodeList,
-                                                     innermostIndices,
-                                                     outermostIndices);
+                int linkageEdges = counter.count(innermostIndices,
+                                                 outermostIndices);
 
                 if (bestEdgeAmount > linkageEdges) {
                     bestEdgeAmount = linkageEdges;
@@ -126,15 +325,393 @@ public class PartitionalSimplifier implements Algorithm {
                                      0,
                                      innermostIndices.length);
                 }
-            } while (innermostGenerator.inc());
-        } while (outermostGenerator.inc());
+            } while (meter.tick() && innermostGenerator.inc());
+        } while (!meter.isExhausted() && outermostGenerator.inc());
 
         linkPartitions(positiveNodeList,
                        negativeNodeList,
+                       equities,
                        bestInnermostIndices,
                        bestOutermostIndices,
                        graph);
 
         return graph;
     }
+
+    /**
+     * Returns the amount of the pairs of partitions of <code>p</code> and
+     * <code>q</code> elements into as many blocks: the sum of the products
+     * of the Stirling numbers of the second kind <tt>S(p, k) S(q, k)</tt>.
+     *
+     * @param p the size of the first set.
+     * @param q the size of the second set.
+     * @return the amount of pairs of partitions.
+     */
+    static double countPartitionPairs(int p, int q) {
+        double[] pRow = computeStirlingRow(p);
+        double[] qRow = computeStirlingRow(q);
+        double pairs = 0.0;
+
+        for (int k = 1; k <= Math.min(p, q); ++k) {
+            pairs += pRow[k] * qRow[k];
+        }
+
+        return pairs;
+    }
+
+    /**
+     * Returns the Stirling numbers of the second kind <tt>S(n, k)</tt> for
+     * <tt>k = 0, 1, ..., n</tt>.
+     */
+    private static double[] computeStirlingRow(int n) {
+        double[] row = new double[n + 1];
+        row[0] = 1.0;
+
+        for (int i = 1; i <= n; ++i) {
+            for (int k = i; k >= 1; --k) {
+                row[k] = k * row[k] + row[k - 1];
+            }
+
+            row[0] = 0.0;
+        }
+
+        return row;
+    }
+
+    /**
+     * Runs the parallel enumeration.
+     *
+     * @return the meter of a task that ran out of the budget, if any.
+     */
+    private SearchBudget.Meter simplifyImplParallel(
+            CompactGraph graph,
+            List<Integer> positiveNodeList,
+            List<Integer> negativeNodeList,
+            long[] equities,
+            SearchBudget.Meter meter) {
+        boolean positiveOutermost =
+                positiveNodeList.size() < negativeNodeList.size();
+        long[] positiveEquityArray = getEquityArray(positiveNodeList, equities);
+        long[] negativeEquityArray = getEquityArray(negativeNodeList, equities);
+        long[] outermostEquityArray = positiveOutermost ?
+                                      positiveEquityArray :
+                                      negativeEquityArray;
+        long[] innermostEquityArray = positiveOutermost ?
+                                      negativeEquityArray :
+                                      positiveEquityArray;
+
+        int taskAmount = pool.getParallelism() * TASKS_PER_THREAD;
+        SearchBudget.Meter[] meters = meter.split(taskAmount);
+        AtomicInteger bestBlockAmount = new AtomicInteger(1);
+        List<PartitionSearch> searches =
+                new ArrayList<PartitionSearch>(taskAmount);
+        List<ForkJoinTask<?>> tasks =
+                new ArrayList<ForkJoinTask<?>>(taskAmount);
+
+        for (int task = 0; task < taskAmount; ++task) {
+            PartitionSearch search =
+                    new PartitionSearch(outermostEquityArray,
+                                        innermostEquityArray,
+                                        task,
+                                        taskAmount,
+                                        bestBlockAmount,
+                                        meters[task]);
+            searches.add(search);
+            tasks.add(pool.submit(search));
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        PartitionSearch best = searches.get(0);
+        meter = best.meter;
+        long iterations = 0L;
+
+        for (PartitionSearch search : searches) {
+            iterations += search.meter.getIterations();
+
+            if (best.bestBlockAmount < search.bestBlockAmount
+                    || (best.bestBlockAmount == search.bestBlockAmount
+                        && best.bestOrdinal > search.bestOrdinal)) {
+                best = search;
+            }
+
+            if (search.meter.isExhausted()) {
+                meter = search.meter;
+            }
+        }
+
+        count(Counter.PARTITIONS_ENUMERATED, iterations);
+
+        int[] bestPositiveIndices = positiveOutermost ?
+                                    best.bestOutermostIndices :
+                                    best.bestInnermostIndices;
+        int[] bestNegativeIndices = positiveOutermost ?
+                                    best.bestInnermostIndices :
+                                    best.bestOutermostIndices;
+
+        linkPartitions(positiveNodeList,
+                       negativeNodeList,
+                       equities,
+                       bestPositiveIndices,
+                       bestNegativeIndices,
+                       graph);
+
+        return meter;
+    }
+
+    /**
+     * This class enumerates the outermost partitions whose ordinals are
+     * congruent to the task index modulo the task amount, and pairs each of
+     * them with the first innermost partition of as many blocks matching it.
+     * All the matching pairs of <tt>k</tt> blocks need as many edges, so the
+     * sweep stops at the first one.
+     */
+    private static final class PartitionSearch implements Runnable {
+
+        private final long[] outermostEquityArray;
+        private final long[] innermostEquityArray;
+        private final int task;
+        private final int taskAmount;
+        private final AtomicInteger sharedBestBlockAmount;
+        private final SearchBudget.Meter meter;
+
+        private final int[] bestOutermostIndices;
+        private final int[] bestInnermostIndices;
+        private int bestBlockAmount;
+        private long bestOrdinal = Long.MAX_VALUE;
+
+        PartitionSearch(long[] outermostEquityArray,
+                        long[] innermostEquityArray,
+                        int task,
+                        int taskAmount,
+                        AtomicInteger sharedBestBlockAmount,
+                        SearchBudget.Meter meter) {
+            this.outermostEquityArray = outermostEquityArray;
+            this.innermostEquityArray = innermostEquityArray;
+            this.task = task;
+            this.taskAmount = taskAmount;
+            this.sharedBestBlockAmount = sharedBestBlockAmount;
+            this.meter = meter;
+            this.bestOutermostIndices = new int[outermostEquityArray.length];
+            this.bestInnermostIndices = new int[innermostEquityArray.length];
+        }
+
+        @Override
+        public void run() {
+            LinkageEdgeCounter counter =
+                    new LinkageEdgeCounter(outermostEquityArray,
+                                           innermostEquityArray);
+            PartitionGenerator outermostGenerator =
+                    new PartitionGenerator(outermostEquityArray.length);
+            long ordinal = 0L;
+
+            do {
+                if (ordinal++ % taskAmount != task) {
+                    continue;
+                }
+
+                if (!meter.tick()) {
+                    break;
+                }
+
+                int k = outermostGenerator.getk();
+
+                // Equal block amounts are still tried, since an earlier
+                // ordinal wins the tie:
+                if (k < sharedBestBlockAmount.get() || k <= bestBlockAmount) {
+                    continue;
+                }
+
+                int[] outermostIndices = outermostGenerator.getIndices();
+                SpecialPartitionGenerator innermostGenerator =
+                        new SpecialPartitionGenerator(
+                                innermostEquityArray.length, k);
+
+                do {
+                    int[] innermostIndices = innermostGenerator.getIndices();
+
+                    if (counter.count(outermostIndices, innermostIndices)
+                            != Integer.MAX_VALUE) {
+                        bestBlockAmount = k;
+                        bestOrdinal = ordinal - 1;
+
+                        System.arraycopy(outermostIndices,
+                                         0,
+                                         bestOutermostIndices,
+                                         0,
+                                         outermostIndices.length);
+
+                        System.arraycopy(innermostIndices,
+                                         0,
+                                         bestInnermostIndices,
+                                         0,
+                                         innermostIndices.length);
+
+                        sharedBestBlockAmount.accumulateAndGet(k, Math::max);
+                        break;
+                    }
+                } while (meter.tick() && innermostGenerator.inc());
+            } while (!meter.isExhausted() && outermostGenerator.inc());
+        }
+    }
+
+    /**
+     * This class holds the state of a single branch-and-bound search. The
+     * block of each node is -1 while the node is unassigned.
+     */
+    private static final class BranchAndBound {
+
+        private final long[] positiveEquities;
+        private final long[] negativeEquities;
+        private final SearchBudget.Meter meter;
+
+        private final int[] positiveBlocks;
+        private final int[] negativeBlocks;
+        private int unassignedPositives;
+        private int unassignedNegatives;
+
+        private int[] bestPositiveBlocks;
+        private int[] bestNegativeBlocks;
+        private int bestBlockAmount;
+
+        BranchAndBound(long[] positiveEquities,
+                       long[] negativeEquities,
+                       SearchBudget.Meter meter) {
+            this.positiveEquities = positiveEquities;
+            this.negativeEquities = negativeEquities;
+            this.meter = meter;
+            this.positiveBlocks = new int[positiveEquities.length];
+            this.negativeBlocks = new int[negativeEquities.length];
+            this.unassignedPositives = positiveEquities.length;
+            this.unassignedNegatives = negativeEquities.length;
+
+            // Start from the single block of all nodes:
+            this.bestPositiveBlocks = new int[positiveEquities.length];
+            this.bestNegativeBlocks = new int[negativeEquities.length];
+            this.bestBlockAmount = 1;
+
+            Arrays.fill(positiveBlocks, -1);
+            Arrays.fill(negativeBlocks, -1);
+        }
+
+        void run() {
+            search(0);
+        }
+
+        /**
+         * Starts the next block.
+         *
+         * @param blocks the amount of closed blocks.
+         */
+        private void search(int blocks) {
+            if (unassignedPositives == 0) {
+                if (bestBlockAmount < blocks) {
+                    bestBlockAmount = blocks;
+                    bestPositiveBlocks = positiveBlocks.clone();
+                    bestNegativeBlocks = negativeBlocks.clone();
+                }
+
+                return;
+            }
+
+            if (blocks + Math.min(unassignedPositives, unassignedNegatives)
+                    <= bestBlockAmount) {
+                return;
+            }
+
+            int first = 0;
+
+            while (positiveBlocks[first] >= 0) {
+                ++first;
+            }
+
+            assignPositive(first, blocks);
+            extendPositives(first, positiveEquities[first], blocks);
+            unassignPositive(first);
+        }
+
+        /**
+         * Closes the positive part of the current block or extends it with
+         * a node after <code>last</code>.
+         *
+         * @param last   the last positive node of the block.
+         * @param sum    the sum of the positive part of the block.
+         * @param blocks the amount of closed blocks.
+         */
+        private void extendPositives(int last, long sum, int blocks) {
+            if (!meter.tick()) {
+                return;
+            }
+
+            chooseNegatives(0, sum, blocks);
+
+            // A longer block leaves one positive node less, and it takes at
+            // least one negative node too:
+            if (blocks + 1 + Math.min(unassignedPositives - 1,
+                                      unassignedNegatives - 1)
+                    <= bestBlockAmount) {
+                return;
+            }
+
+            long previous = -1L;
+
+            for (int i = last + 1; i < positiveEquities.length; ++i) {
+                if (positiveBlocks[i] >= 0 || positiveEquities[i] == previous) {
+                    continue;
+                }
+
+                previous = positiveEquities[i];
+                assignPositive(i, blocks);
+                extendPositives(i, sum + positiveEquities[i], blocks);
+                unassignPositive(i);
+            }
+        }
+
+        /**
+         * Chooses the negative part of the current block from the nodes
+         * starting at <code>from</code>.
+         *
+         * @param from      the first negative node to consider.
+         * @param remaining the sum left to match.
+         * @param blocks    the amount of closed blocks.
+         */
+        private void chooseNegatives(int from, long remaining, int blocks) {
+            if (remaining == 0L) {
+                search(blocks + 1);
+                return;
+            }
+
+            long previous = -1L;
+
+            for (int j = from; j < negativeEquities.length; ++j) {
+                if (negativeBlocks[j] >= 0 || negativeEquities[j] == previous) {
+                    continue;
+                }
+
+                if (negativeEquities[j] > remaining || meter.isExhausted()) {
+                    // The equities ascend, so no later node fits either:
+                    return;
+                }
+
+                previous = negativeEquities[j];
+                negativeBlocks[j] = blocks;
+                --unassignedNegatives;
+                chooseNegatives(j + 1, remaining - negativeEquities[j], blocks);
+                ++unassignedNegatives;
+                negativeBlocks[j] = -1;
+            }
+        }
+
+        private void assignPositive(int i, int blocks) {
+            positiveBlocks[i] = blocks;
+            --unassignedPositives;
+        }
+
+        private void unassignPositive(int i) {
+            positiveBlocks[i] = -1;
+            ++unassignedPositives;
+        }
+    }
 }
@@ -1,26 +1,416 @@
 package net.coderodde.loan.model.support;
 
-import net.coderodde.loan.model.Algorithm;
-import net.coderodde.loan.model.Graph;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import net.coderodde.loan.model.support.Utils.EquityComparator;
+import net.coderodde.loan.model.support.Utils.Pair;
+import static net.coderodde.loan.model.support.Utils.getEquityArray;
+import static net.coderodde.loan.model.support.Utils.link;
+import static net.coderodde.loan.model.support.Utils.resolveBinaryGroups;
+import static net.coderodde.loan.model.support.Utils.split;
 
 /**
- * This class implements permutational simplifier.
+ * This class implements permutational simplifier. It searches for the
+ * orderings of the positive and negative nodes such that the linking sweep
+ * of {@link Utils#link} closes as many zero-sum prefixes as possible; the
+ * sweep over two orderings creates <tt>p + q - c</tt> arcs, where <tt>c</tt>
+ * is the amount of closed prefixes.
+ * <p>
+ * The orderings are built by a depth-first search, adding a positive node
+ * while the balance of the current group is non-positive and a negative node
+ * otherwise. The symmetric branches are cut by requiring that each group
+ * starts with the lowest remaining positive node, that the nodes of each
+ * sign within a group are added in the order of their indices, and that
+ * of the nodes with equal equities only the first is tried at each step.
+ * A branch is also cut if even closing a group with each of the remaining
+ * nodes of the scarcer sign would not beat the best orderings found so far.
+ * <p>
+ * The search starts from the sorted orderings as used by
+ * {@link LinearSimplifier} and runs until it is complete or the
+ * {@link SearchBudget} runs out. The search space grows factorially, so the
+ * default budget is {@link #DEFAULT_BUDGET}; it bounds the iterations
+ * rather than the time, so that the results do not depend on the machine.
  *
  * @author coderodde
  * @version 1.6
  */
-public class PermutationalSimplifier implements Algorithm {
+public class PermutationalSimplifier extends BudgetedSimplifier {
+
+    /**
+     * The default budget: <tt>2^24</tt> iterations, about a quarter of a
+     * second on current hardware.
+     */
+    public static final SearchBudget DEFAULT_BUDGET =
+            SearchBudget.ofIterations(1L << 24);
+
+    /**
+     * Constructs a simplifier with the default budget.
+     */
+    public PermutationalSimplifier() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * Constructs a simplifier with the given budget.
+     *
+     * @param budget the search budget.
+     */
+    public PermutationalSimplifier(SearchBudget budget) {
+        super(budget);
+    }
 
     @Override
-    public Graph simplify(Graph g) {
-        Graph ret = g.copyWithoutArcs();
+    protected CompactGraph simplifyEquities(EquityVector equityVector) {
+        CompactGraph ret = equityVector.createEmptyGraph();
+        SearchBudget.Meter meter = startSearch();
+
+        if (equityVector.size() < 2) {
+            return ret;
+        }
+
+        long[] equities = equityVector.getEquities();
+        long phaseStartTime = startPhase();
+        Pair<List<Integer>, List<Integer>> pair = split(equityVector);
+        finishPhase(Phase.SPLIT, phaseStartTime);
+
+        List<Integer> positiveNodeList = pair.first;
+        List<Integer> negativeNodeList = pair.second;
 
-        if (g.size() < 2) {
+        if (positiveNodeList.isEmpty()) {
             return ret;
         }
 
-        
+        phaseStartTime = startPhase();
+        EquityComparator equityComparator = new EquityComparator(equities);
+        Collections.sort(positiveNodeList, equityComparator);
+        Collections.sort(negativeNodeList, equityComparator);
+        finishPhase(Phase.SORT, phaseStartTime);
+
+        phaseStartTime = startPhase();
+
+        resolveBinaryGroups(positiveNodeList,
+                            negativeNodeList,
+                            equities,
+                            ret);
+
+        if (positiveNodeList.isEmpty()) {
+            finishPhase(Phase.SEARCH, phaseStartTime);
+            return ret;
+        }
+
+        Search search =
+                new Search(getEquityArray(positiveNodeList, equities),
+                           getEquityArray(negativeNodeList, equities),
+                           meter);
+        search.run();
+        finishSearch(meter);
+        finishPhase(Phase.SEARCH, phaseStartTime);
+
+        phaseStartTime = startPhase();
+
+        List<Integer> positiveOrder =
+                reorder(positiveNodeList, search.bestPositiveOrder);
+        List<Integer> negativeOrder =
+                reorder(negativeNodeList, search.bestNegativeOrder);
+
+        link(positiveOrder,
+             negativeOrder,
+             getEquityArray(positiveOrder, equities),
+             getEquityArray(negativeOrder, equities),
+             ret);
+        finishPhase(Phase.LINK, phaseStartTime);
 
         return ret;
     }
+
+    private static List<Integer> reorder(List<Integer> nodeList, int[] order) {
+        List<Integer> ret = new ArrayList<Integer>(order.length);
+
+        for (int index : order) {
+            ret.add(nodeList.get(index));
+        }
+
+        return ret;
+    }
+
+    /**
+     * This class holds the state of a single search.
+     */
+    private static final class Search {
+
+        private final long[] positiveEquities;
+        private final long[] negativeEquities;
+        private final SearchBudget.Meter meter;
+
+        private final boolean[] positiveUsed;
+        private final boolean[] negativeUsed;
+        private final int[] positiveOrder;
+        private final int[] negativeOrder;
+
+        // The frames of the search, indexed by the amount of ordered nodes:
+        private final long[] balances;
+        private final int[] groupAmounts;
+        private final int[] positiveAmounts;
+        private final int[] lastPositives;
+        private final int[] lastNegatives;
+        private final int[] cursors;
+        private final long[] previousEquities;
+        private final int[] chosenNodes;
+
+        private int[] bestPositiveOrder;
+        private int[] bestNegativeOrder;
+        private int bestGroupAmount;
+
+        Search(long[] positiveEquities,
+               long[] negativeEquities,
+               SearchBudget.Meter meter) {
+            this.positiveEquities = positiveEquities;
+            this.negativeEquities = negativeEquities;
+            this.meter = meter;
+            this.positiveUsed = new boolean[positiveEquities.length];
+            this.negativeUsed = new boolean[negativeEquities.length];
+            this.positiveOrder = new int[positiveEquities.length];
+            this.negativeOrder = new int[negativeEquities.length];
+
+            int depth = positiveEquities.length + negativeEquities.length;
+            this.balances = new long[depth];
+            this.groupAmounts = new int[depth];
+            this.positiveAmounts = new int[depth];
+            this.lastPositives = new int[depth];
+            this.lastNegatives = new int[depth];
+            this.cursors = new int[depth];
+            this.previousEquities = new long[depth];
+            this.chosenNodes = new int[depth];
+
+            this.bestPositiveOrder = identity(positiveEquities.length);
+            this.bestNegativeOrder = identity(negativeEquities.length);
+            this.bestGroupAmount = countGroups(bestPositiveOrder,
+                                               bestNegativeOrder);
+        }
+
+        /**
+         * Runs the depth-first search. Each level of the search orders one
+         * more node, so the search may go as deep as there are nodes; it is
+         * therefore driven by an explicit stack of frames rather than by
+         * recursion.
+         */
+        void run() {
+            if (!enter(0, 0L, 0, 0, -1, -1)) {
+                return;
+            }
+
+            int depth = 0;
+
+            while (depth >= 0) {
+                int i = nextCandidate(depth);
+
+                if (i < 0) {
+                    if (--depth >= 0) {
+                        release(depth);
+                    }
+
+                    continue;
+                }
+
+                long balance = balances[depth];
+                int groups = groupAmounts[depth];
+                int positiveAmount = positiveAmounts[depth];
+                int negativeAmount = depth - positiveAmount;
+                int lastPositive = lastPositives[depth];
+                int lastNegative = lastNegatives[depth];
+                chosenNodes[depth] = i;
+
+                if (balance <= 0L) {
+                    positiveUsed[i] = true;
+                    positiveOrder[positiveAmount++] = i;
+                    balance += positiveEquities[i];
+                    lastPositive = i;
+                } else {
+                    negativeUsed[i] = true;
+                    negativeOrder[negativeAmount] = i;
+                    balance -= negativeEquities[i];
+                    lastNegative = i;
+                }
+
+                if (balance == 0L) {
+                    ++groups;
+                    lastPositive = -1;
+                    lastNegative = -1;
+                }
+
+                if (enter(depth + 1,
+                          balance,
+                          groups,
+                          positiveAmount,
+                          lastPositive,
+                          lastNegative)) {
+                    ++depth;
+                } else if (meter.isExhausted()) {
+                    return;
+                } else {
+                    release(depth);
+                }
+            }
+        }
+
+        /**
+         * Pushes the frame extending the current orderings.
+         *
+         * @param depth            the amount of ordered nodes.
+         * @param balance          the positive minus the negative sum of the
+         *                         current group.
+         * @param groups           the amount of closed groups.
+         * @param positiveAmount   the amount of ordered positive nodes.
+         * @param lastPositive     the last positive node of the group or -1.
+         * @param lastNegative     the last negative node of the group or -1.
+         * @return <code>true</code> if the frame has candidates to try.
+         */
+        private boolean enter(int depth,
+                              long balance,
+                              int groups,
+                              int positiveAmount,
+                              int lastPositive,
+                              int lastNegative) {
+            if (!meter.tick()) {
+                return false;
+            }
+
+            int negativeAmount = depth - positiveAmount;
+            int remainingPositives = positiveEquities.length - positiveAmount;
+            int remainingNegatives = negativeEquities.length - negativeAmount;
+
+            if (remainingPositives == 0 && remainingNegatives == 0) {
+                if (bestGroupAmount < groups) {
+                    bestGroupAmount = groups;
+                    bestPositiveOrder = positiveOrder.clone();
+                    bestNegativeOrder = negativeOrder.clone();
+                }
+
+                return false;
+            }
+
+            // The group being built closes with one more node of the sign it
+            // needs; every later group needs a node of both signs:
+            int bound;
+
+            if (balance < 0L) {
+                bound = Math.min(remainingPositives, remainingNegatives + 1);
+            } else if (balance > 0L) {
+                bound = Math.min(remainingPositives + 1, remainingNegatives);
+            } else {
+                bound = Math.min(remainingPositives, remainingNegatives);
+            }
+
+            if (groups + bound <= bestGroupAmount) {
+                return false;
+            }
+
+            balances[depth] = balance;
+            groupAmounts[depth] = groups;
+            positiveAmounts[depth] = positiveAmount;
+            lastPositives[depth] = lastPositive;
+            lastNegatives[depth] = lastNegative;
+            previousEquities[depth] = -1L;
+
+            if (balance == 0L) {
+                // Start a new group with the lowest remaining positive node:
+                int i = 0;
+
+                while (positiveUsed[i]) {
+                    ++i;
+                }
+
+                cursors[depth] = i;
+            } else if (balance < 0L) {
+                cursors[depth] = lastPositive + 1;
+            } else {
+                cursors[depth] = lastNegative + 1;
+            }
+
+            return true;
+        }
+
+        /**
+         * Returns the next node to add in the frame at <code>depth</code> or
+         * -1 if the frame is exhausted.
+         */
+        private int nextCandidate(int depth) {
+            if (balances[depth] == 0L) {
+                int i = cursors[depth];
+
+                if (i == positiveEquities.length) {
+                    return -1;
+                }
+
+                cursors[depth] = positiveEquities.length;
+                return i;
+            }
+
+            boolean positive = balances[depth] < 0L;
+            long[] equities = positive ? positiveEquities : negativeEquities;
+            boolean[] used = positive ? positiveUsed : negativeUsed;
+
+            for (int i = cursors[depth]; i < equities.length; ++i) {
+                if (used[i] || equities[i] == previousEquities[depth]) {
+                    continue;
+                }
+
+                cursors[depth] = i + 1;
+                previousEquities[depth] = equities[i];
+                return i;
+            }
+
+            cursors[depth] = equities.length;
+            return -1;
+        }
+
+        /**
+         * Takes back the node added in the frame at <code>depth</code>.
+         */
+        private void release(int depth) {
+            if (balances[depth] <= 0L) {
+                positiveUsed[chosenNodes[depth]] = false;
+            } else {
+                negativeUsed[chosenNodes[depth]] = false;
+            }
+        }
+
+        /**
+         * Counts the zero-sum prefixes closed by sweeping the given orderings.
+         */
+        private int countGroups(int[] positiveOrder, int[] negativeOrder) {
+            long balance = 0L;
+            int groups = 0;
+            int pi = 0;
+            int ni = 0;
+
+            while (pi < positiveOrder.length || ni < negativeOrder.length) {
+                if (balance <= 0L) {
+                    balance += positiveEquities[positiveOrder[pi++]];
+                } else {
+                    balance -= negativeEquities[negativeOrder[ni++]];
+                }
+
+                if (balance == 0L) {
+                    ++groups;
+                }
+            }
+
+            return groups;
+        }
+
+        private static int[] identity(int n) {
+            int[] ret = new int[n];
+
+            for (int i = 0; i < n; ++i) {
+                ret[i] = i;
+            }
+
+            return ret;
+        }
+    }
 }
@@ -0,0 +1,326 @@
+package net.coderodde.loan.model.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class describes a budget for the search based simplifiers: the
+ * maximum amount of search iterations and the maximum running time in
+ * milliseconds. A simplifier running out of its budget, or cancelled by
+ * its {@link SimplificationTask}, returns the best result found so far.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class SearchBudget {
+
+    /**
+     * The budget never running out.
+     */
+    public static final SearchBudget UNLIMITED =
+            new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * The amount of iterations between two clock readings.
+     */
+    private static final long CLOCK_READING_INTERVAL = 1L << 10;
+
+    private final long maximumIterations;
+    private final long maximumMillis;
+
+    /**
+     * Constructs a budget.
+     *
+     * @param maximumIterations the maximum amount of search iterations.
+     * @param maximumMillis     the maximum running time in milliseconds.
+     */
+    public SearchBudget(long maximumIterations, long maximumMillis) {
+        if (maximumIterations < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal iteration amount: " + maximumIterations +
+                    "; must be at least 1.");
+        }
+
+        if (maximumMillis < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal time: " + maximumMillis +
+                    "; must be at least 1.");
+        }
+
+        this.maximumIterations = maximumIterations;
+        this.maximumMillis = maximumMillis;
+    }
+
+    /**
+     * Returns a budget with only the iteration amount bounded.
+     *
+     * @param maximumIterations the maximum amount of search iterations.
+     * @return the budget.
+     */
+    public static SearchBudget ofIterations(long maximumIterations) {
+        return new SearchBudget(maximumIterations, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a budget with only the running time bounded.
+     *
+     * @param maximumMillis the maximum running time in milliseconds.
+     * @return the budget.
+     */
+    public static SearchBudget ofMillis(long maximumMillis) {
+        return new SearchBudget(Long.MAX_VALUE, maximumMillis);
+    }
+
+    public long getMaximumIterations() {
+        return maximumIterations;
+    }
+
+    public long getMaximumMillis() {
+        return maximumMillis;
+    }
+
+    /**
+     * Starts spending this budget on a search reporting to the progress
+     * installed on the calling thread.
+     *
+     * @return the meter of a single search.
+     */
+    Meter start() {
+        return start(SearchProgress.current());
+    }
+
+    /**
+     * Starts spending this budget on a search reporting to
+     * <code>progress</code>.
+     *
+     * @param progress the progress of the search.
+     * @return the meter of a single search.
+     */
+    Meter start(SearchProgress progress) {
+        return new Meter(progress, System.currentTimeMillis(), null, 0L);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + maximumIterations + " iterations, " +
+               maximumMillis + " ms]";
+    }
+
+    /**
+     * This class meters the iterations and the running time of a single
+     * search. The clock is only read, the progress only updated and the
+     * cancellation only checked every <code>CLOCK_READING_INTERVAL</code>
+     * iterations. A cancelled or interrupted search runs out of its budget.
+     * <p>
+     * The meters returned by {@link #split(int)} and {@link #split()} spend
+     * a single budget from several threads: each of them is still used by
+     * one thread only, and they pool their iterations and their exhaustion
+     * at the clock readings.
+     */
+    final class Meter {
+
+        private final long startTime;
+        private final SearchProgress progress;
+
+        /**
+         * The spending of all the meters split from one meter, or
+         * <code>null</code> if this meter is not split.
+         */
+        private final SharedSpending shared;
+
+        /**
+         * The amount of iterations this meter may reach, given the iterations
+         * of the other meters sharing the budget as of the last clock reading.
+         */
+        private long iterationLimit;
+        private long iterations;
+        private long reportedIterations;
+        private boolean exhausted;
+
+        private Meter(SearchProgress progress,
+                      long startTime,
+                      SharedSpending shared,
+                      long spentIterations) {
+            this.progress = progress;
+            this.startTime = startTime;
+            this.shared = shared;
+            this.iterationLimit = maximumIterations - spentIterations;
+            this.exhausted = shared != null && shared.exhausted;
+        }
+
+        /**
+         * Splits the rest of this budget among <code>amount</code> meters,
+         * one per thread. The meters share the start time and the
+         * iterations; since the iterations are pooled only at the clock
+         * readings, the meters may overspend the iteration amount by less
+         * than <code>CLOCK_READING_INTERVAL</code> iterations each.
+         *
+         * @param amount the amount of meters.
+         * @return the meters.
+         */
+        Meter[] split(int amount) {
+            SharedSpending spending = new SharedSpending(iterations);
+            spending.exhausted = exhausted;
+            Meter[] meters = new Meter[amount];
+
+            for (int i = 0; i < amount; ++i) {
+                meters[i] = new Meter(progress, startTime, spending, iterations);
+            }
+
+            return meters;
+        }
+
+        /**
+         * Returns another meter sharing the budget of this split meter. This
+         * method may be called from any thread; the new meter starts
+         * exhausted if the shared budget is known to be exhausted.
+         *
+         * @return the meter.
+         */
+        Meter split() {
+            if (shared == null) {
+                throw new IllegalStateException("The meter is not split.");
+            }
+
+            return new Meter(progress,
+                             startTime,
+                             shared,
+                             shared.iterations.get());
+        }
+
+        /**
+         * Pools the iterations of this split meter not pooled yet. A split
+         * meter should be flushed when its thread is done with it.
+         */
+        void flush() {
+            if (!exhausted) {
+                exhausted = isStopRequested();
+            }
+        }
+
+        /**
+         * Spends one iteration.
+         *
+         * @return <code>false</code> if the budget is exhausted.
+         */
+        boolean tick() {
+            if (exhausted) {
+                return false;
+            }
+
+            if (++iterations > iterationLimit) {
+                exhaust();
+            } else if ((iterations & (CLOCK_READING_INTERVAL - 1L)) == 0L) {
+                exhausted = isStopRequested();
+            }
+
+            return !exhausted;
+        }
+
+        /**
+         * Spends <code>amount</code> iterations at once.
+         *
+         * @param amount the amount of iterations.
+         * @return <code>false</code> if the budget is exhausted.
+         */
+        boolean tick(long amount) {
+            if (exhausted) {
+                return false;
+            }
+
+            long previousIterations = iterations;
+            iterations += amount;
+
+            if (iterations > iterationLimit) {
+                exhaust();
+            } else if (iterations / CLOCK_READING_INTERVAL
+                    != previousIterations / CLOCK_READING_INTERVAL) {
+                exhausted = isStopRequested();
+            }
+
+            return !exhausted;
+        }
+
+        /**
+         * Reports the amount of iterations of the complete search, so that
+         * the progress can be estimated.
+         *
+         * @param spaceSize the amount of iterations.
+         */
+        void expect(double spaceSize) {
+            progress.expect(Math.min(spaceSize, maximumIterations),
+                            maximumMillis);
+        }
+
+        SearchProgress getProgress() {
+            return progress;
+        }
+
+        /**
+         * Returns <code>true</code> if this meter ran out of the budget; a
+         * split meter also if any meter sharing its budget did.
+         *
+         * @return <code>true</code> if the budget is exhausted.
+         */
+        boolean isExhausted() {
+            return exhausted || (shared != null && shared.exhausted);
+        }
+
+        long getIterations() {
+            return iterations;
+        }
+
+        private boolean isStopRequested() {
+            long amount = iterations - reportedIterations;
+            progress.advance(amount);
+            reportedIterations = iterations;
+
+            if (shared == null) {
+                return isOutOfTime();
+            }
+
+            long otherIterations =
+                    shared.iterations.addAndGet(amount) - iterations;
+            iterationLimit = maximumIterations - otherIterations;
+
+            if (shared.exhausted
+                    || iterations > iterationLimit
+                    || isOutOfTime()) {
+                shared.exhausted = true;
+                return true;
+            }
+
+            return false;
+        }
+
+        private void exhaust() {
+            exhausted = true;
+
+            if (shared != null) {
+                shared.exhausted = true;
+            }
+        }
+
+        private boolean isOutOfTime() {
+            if (progress.isStopRequested()) {
+                return true;
+            }
+
+            return maximumMillis != Long.MAX_VALUE
+                    && System.currentTimeMillis() - startTime
+                       >= maximumMillis;
+        }
+    }
+
+    /**
+     * This class holds the spending pooled by the meters sharing a budget.
+     */
+    private static final class SharedSpending {
+
+        private final AtomicLong iterations;
+        private volatile boolean exhausted;
+
+        SharedSpending(long iterations) {
+            this.iterations = new AtomicLong(iterations);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.coderodde.loan.model.support;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class connects a running search to the {@link SimplificationTask}
+ * that started it: the task cancels it, and the search reports the amount of
+ * iterations done out of the estimated size of its search space. The task
+ * installs its progress on the thread running the simplifier, where the
+ * searches pick it up via {@link #current()}; a search started anywhere else
+ * gets {@link #NONE}, which is never cancelled and records nothing.
+ * <p>
+ * Apart from the thread-local installation, all methods may be called from
+ * any thread.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class SearchProgress {
+
+    /**
+     * The progress of the searches not run by a task.
+     */
+    static final SearchProgress NONE = new SearchProgress();
+
+    private static final ThreadLocal<SearchProgress> CURRENT =
+            new ThreadLocal<SearchProgress>();
+
+    private final LongAdder iterations = new LongAdder();
+
+    private volatile double spaceSize = Double.POSITIVE_INFINITY;
+    private volatile long maximumMillis = Long.MAX_VALUE;
+    private volatile long startTime;
+    private volatile boolean cancelled;
+
+    /**
+     * Returns the progress installed on the calling thread.
+     *
+     * @return the current progress or {@link #NONE}.
+     */
+    static SearchProgress current() {
+        SearchProgress progress = CURRENT.get();
+        return progress != null ? progress : NONE;
+    }
+
+    /**
+     * Installs this progress on the calling thread and starts its clock.
+     */
+    void install() {
+        startTime = System.currentTimeMillis();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Removes the progress installed on the calling thread.
+     */
+    static void uninstall() {
+        CURRENT.remove();
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns <code>true</code> if the search should stop: either this
+     * progress is cancelled or the calling thread is interrupted. The
+     * interrupt status is left untouched.
+     *
+     * @return <code>true</code> if the search should stop.
+     */
+    boolean isStopRequested() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Sets the expected amount of iterations and the time limit of the
+     * search.
+     *
+     * @param spaceSize     the amount of iterations of a complete search.
+     * @param maximumMillis the running time limit in milliseconds.
+     */
+    void expect(double spaceSize, long maximumMillis) {
+        if (this != NONE) {
+            this.spaceSize = spaceSize;
+            this.maximumMillis = maximumMillis;
+        }
+    }
+
+    /**
+     * Records <code>amount</code> iterations done.
+     *
+     * @param amount the amount of iterations.
+     */
+    void advance(long amount) {
+        if (this != NONE) {
+            iterations.add(amount);
+        }
+    }
+
+    /**
+     * Estimates the fraction of the search done: the larger of the fraction
+     * of the expected iterations done and the fraction of the time limit
+     * spent, at most one.
+     *
+     * @return the fraction within <tt>[0, 1]</tt>.
+     */
+    double getFraction() {
+        double fraction = iterations.sum() / spaceSize;
+        long millis = maximumMillis;
+
+        if (millis != Long.MAX_VALUE && startTime != 0L) {
+            fraction = Math.max(fraction,
+                                (double)(System.currentTimeMillis()
+                                         - startTime) / millis);
+        }
+
+        return Math.min(fraction, 1.0);
+    }
+}
@@ -0,0 +1,180 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+
+/**
+ * This class runs a simplification asynchronously in an {@link Executor}.
+ * It can be waited for as any {@link Future}, cancelled, and asked how far
+ * the search has got.
+ * <p>
+ * Cancellation is cooperative. The {@link BudgetedSimplifier} subclasses,
+ * including {@link DynamicProgrammingSimplifier} and
+ * {@link ParallelExactCombinatorialSimplifier}, check it along with their
+ * budget, also while building their subset sum indices and tables, and stop
+ * as if the budget ran out. {@link GreedyCombinatorialSimplifier},
+ * {@link FastGreedyCombinatorialSimplifier},
+ * {@link CyclePurgeBypassSimplifier} and {@link MinimumFlowSimplifier} check
+ * it in their main loops and throw a {@link CancellationException}. Either
+ * way, the worker thread is released shortly after the cancellation. Only
+ * {@link LinearSimplifier}, which runs in linear time, does not check the
+ * cancellation and always runs to completion.
+ * <p>
+ * The progress is the fraction of the search space enumerated by the
+ * combinatorial simplifiers, the dynamic programming simplifier and the
+ * partitional simplifier in the enumeration modes, or the fraction of the
+ * time limit of the budget spent, whichever is larger. The searches whose
+ * space cannot be sized in advance report no progress until they are done.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class SimplificationTask implements Future<CompactGraph> {
+
+    private final SearchProgress progress = new SearchProgress();
+    private final FutureTask<CompactGraph> future;
+
+    /**
+     * Whether the result is proven optimal; written by the worker thread
+     * before the result is published.
+     */
+    private volatile boolean resultOptimal;
+
+    private SimplificationTask(Algorithm algorithm,
+                               Callable<CompactGraph> simplification) {
+        this.future = new FutureTask<CompactGraph>(() -> {
+            progress.install();
+
+            try {
+                CompactGraph result = simplification.call();
+                resultOptimal =
+                        algorithm instanceof BudgetedSimplifier
+                        && ((BudgetedSimplifier) algorithm)
+                                .isLastResultOptimal();
+                return result;
+            } finally {
+                SearchProgress.uninstall();
+            }
+        });
+    }
+
+    /**
+     * Submits the simplification of <code>graph</code> by
+     * <code>algorithm</code> to <code>executor</code>.
+     *
+     * @param algorithm the simplifier.
+     * @param graph     the graph to simplify.
+     * @param executor  the executor to run the simplification in.
+     * @return the handle of the simplification.
+     */
+    public static SimplificationTask submit(Algorithm algorithm,
+                                            CompactGraph graph,
+                                            Executor executor) {
+        Objects.requireNonNull(algorithm, "The algorithm is null.");
+        Objects.requireNonNull(graph, "The graph is null.");
+        return submit(algorithm, () -> algorithm.simplify(graph), executor);
+    }
+
+    /**
+     * Submits the simplification of the graph with the equities
+     * <code>equities</code> by <code>algorithm</code> to
+     * <code>executor</code>.
+     *
+     * @param algorithm the simplifier.
+     * @param equities  the equities of the graph to simplify.
+     * @param executor  the executor to run the simplification in.
+     * @return the handle of the simplification.
+     */
+    public static SimplificationTask submit(Algorithm algorithm,
+                                            EquityVector equities,
+                                            Executor executor) {
+        Objects.requireNonNull(algorithm, "The algorithm is null.");
+        Objects.requireNonNull(equities, "The equity vector is null.");
+        return submit(algorithm,
+                      () -> algorithm.simplify(equities),
+                      executor);
+    }
+
+    private static SimplificationTask submit(
+            Algorithm algorithm,
+            Callable<CompactGraph> simplification,
+            Executor executor) {
+        Objects.requireNonNull(executor, "The executor is null.");
+        SimplificationTask task = new SimplificationTask(algorithm,
+                                                         simplification);
+        executor.execute(task.future);
+        return task;
+    }
+
+    /**
+     * Returns the estimated fraction of the simplification done.
+     *
+     * @return the fraction within <tt>[0, 1]</tt>; one once the task is
+     *         done.
+     */
+    public double getProgress() {
+        return future.isDone() ? 1.0 : progress.getFraction();
+    }
+
+    /**
+     * Returns <code>true</code> if the result is proven optimal, that is, the
+     * simplifier is a {@link BudgetedSimplifier} and its search completed.
+     *
+     * @return <code>true</code> if the result is optimal.
+     * @throws IllegalStateException if the task is not done.
+     */
+    public boolean isResultOptimal() {
+        if (!future.isDone()) {
+            throw new IllegalStateException("The task is not done.");
+        }
+
+        return resultOptimal;
+    }
+
+    /**
+     * Cancels the simplification. A running search is asked to stop even if
+     * <code>mayInterruptIfRunning</code> is <code>false</code>; with
+     * <code>true</code>, the worker thread is interrupted as well.
+     *
+     * @param mayInterruptIfRunning whether to interrupt the worker thread.
+     * @return <code>false</code> if the task could not be cancelled,
+     *         typically because it is already done.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        progress.cancel();
+        return future.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    @Override
+    public CompactGraph get()
+    throws InterruptedException, ExecutionException {
+        return future.get();
+    }
+
+    @Override
+    public CompactGraph get(long timeout, TimeUnit unit)
+    throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(timeout, unit);
+    }
+}
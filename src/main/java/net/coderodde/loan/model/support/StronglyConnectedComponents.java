@@ -0,0 +1,124 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Arrays;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class computes the strongly connected components of a compact graph
+ * via an iterative version of Tarjan's algorithm. The components are
+ * numbered <tt>0, 1, ..., C - 1</tt> in reverse topological order.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class StronglyConnectedComponents {
+
+    private static final int UNVISITED = -1;
+
+    /**
+     * The component of each node.
+     */
+    private final int[] components;
+
+    /**
+     * The size of each component.
+     */
+    private final int[] componentSizes;
+
+    StronglyConnectedComponents(CompactGraph graph) {
+        int n = graph.size();
+        int[] indices = new int[n];
+        int[] lowLinks = new int[n];
+        int[] slots = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] sizes = new int[n];
+        int stackSize = 0;
+        int index = 0;
+        int componentAmount = 0;
+
+        components = new int[n];
+        Arrays.fill(indices, UNVISITED);
+
+        for (int root = 0; root < n; ++root) {
+            if (indices[root] != UNVISITED) {
+                continue;
+            }
+
+            int callStackSize = 0;
+            indices[root] = lowLinks[root] = index++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callStack[callStackSize++] = root;
+
+            while (callStackSize > 0) {
+                int node = callStack[callStackSize - 1];
+                int slotAmount = graph.getBorrowerSlotAmount(node);
+                boolean called = false;
+
+                while (slots[node] < slotAmount) {
+                    int borrower = graph.getBorrowerAt(node, slots[node]);
+
+                    if (borrower >= 0) {
+                        if (indices[borrower] == UNVISITED) {
+                            indices[borrower] = lowLinks[borrower] = index++;
+                            stack[stackSize++] = borrower;
+                            onStack[borrower] = true;
+                            callStack[callStackSize++] = borrower;
+                            called = true;
+                            break;
+                        }
+
+                        if (onStack[borrower]) {
+                            lowLinks[node] = Math.min(lowLinks[node],
+                                                      indices[borrower]);
+                        }
+                    }
+
+                    ++slots[node];
+                }
+
+                if (called) {
+                    continue;
+                }
+
+                --callStackSize;
+
+                if (lowLinks[node] == indices[node]) {
+                    int member;
+
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        components[member] = componentAmount;
+                        sizes[componentAmount]++;
+                    } while (member != node);
+
+                    componentAmount++;
+                }
+
+                if (callStackSize > 0) {
+                    int parent = callStack[callStackSize - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent],
+                                                lowLinks[node]);
+                    ++slots[parent];
+                }
+            }
+        }
+
+        componentSizes = Arrays.copyOf(sizes, componentAmount);
+    }
+
+    int getComponentAmount() {
+        return componentSizes.length;
+    }
+
+    int getComponent(int node) {
+        return components[node];
+    }
+
+    int getComponentSize(int component) {
+        return componentSizes[component];
+    }
+}
@@ -0,0 +1,380 @@
+package net.coderodde.loan.model.support;
+
+/**
+ * This class enumerates the nonempty subsets of an array of weights in the
+ * order of their sizes, maintaining the sum of the current subset. Within
+ * each size, the subsets are generated in the revolving-door order of
+ * Knuth's Algorithm R (TAOCP 7.2.1.3): each subset differs from the previous
+ * one by a single element swapped in and a single one swapped out, so the
+ * sum is updated in constant time.
+ * <p>
+ * The revolving-door order of the <tt>k</tt>-subsets of <tt>n</tt> elements
+ * lists all the subsets of the first <tt>n - 1</tt> elements before the ones
+ * containing the last element. So after the current subset is removed by
+ * {@link #remove()}, all the subsets of the remaining elements below its
+ * largest element have been visited, and the enumeration resumes with the
+ * first subset whose largest element lies above it; the indices rearrange
+ * as if the removed elements were removed from the addressed structure, just
+ * as in {@link CombinationIndexGenerator#remove()}.
+ * <p>
+ * Alternatively, the subsets of each size are generated in lexicographic
+ * order, the order of {@link CombinationIndexGenerator}. Then a step may
+ * replace a suffix of the subset, but only a constant amount of elements is
+ * replaced per step on average. After a removal, the enumeration resumes
+ * with the first subset of the remaining elements lexicographically above
+ * the removed one, again as in {@link CombinationIndexGenerator#remove()}.
+ * <p>
+ * Apart from {@link #getIndices()}, no memory is allocated after
+ * construction.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class SubsetSumEnumerator {
+
+    /**
+     * The weights; the removed ones are compacted away.
+     */
+    private final long[] weights;
+
+    /**
+     * The ascending indices of the current subset, followed by the sentinel
+     * <code>n</code>.
+     */
+    private final int[] indices;
+
+    private int n;
+
+    /**
+     * The size of the current subset; zero before the first call to
+     * {@link #inc()}.
+     */
+    private int k;
+
+    private long sum;
+
+    /**
+     * Whether the current subset is yet to be returned by {@link #inc()}.
+     */
+    private boolean pending;
+
+    /**
+     * Whether the subsets of each size are generated in lexicographic order
+     * instead of the revolving-door order.
+     */
+    private final boolean lexicographic;
+
+    SubsetSumEnumerator(long[] weights) {
+        this(weights, false);
+    }
+
+    SubsetSumEnumerator(long[] weights, boolean lexicographic) {
+        this.weights = weights.clone();
+        this.indices = new int[weights.length + 1];
+        this.n = weights.length;
+        this.lexicographic = lexicographic;
+    }
+
+    /**
+     * Advances to the next subset.
+     *
+     * @return <code>false</code> if all the subsets were enumerated.
+     */
+    boolean inc() {
+        if (pending) {
+            pending = false;
+            return true;
+        }
+
+        if (k > n) {
+            return false;
+        }
+
+        if (k == 0
+                || !(lexicographic ? advanceLexicographically() : advance())) {
+            if (k >= n) {
+                k = n + 1;
+                return false;
+            }
+
+            initialize(k + 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Restarts the enumeration over the remaining weights.
+     */
+    void reset() {
+        k = 0;
+        pending = false;
+    }
+
+    /**
+     * Removes the elements of the current subset.
+     */
+    void remove() {
+        int largest = indices[k - 1];
+        int writeIndex = indices[0];
+        int removed = 0;
+
+        for (int readIndex = indices[0]; readIndex < n; ++readIndex) {
+            if (removed < k && indices[removed] == readIndex) {
+                ++removed;
+            } else {
+                weights[writeIndex++] = weights[readIndex];
+            }
+        }
+
+        n -= k;
+
+        if (lexicographic) {
+            // The first unvisited subset consists of the first remaining
+            // elements above the removed smallest one:
+            int smallest = indices[0];
+
+            if (smallest + k <= n) {
+                startRun(smallest);
+            } else if (k >= n) {
+                k = n + 1;
+                return;
+            } else {
+                initialize(k + 1);
+            }
+
+            pending = true;
+            return;
+        }
+
+        // The first unvisited subsets have the largest element that followed
+        // the removed largest one:
+        int blockLargest = Math.max(largest - k + 1, k - 1);
+
+        if (blockLargest >= n) {
+            if (k >= n) {
+                k = n + 1;
+                return;
+            }
+
+            initialize(k + 1);
+        } else {
+            startBlock(blockLargest);
+        }
+
+        pending = true;
+    }
+
+    /**
+     * Returns the amount of remaining weights.
+     *
+     * @return the amount of weights.
+     */
+    int getWeightAmount() {
+        return n;
+    }
+
+    /**
+     * Returns the size of the current subset.
+     *
+     * @return the subset size.
+     */
+    int size() {
+        return k;
+    }
+
+    /**
+     * Returns the <code>i</code>th smallest index of the current subset.
+     *
+     * @param i the position within the subset.
+     * @return the index of the weight.
+     */
+    int getIndex(int i) {
+        return indices[i];
+    }
+
+    /**
+     * Returns the indices of the current subset in a new array.
+     *
+     * @return the ascending indices.
+     */
+    int[] getIndices() {
+        int[] ret = new int[k];
+        System.arraycopy(indices, 0, ret, 0, k);
+        return ret;
+    }
+
+    /**
+     * Returns the sum of the weights of the current subset.
+     *
+     * @return the subset sum.
+     */
+    long getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns <code>true</code> if the current subset consists of the first
+     * <tt>k</tt> weights. If the weights are sorted in ascending order, it
+     * has the smallest sum of all the subsets of its size.
+     *
+     * @return <code>true</code> if the subset has no gaps.
+     */
+    boolean hasNoGaps() {
+        return indices[k - 1] == k - 1;
+    }
+
+    private void initialize(int size) {
+        k = size;
+        sum = 0L;
+
+        for (int i = 0; i < k; ++i) {
+            indices[i] = i;
+            sum += weights[i];
+        }
+
+        indices[k] = n;
+    }
+
+    /**
+     * Moves to the first subset of the current size with the largest index
+     * <code>largest</code>: the last subset of size <tt>k - 1</tt> of the
+     * indices below it, <tt>{0, 1, ..., k - 3, largest - 1}</tt>, followed
+     * by <code>largest</code>.
+     */
+    private void startBlock(int largest) {
+        sum = 0L;
+
+        for (int i = 0; i < k - 2; ++i) {
+            indices[i] = i;
+            sum += weights[i];
+        }
+
+        if (k >= 2) {
+            indices[k - 2] = largest - 1;
+            sum += weights[largest - 1];
+        }
+
+        indices[k - 1] = largest;
+        indices[k] = n;
+        sum += weights[largest];
+    }
+
+    /**
+     * Moves to the subset of the current size consisting of the consecutive
+     * indices starting from <code>first</code>.
+     */
+    private void startRun(int first) {
+        sum = 0L;
+
+        for (int i = 0; i < k; ++i) {
+            indices[i] = first + i;
+            sum += weights[first + i];
+        }
+
+        indices[k] = n;
+    }
+
+    /**
+     * Moves to the next subset of the current size in lexicographic order.
+     *
+     * @return <code>false</code> if the current subset is the last one.
+     */
+    private boolean advanceLexicographically() {
+        int i = k - 1;
+
+        while (i >= 0 && indices[i] == n - k + i) {
+            --i;
+        }
+
+        if (i < 0) {
+            return false;
+        }
+
+        for (int index = indices[i] + 1; i < k; ++i, ++index) {
+            swap(i, index);
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves to the next subset of the current size.
+     *
+     * @return <code>false</code> if the current subset is the last one.
+     */
+    private boolean advance() {
+        // In Knuth's notation, c_j is indices[j - 1]:
+        int j;
+
+        if ((k & 1) == 1) {
+            if (indices[0] + 1 < indices[1]) {
+                swap(0, indices[0] + 1);
+                return true;
+            }
+
+            j = 2;
+        } else {
+            if (indices[0] > 0) {
+                swap(0, indices[0] - 1);
+                return true;
+            }
+
+            j = 2;
+
+            if (tryIncrease(j)) {
+                return true;
+            }
+
+            ++j;
+        }
+
+        while (j <= k) {
+            // Try to decrease c_j:
+            if (indices[j - 1] >= j) {
+                int removed = indices[j - 1];
+                indices[j - 1] = indices[j - 2];
+                indices[j - 2] = j - 2;
+                sum += weights[j - 2] - weights[removed];
+                return true;
+            }
+
+            ++j;
+
+            if (j > k) {
+                break;
+            }
+
+            if (tryIncrease(j)) {
+                return true;
+            }
+
+            ++j;
+        }
+
+        return false;
+    }
+
+    /**
+     * Tries to increase c_j, where c_(j - 1) = j - 2.
+     */
+    private boolean tryIncrease(int j) {
+        if (j > k || indices[j - 1] + 1 >= indices[j]) {
+            return false;
+        }
+
+        int removed = indices[j - 2];
+        indices[j - 2] = indices[j - 1];
+        indices[j - 1] = indices[j - 1] + 1;
+        sum += weights[indices[j - 1]] - weights[removed];
+        return true;
+    }
+
+    /**
+     * Replaces the element at position <code>i</code> of the subset.
+     */
+    private void swap(int i, int index) {
+        sum += weights[index] - weights[indices[i]];
+        indices[i] = index;
+    }
+}
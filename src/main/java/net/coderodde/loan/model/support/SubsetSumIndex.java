@@ -0,0 +1,378 @@
+package net.coderodde.loan.model.support;
+
+import java.util.List;
+
+/**
+ * This class indexes the sums of all non-empty subsets of a node list of one
+ * sign. The sums are held in a sorted primitive array along with the subset
+ * bitmasks, so all the subsets summing to a given value are found by a
+ * binary search. Pairing each of the <tt>2^p</tt> subsets of the other sign
+ * with the matching indexed subsets of <tt>q</tt> nodes this way takes
+ * <tt>O(2^p log 2^q)</tt> time instead of the <tt>O(2^p 2^q)</tt> of
+ * scanning all the indexed subsets for each of them.
+ * <p>
+ * Only as many nodes are indexed as fit within
+ * <code>MAXIMUM_BUILD_BYTES</code>; the subsets of the remaining nodes are
+ * enumerated on each lookup in Gray code order, each combined with the
+ * indexed subsets of the remaining sum. So a lookup takes
+ * <tt>O(2^r log 2^m)</tt> time for <tt>m</tt> indexed and <tt>r</tt>
+ * remaining nodes.
+ * <p>
+ * The instances of this class are immutable and may be shared by threads.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class SubsetSumIndex {
+
+    /**
+     * The maximum amount of indexed nodes.
+     */
+    static final int MAXIMUM_SIZE = 30;
+
+    /**
+     * The bound on the memory taken while building an index, in bytes.
+     */
+    static final long MAXIMUM_BUILD_BYTES = 1L << 28;
+
+    /**
+     * The position of the bit of the first node in the group masks.
+     */
+    private final int shift;
+
+    /**
+     * The amount of indexed nodes; they are the first ones of the list.
+     */
+    private final int indexedSize;
+
+    /**
+     * The absolute equities of the nodes following the indexed ones.
+     */
+    private final long[] remainingEquities;
+
+    /**
+     * The subset sums in ascending order.
+     */
+    private final long[] sums;
+
+    /**
+     * The subset bitmasks in the order of <code>sums</code>. The bit
+     * <code>i</code> stands for the <code>i</code>th indexed node.
+     */
+    private final int[] masks;
+
+    /**
+     * Indexes all non-empty subsets of <code>nodeList</code>. In the group
+     * masks, the node <code>nodeList.get(i)</code> is the bit
+     * <code>shift + i</code>.
+     *
+     * @param nodeList the list of nodes to index.
+     * @param equities the equities of all nodes.
+     * @param shift    the bit of the first node.
+     */
+    SubsetSumIndex(List<Integer> nodeList, long[] equities, int shift) {
+        this(nodeList,
+             equities,
+             shift,
+             SearchBudget.UNLIMITED.start(SearchProgress.NONE));
+    }
+
+    /**
+     * Indexes the subsets of <code>nodeList</code> within the budget metered
+     * by <code>meter</code>: an iteration is spent per indexed subset and per
+     * subset moved in each merge pass of the sort. If the budget runs out,
+     * the construction stops early and the index must not be used.
+     *
+     * @param nodeList the list of nodes to index.
+     * @param equities the equities of all nodes.
+     * @param shift    the bit of the first node.
+     * @param meter    the meter of the search budget.
+     */
+    SubsetSumIndex(List<Integer> nodeList,
+                   long[] equities,
+                   int shift,
+                   SearchBudget.Meter meter) {
+        this(nodeList,
+             equities,
+             shift,
+             getIndexedSize(nodeList.size()),
+             meter);
+    }
+
+    /**
+     * Indexes the subsets of the first <code>indexedSize</code> nodes of
+     * <code>nodeList</code>, leaving the subsets of the other nodes to be
+     * enumerated on lookup.
+     *
+     * @param nodeList    the list of nodes to index.
+     * @param equities    the equities of all nodes.
+     * @param shift       the bit of the first node.
+     * @param indexedSize the amount of nodes to index.
+     * @param meter       the meter of the search budget.
+     */
+    SubsetSumIndex(List<Integer> nodeList,
+                   long[] equities,
+                   int shift,
+                   int indexedSize,
+                   SearchBudget.Meter meter) {
+        if (indexedSize < 0
+                || indexedSize > Math.min(nodeList.size(), MAXIMUM_SIZE)) {
+            throw new IllegalArgumentException(
+                    "Illegal amount of nodes to index: " + indexedSize +
+                    "; must be within [0, " +
+                    Math.min(nodeList.size(), MAXIMUM_SIZE) + "].");
+        }
+
+        if (!canIndex(nodeList.size(), shift)) {
+            throw new IllegalArgumentException(
+                    "Illegal shift: " + shift + "; the masks must fit in " +
+                    Long.SIZE + " bits.");
+        }
+
+        this.shift = shift;
+        this.indexedSize = indexedSize;
+        this.remainingEquities = new long[nodeList.size() - indexedSize];
+
+        for (int i = 0; i < remainingEquities.length; ++i) {
+            remainingEquities[i] =
+                    Math.abs(equities[nodeList.get(indexedSize + i)]);
+        }
+
+        int n = indexedSize;
+        int subsetAmount = (1 << n) - 1;
+        long[] sumsByMask = new long[subsetAmount + 1];
+
+        this.masks = new int[subsetAmount];
+        this.sums = new long[subsetAmount];
+
+        for (int mask = 1; mask <= subsetAmount; ++mask) {
+            if (!meter.tick()) {
+                return;
+            }
+
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            sumsByMask[mask] = sumsByMask[mask & (mask - 1)] +
+                               Math.abs(equities[nodeList.get(lowest)]);
+        }
+
+        int[] order = masks;
+
+        for (int i = 0; i < subsetAmount; ++i) {
+            order[i] = i + 1;
+        }
+
+        if (!sort(order, sumsByMask, meter)) {
+            return;
+        }
+
+        for (int i = 0; i < subsetAmount; ++i) {
+            sums[i] = sumsByMask[order[i]];
+        }
+    }
+
+    /**
+     * Returns the amount of memory taken while building an index of
+     * <code>n</code> nodes: the sums by mask, the masks, their merge buffer
+     * and the sorted sums.
+     *
+     * @param n the amount of nodes.
+     * @return the memory in bytes.
+     */
+    static long getBuildBytes(int n) {
+        return 24L << n;
+    }
+
+    /**
+     * Returns <code>true</code> if the masks of <code>n</code> nodes with
+     * their first bit at <code>shift</code> fit in a <code>long</code>.
+     *
+     * @param n     the amount of nodes.
+     * @param shift the bit of the first node.
+     * @return <code>true</code> if the nodes can be indexed.
+     */
+    static boolean canIndex(int n, int shift) {
+        return shift >= 0 && shift + n <= Long.SIZE;
+    }
+
+    /**
+     * Returns the amount of nodes out of <code>n</code> that are indexed
+     * within <code>MAXIMUM_BUILD_BYTES</code>.
+     *
+     * @param n the amount of nodes.
+     * @return the amount of indexed nodes.
+     */
+    static int getIndexedSize(int n) {
+        int size = Math.min(n, MAXIMUM_SIZE);
+
+        while (getBuildBytes(size) > MAXIMUM_BUILD_BYTES) {
+            --size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the amount of iterations spent on searching the groups of
+     * <code>e</code> enumerated and <code>n</code> indexed nodes: building
+     * the index and a lookup per non-empty combination of the enumerated
+     * nodes, each lookup spending an iteration per non-empty subset of the
+     * nodes left out of the index.
+     *
+     * @param e the amount of enumerated nodes.
+     * @param n the amount of nodes to index.
+     * @return the amount of iterations.
+     */
+    static double getSearchIterations(int e, int n) {
+        int indexedSize = getIndexedSize(n);
+        return getBuildIterations(indexedSize)
+               + (Math.pow(2.0, e) - 1.0) * Math.pow(2.0, n - indexedSize);
+    }
+
+    /**
+     * Adds to <code>groups</code> a group mask for each subset with the sum
+     * <code>combinationSum</code>, spending an iteration of
+     * <code>meter</code> per non-empty subset of the nodes left out of the
+     * index.
+     *
+     * @param combinationMask the mask of the combination of the other sign.
+     * @param combinationSum  the sum of the combination of the other sign.
+     * @param groups          the list of group masks to add to.
+     * @param meter           the meter of the search budget.
+     * @return <code>false</code> if the budget ran out before all the
+     *         subsets were looked up.
+     */
+    boolean findGroups(long combinationMask,
+                       long combinationSum,
+                       LongList groups,
+                       SearchBudget.Meter meter) {
+        findIndexedGroups(combinationMask, combinationSum, groups);
+
+        long remainingSubsetAmount = 1L << remainingEquities.length;
+        long remainingMask = 0L;
+        long remainingSum = 0L;
+
+        for (long i = 1L; i < remainingSubsetAmount; ++i) {
+            if (!meter.tick()) {
+                return false;
+            }
+
+            // The Gray code flips the lowest set bit of i:
+            int bit = Long.numberOfTrailingZeros(i);
+            remainingMask ^= 1L << bit;
+            remainingSum += (remainingMask & (1L << bit)) != 0L ?
+                            remainingEquities[bit] :
+                            -remainingEquities[bit];
+
+            long mask = combinationMask
+                        | (remainingMask << (shift + indexedSize));
+
+            if (remainingSum == combinationSum) {
+                groups.add(mask);
+            } else if (remainingSum < combinationSum) {
+                findIndexedGroups(mask, combinationSum - remainingSum, groups);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the amount of indexed subsets.
+     *
+     * @return the amount of subsets.
+     */
+    int size() {
+        return sums.length;
+    }
+
+    private void findIndexedGroups(long mask, long sum, LongList groups) {
+        for (int i = lowerBound(sum); i < sums.length && sums[i] == sum; ++i) {
+            groups.add(mask | ((masks[i] & 0xffffffffL) << shift));
+        }
+    }
+
+    private int lowerBound(long sum) {
+        int low = 0;
+        int high = sums.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (sums[middle] < sum) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns the amount of iterations spent on building an index of
+     * <code>n</code> nodes: one per subset and per subset in each of the
+     * <tt>n</tt> merge passes.
+     *
+     * @param n the amount of nodes.
+     * @return the amount of iterations.
+     */
+    static double getBuildIterations(int n) {
+        return (Math.pow(2.0, n) - 1.0) * (n + 1);
+    }
+
+    /**
+     * Sorts stably the masks in <code>order</code> by their sums.
+     *
+     * @param order      the masks to sort.
+     * @param sumsByMask the sums indexed by masks.
+     * @param meter      the meter of the search budget.
+     * @return <code>false</code> if the budget ran out before the masks were
+     *         sorted.
+     */
+    private static boolean sort(int[] order,
+                                long[] sumsByMask,
+                                SearchBudget.Meter meter) {
+        int[] source = order;
+        int[] target = new int[order.length];
+
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int left = 0; left < order.length; left += width << 1) {
+                int middle = Math.min(left + width, order.length);
+                int right = Math.min(left + (width << 1), order.length);
+                int i = left;
+                int j = middle;
+                int k = left;
+
+                while (i < middle && j < right) {
+                    if (sumsByMask[source[j]] < sumsByMask[source[i]]) {
+                        target[k++] = source[j++];
+                    } else {
+                        target[k++] = source[i++];
+                    }
+                }
+
+                while (i < middle) {
+                    target[k++] = source[i++];
+                }
+
+                while (j < right) {
+                    target[k++] = source[j++];
+                }
+
+                if (!meter.tick(right - left)) {
+                    return false;
+                }
+            }
+
+            int[] tmp = source;
+            source = target;
+            target = tmp;
+        }
+
+        if (source != order) {
+            System.arraycopy(source, 0, order, 0, order.length);
+        }
+
+        return true;
+    }
+}
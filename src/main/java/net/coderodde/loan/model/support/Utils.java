@@ -6,12 +6,13 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import net.coderodde.loan.model.Graph;
-import net.coderodde.loan.model.Node;
-import static net.coderodde.loan.model.support.Utils.nodeListEquityComparator;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
 
 /**
- * This class contains the utility methods for simplifying graphs.
+ * This class contains the utility methods for simplifying graphs. The nodes
+ * are referred to by their IDs; the equity of a node <code>id</code> is
+ * <code>equities[id]</code>.
  *
  * @author coderodde
  * @version 1.6
@@ -49,76 +50,56 @@ public class Utils {
     }
 
     /**
-     * Splits the iterable in the triple of lists with positive,
-     * negative and zero nodes, respectively.
+     * Splits the node IDs of an equity vector in the pair of lists with
+     * positive and negative nodes, respectively. Zero equity nodes are
+     * omitted.
      *
-     * @param iterable the iterable of nodes.
+     * @param equityVector the equity vector.
      *
-     * @return the triple of lists of nodes.
+     * @return the pair of lists of node IDs.
      */
-    static final Triple<List<Node>, List<Node>, List<Node>>
-    split(Iterable<Node> iterable) {
-        int size = 0;
-
-        for (Node node : iterable) {
-            ++size;
-        }
-
-        List<Node> positiveNodeList = new ArrayList<Node>(size);
-        List<Node> negativeNodeList = new ArrayList<Node>(size);
-        List<Node> zeroNodeList = new ArrayList<Node>(size);
-
-        for (Node node : iterable) {
-            if (node.getEquity() > 0L) {
-                positiveNodeList.add(node);
-            } else if (node.getEquity() < 0L) {
-                negativeNodeList.add(node);
-            } else {
-                zeroNodeList.add(node);
+    static final Pair<List<Integer>, List<Integer>>
+    split(EquityVector equityVector) {
+        int size = equityVector.size();
+
+        List<Integer> positiveNodeList = new ArrayList<Integer>(size);
+        List<Integer> negativeNodeList = new ArrayList<Integer>(size);
+
+        for (int id = 0; id < size; ++id) {
+            if (equityVector.getEquity(id) > 0L) {
+                positiveNodeList.add(id);
+            } else if (equityVector.getEquity(id) < 0L) {
+                negativeNodeList.add(id);
             }
         }
 
-        return new Triple<List<Node>, List<Node>, List<Node>>(positiveNodeList,
-                                                              negativeNodeList,
-                                                              zeroNodeList);
+        return new Pair<List<Integer>, List<Integer>>(positiveNodeList,
+                                                      negativeNodeList);
     }
 
-    static final void linkGroup(List<Node> positiveNodeList,
-                                List<Node> negativeNodeList,
-                                Graph graph) {
-        Set<Node> group = new HashSet<Node>(positiveNodeList.size() +
-                                            negativeNodeList.size());
+    static final void linkGroup(List<Integer> positiveNodeList,
+                                List<Integer> negativeNodeList,
+                                long[] equities,
+                                CompactGraph graph) {
+        Set<Integer> group = new HashSet<Integer>(positiveNodeList.size() +
+                                                  negativeNodeList.size());
 
         group.addAll(positiveNodeList);
         group.addAll(negativeNodeList);
-        linkGroup(group, graph);
+        linkGroup(group, equities, graph);
     }
 
-    static final void linkGroup(Set<Node> group, Graph in) {
-        List<Node> positiveNodeList = new ArrayList<Node>(group.size());
-        List<Node> negativeNodeList = new ArrayList<Node>(group.size());
-
-        for (Node node : group) {
-            if (node.getEquity() > 0L) {
-                positiveNodeList.add(in.get(node.getName()));
-            } else if (node.getEquity() < 0L) {
-                negativeNodeList.add(in.get(node.getName()));
-            }
-        }
-
-        long[] positiveEquityArray = new long[positiveNodeList.size()];
-        long[] negativeEquityArray = new long[negativeNodeList.size()];
-
-        int pi = 0;
-        int ni = 0;
-
-        for (Node node : group) {
-            long e = node.getEquity();
-
-            if (e > 0L) {
-                positiveEquityArray[pi++] = e;
-            } else if (e < 0L) {
-                negativeEquityArray[ni++] = -e;
+    static final void linkGroup(Set<Integer> group,
+                                long[] equities,
+                                CompactGraph graph) {
+        List<Integer> positiveNodeList = new ArrayList<Integer>(group.size());
+        List<Integer> negativeNodeList = new ArrayList<Integer>(group.size());
+
+        for (Integer id : group) {
+            if (equities[id] > 0L) {
+                positiveNodeList.add(id);
+            } else if (equities[id] < 0L) {
+                negativeNodeList.add(id);
             } else {
                 throw new IllegalStateException("Zero equity node encounterd.");
             }
@@ -126,78 +107,70 @@ public class Utils {
 
         link(positiveNodeList,
              negativeNodeList,
-             positiveEquityArray,
-             negativeEquityArray);
+             getEquityArray(positiveNodeList, equities),
+             getEquityArray(negativeNodeList, equities),
+             graph);
     }
 
-    static final int resolveBinaryGroups(List<Node> positiveNodeList,
-                                          List<Node> negativeNodeList,
-                                          Graph graph) {
-
-        long[] positiveEquityArray = getEquityArray(positiveNodeList);
-        long[] negativeEquityArray = getEquityArray(negativeNodeList);
-
-        int pi = positiveEquityArray.length - 1;
-        int ni = negativeEquityArray.length - 1;
-
-        int resolved = 0;
-
-        while (pi >= 0 && ni >= 0) {
-            if (positiveEquityArray[pi] > negativeEquityArray[ni]) {
-                --pi;
-            } else if (positiveEquityArray[pi] < negativeEquityArray[ni]) {
-                --ni;
-            } else {
-                
-                Node nodeP = graph.get(positiveNodeList.get(pi).getName());
-                Node nodeN = graph.get(negativeNodeList.get(ni).getName());
-                
-                nodeP.setWeightTo(
-                        nodeN, 
-                        nodeP.getWeightTo(nodeN) + positiveEquityArray[pi]);
-                
-                positiveNodeList.remove(pi--);
-                negativeNodeList.remove(ni--);
-                resolved++;
-            }
-        }
-
+    /**
+     * Links the pairs of a positive and a negative node of equal absolute
+     * equities and removes them from the node lists.
+     *
+     * @param positiveNodeList the list of nodes with positive equities.
+     * @param negativeNodeList the list of nodes with negative equities.
+     * @param equities         the equities of all nodes.
+     * @param graph            the graph to link the pairs in.
+     *
+     * @return the amount of pairs linked.
+     */
+    static final int resolveBinaryGroups(List<Integer> positiveNodeList,
+                                         List<Integer> negativeNodeList,
+                                         long[] equities,
+                                         CompactGraph graph) {
+        EquityMatcher matcher = new EquityMatcher(positiveNodeList,
+                                                  negativeNodeList,
+                                                  equities);
+        int resolved = matcher.matchPairs(graph);
+        matcher.removeMatched();
         return resolved;
     }
 
-    static final List<Node> copy(List<Node> nodeList) {
-        List<Node> copyList = new ArrayList<Node>(nodeList.size());
-
-        for (Node node : nodeList) {
-            copyList.add(new Node(node));
-        }
-
-        return copyList;
+    /**
+     * Links the pairs of equal absolute equities, then the triples of a
+     * node and two nodes of the opposite sign summing up to it, and removes
+     * them from the node lists. Unlike the pairs, the triples may belong to
+     * no optimal partition.
+     *
+     * @param positiveNodeList the list of nodes with positive equities.
+     * @param negativeNodeList the list of nodes with negative equities.
+     * @param equities         the equities of all nodes.
+     * @param graph            the graph to link the groups in.
+     *
+     * @return the amount of groups linked.
+     */
+    static final int resolveSmallGroups(List<Integer> positiveNodeList,
+                                        List<Integer> negativeNodeList,
+                                        long[] equities,
+                                        CompactGraph graph) {
+        EquityMatcher matcher = new EquityMatcher(positiveNodeList,
+                                                  negativeNodeList,
+                                                  equities);
+        int resolved = matcher.matchPairs(graph);
+        resolved += matcher.matchTriples(graph);
+        matcher.removeMatched();
+        return resolved;
     }
 
-    static final long[] getEquityArray(List<Node> nodeList) {
-        long[] equities = new long[nodeList.size()];
+    static final long[] getEquityArray(List<Integer> nodeList,
+                                       long[] equities) {
+        long[] equityArray = new long[nodeList.size()];
         int i = 0;
 
-        for (Node node : nodeList) {
-            equities[i++] = Math.abs(node.getEquity());
-        }
-
-        return equities;
-    }
-
-    static List<Node> fetchFromGraph(List<Node> nodes, Graph g) {
-        List<Node> ret = new ArrayList<Node>(nodes.size());
-
-        for (Node node : nodes) {
-            Node tmp = g.get(node.getName());
-
-            if (tmp != null) {
-                ret.add(tmp);
-            }
+        for (Integer id : nodeList) {
+            equityArray[i++] = Math.abs(equities[id]);
         }
 
-        return ret;
+        return equityArray;
     }
 
     /**
@@ -208,13 +181,15 @@ public class Utils {
      * @param positiveEquityArray the array of positive equities.
      * @param negativeEquityArray the array of absolute values of negative
      * equities.
+     * @param graph the graph to link the group in.
      *
      * @return the amount of edges created.
      */
-    static final int link(List<Node> positiveNodeList,
-                          List<Node> negativeNodeList,
+    static final int link(List<Integer> positiveNodeList,
+                          List<Integer> negativeNodeList,
                           long[] positiveEquityArray,
-                          long[] negativeEquityArray) {
+                          long[] negativeEquityArray,
+                          CompactGraph graph) {
         checkEquityArray(positiveEquityArray);
         checkEquityArray(negativeEquityArray);
         checkIsGroup(positiveEquityArray,
@@ -227,21 +202,24 @@ public class Utils {
 
         while (pi < nPositive) {
             ++edgeAmount;
-            
-            Node positiveNode = positiveNodeList.get(pi);
-            Node negativeNode = negativeNodeList.get(ni);
+
+            int positiveNode = positiveNodeList.get(pi);
+            int negativeNode = negativeNodeList.get(ni);
 
             if (positiveEquityArray[pi] > negativeEquityArray[ni]) {
-                positiveNode.connectToBorrower(negativeNode);
-                positiveNode.setWeightTo(negativeNode, negativeEquityArray[ni]);
+                graph.setWeight(positiveNode,
+                                negativeNode,
+                                negativeEquityArray[ni]);
                 positiveEquityArray[pi] -= negativeEquityArray[ni++];
             } else if (positiveEquityArray[pi] < negativeEquityArray[ni]) {
-                positiveNode.connectToBorrower(negativeNode);
-                positiveNode.setWeightTo(negativeNode, positiveEquityArray[pi]);
+                graph.setWeight(positiveNode,
+                                negativeNode,
+                                positiveEquityArray[pi]);
                 negativeEquityArray[ni] -= positiveEquityArray[pi++];
             } else {
-                positiveNode.connectToBorrower(negativeNode);
-                positiveNode.setWeightTo(negativeNode, positiveEquityArray[pi]);
+                graph.setWeight(positiveNode,
+                                negativeNode,
+                                positiveEquityArray[pi]);
                 ++pi;
                 ++ni;
             }
@@ -250,17 +228,17 @@ public class Utils {
         return edgeAmount;
     }
 
-    static Pair<Pair<List<Node>, List<Node>>, Pair<long[], long[]>>
-            splitFromGraph(Graph g,
-                           List<Node> positiveNodeList,
-                           List<Node> negativeNodeList,
-                           int[] positiveIndices,
-                           int[] negativeIndices) {
-        List<Node> newPositiveNodeList;
-        List<Node> newNegativeNodeList;
+    static Pair<Pair<List<Integer>, List<Integer>>, Pair<long[], long[]>>
+            splitGroup(List<Integer> positiveNodeList,
+                       List<Integer> negativeNodeList,
+                       long[] equities,
+                       int[] positiveIndices,
+                       int[] negativeIndices) {
+        List<Integer> newPositiveNodeList;
+        List<Integer> newNegativeNodeList;
 
-        newPositiveNodeList = new ArrayList<Node>(positiveIndices.length);
-        newNegativeNodeList = new ArrayList<Node>(negativeIndices.length);
+        newPositiveNodeList = new ArrayList<Integer>(positiveIndices.length);
+        newNegativeNodeList = new ArrayList<Integer>(negativeIndices.length);
 
         long[] newPositiveEquityArray = new long[positiveIndices.length];
         long[] newNegativeEquityArray = new long[negativeIndices.length];
@@ -268,22 +246,22 @@ public class Utils {
         int i = 0;
 
         for (int index : positiveIndices) {
-            Node node = positiveNodeList.get(index);
-            newPositiveNodeList.add(g.get(node.getName()));
-            newPositiveEquityArray[i++] = node.getEquity();
+            Integer id = positiveNodeList.get(index);
+            newPositiveNodeList.add(id);
+            newPositiveEquityArray[i++] = equities[id];
         }
 
         i = 0;
 
         for (int index : negativeIndices) {
-            Node node = negativeNodeList.get(index);
-            newNegativeNodeList.add(g.get(node.getName()));
-            newNegativeEquityArray[i++] = -node.getEquity();
+            Integer id = negativeNodeList.get(index);
+            newNegativeNodeList.add(id);
+            newNegativeEquityArray[i++] = -equities[id];
         }
 
-        return new Pair<Pair<List<Node>, List<Node>>,
+        return new Pair<Pair<List<Integer>, List<Integer>>,
                         Pair<long[], long[]>>(
-                            new Pair<List<Node>, List<Node>>(
+                            new Pair<List<Integer>, List<Integer>>(
                                 newPositiveNodeList,
                                 newNegativeNodeList),
                             new Pair<long[], long[]>(
@@ -291,21 +269,24 @@ public class Utils {
                                 newNegativeEquityArray));
     }
 
-    static final long sumNodeEquities(List<Node> nodeList, int[] indices) {
+    static final long sumNodeEquities(List<Integer> nodeList,
+                                      long[] equities,
+                                      int[] indices) {
         long sum = 0;
 
         for (int index : indices) {
-            sum += nodeList.get(index).getEquity();
+            sum += equities[nodeList.get(index)];
         }
 
         return Math.abs(sum);
     }
 
-    static final long sumNodeEquities(List<Node> nodeList) {
+    static final long sumNodeEquities(List<Integer> nodeList,
+                                      long[] equities) {
         long sum = 0L;
 
-        for (Node node : nodeList) {
-            sum += node.getEquity();
+        for (Integer id : nodeList) {
+            sum += equities[id];
         }
 
         return Math.abs(sum);
@@ -320,26 +301,80 @@ public class Utils {
         }
     }
 
-    static final Set<Node> createGroup(List<Node> positiveNodeList,
-                                       List<Node> negativeNodeList,
-                                       int[] positiveIndices,
-                                       int[] negativeIndices) {
-        Set<Node> group = new HashSet<Node>(positiveIndices.length +
-                                            negativeIndices.length);
+    /**
+     * Returns the bitmask with the bits at <code>indices</code> set.
+     *
+     * @param indices the indices of the set bits.
+     *
+     * @return the bitmask.
+     */
+    static final long toMask(int[] indices) {
+        long mask = 0L;
 
-        for (int i : positiveIndices) {
-            group.add(positiveNodeList.get(i));
+        for (int index : indices) {
+            mask |= 1L << index;
         }
 
-        for (int i : negativeIndices) {
-            group.add(negativeNodeList.get(i));
+        return mask;
+    }
+
+    /**
+     * Moves the lowest <code>lowBits</code> bits of <code>mask</code> above
+     * its next <code>highBits</code> bits. This turns a group mask with the
+     * bits of the negative nodes first into one with the bits of the positive
+     * nodes first.
+     *
+     * @param mask     the bitmask.
+     * @param lowBits  the amount of bits to move up.
+     * @param highBits the amount of bits to move down.
+     *
+     * @return the rotated bitmask.
+     */
+    static final long rotateMask(long mask, int lowBits, int highBits) {
+        return (mask >>> lowBits) | ((mask & ((1L << lowBits) - 1L))
+                                     << highBits);
+    }
+
+    /**
+     * Links a group given as a bitmask. The bit <code>i</code> stands for
+     * <code>positiveNodeList.get(i)</code> if <code>i</code> is less than the
+     * amount of positive nodes, and for the negative node at index
+     * <code>i - positiveNodeList.size()</code> otherwise.
+     *
+     * @param group            the bitmask of the group.
+     * @param positiveNodeList the list of positive nodes.
+     * @param negativeNodeList the list of negative nodes.
+     * @param equities         the equities of all nodes.
+     * @param graph            the graph to link the group in.
+     */
+    static final void linkGroup(long group,
+                                List<Integer> positiveNodeList,
+                                List<Integer> negativeNodeList,
+                                long[] equities,
+                                CompactGraph graph) {
+        int p = positiveNodeList.size();
+        List<Integer> groupPositiveNodeList = new ArrayList<Integer>();
+        List<Integer> groupNegativeNodeList = new ArrayList<Integer>();
+
+        for (long mask = group; mask != 0L; mask &= mask - 1L) {
+            int bit = Long.numberOfTrailingZeros(mask);
+
+            if (bit < p) {
+                groupPositiveNodeList.add(positiveNodeList.get(bit));
+            } else {
+                groupNegativeNodeList.add(negativeNodeList.get(bit - p));
+            }
         }
 
-        return group;
+        link(groupPositiveNodeList,
+             groupNegativeNodeList,
+             getEquityArray(groupPositiveNodeList, equities),
+             getEquityArray(groupNegativeNodeList, equities),
+             graph);
     }
 
-    static final void removeNodesFromLists(List<Node> positiveNodes,
-                                           List<Node> negativeNodes,
+    static final void removeNodesFromLists(List<Integer> positiveNodes,
+                                           List<Integer> negativeNodes,
                                            int[] positiveIndices,
                                            int[] negativeIndices) {
         for (int i = positiveIndices.length - 1; i >= 0; --i) {
@@ -351,27 +386,27 @@ public class Utils {
         }
     }
 
-
-    static final void checkGroup(List<Node> positiveNodeList,
-                                 List<Node> negativeNodeList) {
+    static final void checkGroup(List<Integer> positiveNodeList,
+                                 List<Integer> negativeNodeList,
+                                 long[] equities) {
         long sum = 0L;
 
-        for (Node node : positiveNodeList) {
-            if (node.getEquity() < 1L) {
+        for (Integer id : positiveNodeList) {
+            if (equities[id] < 1L) {
                 throw new IllegalStateException(
                         "A non-positive node in positive list.");
             }
 
-            sum += node.getEquity();
+            sum += equities[id];
         }
 
-        for (Node node : negativeNodeList) {
-            if (node.getEquity() > -1L) {
+        for (Integer id : negativeNodeList) {
+            if (equities[id] > -1L) {
                 throw new IllegalStateException(
                         "A non-negative node in negative list.");
             }
 
-            sum += node.getEquity();
+            sum += equities[id];
         }
 
         if (sum != 0L) {
@@ -398,62 +433,35 @@ public class Utils {
     }
 
     /**
-     * Returns the array of nodes taken from a list;
-     *
-     * @param nodeList the nodes to return in an array.
-     *
-     * @return the array of nodes.
+     * This class compares lists of nodes by absolute values of their equity
+     * sums.
      */
-    static Node[] toArray(List<Node> nodeList) {
-        Node[] array = new Node[nodeList.size()];
-        int index = 0;
+    static class NodeListEquityComparator implements Comparator<List<Integer>> {
 
-        for (Node node : nodeList) {
-            array[index++] = node;
-        }
+        private final long[] equities;
 
-        return array;
-    }
-
-    static List<Node> toList(Node... nodes) {
-        List<Node> list = new ArrayList<Node>(nodes.length);
-
-        for (Node node : nodes) {
-            list.add(node);
+        NodeListEquityComparator(long[] equities) {
+            this.equities = equities;
         }
 
-        return list;
-    }
-
-    final static NodeListEquityComparator nodeListEquityComparator =
-             new NodeListEquityComparator();
-
-    static class NodeListEquityComparator implements Comparator<List<Node>> {
         @Override
-        public int compare(List<Node> l1, List<Node> l2) {
-            long e1 = sumNodeEquities(l1);
-            long e2 = sumNodeEquities(l2);
+        public int compare(List<Integer> l1, List<Integer> l2) {
+            long e1 = sumNodeEquities(l1, equities);
+            long e2 = sumNodeEquities(l2, equities);
             return (e1 < e2 ? -1 : (e1 > e2 ? 1 : 0));
         }
     }
 
-    final static GroupOrderComparator groupOrderComparator =
-             new GroupOrderComparator();
-
-    static class GroupOrderComparator implements Comparator<Set<Node>> {
-
-        @Override
-        public int compare(Set<Node> g1, Set<Node> g2) {
-            return g1.size() - g2.size();
-        }
-    }
-
-    final static EquityComparator equityComparator = new EquityComparator();
-
     /**
      * This class compares nodes by absolute values of their equities.
      */
-    static class EquityComparator implements Comparator<Node> {
+    static class EquityComparator implements Comparator<Integer> {
+
+        private final long[] equities;
+
+        EquityComparator(long[] equities) {
+            this.equities = equities;
+        }
 
         /**
          * Returns following values: <ul>
@@ -471,68 +479,19 @@ public class Utils {
          * @return (See above.)
          */
         @Override
-        public int compare(Node o1, Node o2) {
-            long e1 = Math.abs(o1.getEquity());
-            long e2 = Math.abs(o2.getEquity());
+        public int compare(Integer o1, Integer o2) {
+            long e1 = Math.abs(equities[o1]);
+            long e2 = Math.abs(equities[o2]);
             return e1 < e2 ? -1 : (e1 > e2 ? 1 : 0);
         }
     }
 
-    static int countLinkageEdges(List<Node> positiveNodeList,
-                                 List<Node> negativeNodeList,
-                                 int[] positivePartition,
-                                 int[] negativePartition) {
-        int k = 0;
-
-        for (int i : positivePartition) {
-            k = Math.max(k, i);
-        }
-
-        ++k;
-
-        List<Node>[] positiveMap = new List[k];
-        List<Node>[] negativeMap = new List[k];
-
-        int i = 0;
-
-        for (int index : positivePartition) {
-            if (positiveMap[index] == null) {
-                positiveMap[index] =
-                        new ArrayList<Node>(positivePartition.length);
-            }
-
-            positiveMap[index].add(positiveNodeList.get(i++));
-        }
-
-        i = 0;
-
-        for (int index : negativePartition) {
-            if (negativeMap[index] == null) {
-                negativeMap[index] =
-                        new ArrayList<Node>(negativePartition.length);
-            }
-
-            negativeMap[index].add(negativeNodeList.get(i++));
-        }
-
-        Arrays.sort(positiveMap, nodeListEquityComparator);
-        Arrays.sort(negativeMap, nodeListEquityComparator);
-
-        for (i = 0; i < k; ++i) {
-            if (sumNodeEquities(positiveMap[i])
-                    != sumNodeEquities(negativeMap[i])) {
-                return Integer.MAX_VALUE;
-            }
-        }
-
-        return positiveNodeList.size() + negativeNodeList.size() - k;
-    }
-
-    static void linkPartitions(List<Node> positiveNodes,
-                               List<Node> negativeNodes,
+    static void linkPartitions(List<Integer> positiveNodes,
+                               List<Integer> negativeNodes,
+                               long[] equities,
                                int[] positiveIndices,
                                int[] negativeIndices,
-                               Graph result) {
+                               CompactGraph result) {
         int k = 0;
 
         for (int i : positiveIndices) {
@@ -545,15 +504,15 @@ public class Utils {
 
         // Here, k is the amount of groups.
 
-        List<Node>[] positiveGroups = new List[k];
-        List<Node>[] negativeGroups = new List[k];
+        List<Integer>[] positiveGroups = new List[k];
+        List<Integer>[] negativeGroups = new List[k];
 
         int i = 0;
 
         for (int index : positiveIndices) {
             if (positiveGroups[index] == null) {
                 positiveGroups[index] =
-                        new ArrayList<Node>(positiveNodes.size());
+                        new ArrayList<Integer>(positiveNodes.size());
             }
 
             positiveGroups[index].add(positiveNodes.get(i++));
@@ -564,18 +523,21 @@ public class Utils {
         for (int index : negativeIndices) {
             if (negativeGroups[index] == null) {
                 negativeGroups[index] =
-                        new ArrayList<Node>(negativeNodes.size());
+                        new ArrayList<Integer>(negativeNodes.size());
             }
 
             negativeGroups[index].add(negativeNodes.get(i++));
         }
 
-        Arrays.sort(positiveGroups, nodeListEquityComparator);
-        Arrays.sort(negativeGroups, nodeListEquityComparator);
+        NodeListEquityComparator comparator =
+                new NodeListEquityComparator(equities);
+
+        Arrays.sort(positiveGroups, comparator);
+        Arrays.sort(negativeGroups, comparator);
 
         for (i = 0; i < k; ++i) {
-            checkGroup(positiveGroups[i], negativeGroups[i]);
-            linkGroup(positiveGroups[i], negativeGroups[i], result);
+            checkGroup(positiveGroups[i], negativeGroups[i], equities);
+            linkGroup(positiveGroups[i], negativeGroups[i], equities, result);
         }
     }
 }
@@ -0,0 +1,44 @@
+package net.coderodde.loan.workload;
+
+import java.util.Arrays;
+import net.coderodde.loan.model.CompactGraph;
+
+/**
+ * This class collects the arcs of a graph under construction in growing
+ * primitive arrays, so that the graph is built in bulk by
+ * {@link CompactGraph#fromArcs(String[], int[], int[], long[], int)}.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+final class ArcBuffer {
+
+    private int[] lenders;
+    private int[] borrowers;
+    private long[] weights;
+    private int size;
+
+    ArcBuffer(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        this.lenders = new int[capacity];
+        this.borrowers = new int[capacity];
+        this.weights = new long[capacity];
+    }
+
+    void add(int lender, int borrower, long weight) {
+        if (size == lenders.length) {
+            int capacity = size << 1;
+            lenders = Arrays.copyOf(lenders, capacity);
+            borrowers = Arrays.copyOf(borrowers, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+
+        lenders[size] = lender;
+        borrowers[size] = borrower;
+        weights[size++] = weight;
+    }
+
+    CompactGraph toGraph(String[] names) {
+        return CompactGraph.fromArcs(names, lenders, borrowers, weights, size);
+    }
+}
@@ -0,0 +1,461 @@
+package net.coderodde.loan.workload;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+
+/**
+ * This class generates synthetic loan graphs and equity vectors. Each method
+ * draws from a fresh random number generator seeded with the seed of the
+ * generator, so the same call always returns the same workload regardless of
+ * the calls made before it. The node of ID <code>i</code> is named
+ * <code>"i"</code>.
+ * <p>
+ * The graph families draw a given amount of arcs; the weights of the arcs
+ * drawn more than once add up, so a graph may contain slightly less edges
+ * than arcs were drawn. The arcs are collected in primitive arrays and the
+ * graph is built in bulk, which makes graphs of millions of arcs feasible.
+ * Except in {@link #createUniformGraph(int, int, long)}, the loans follow a
+ * Pareto distribution truncated to <tt>[1, maxLoan]</tt>: most loans are
+ * small, a few are huge.
+ * <p>
+ * The balance families produce equity vectors; the nodes are given signs so
+ * that the running sum stays small, and the last node balances the sum.
+ * {@link #realize(EquityVector, int, long)} turns any equity vector into a
+ * graph.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public final class WorkloadGenerator {
+
+    /**
+     * The shape of the Pareto distribution of the loans.
+     */
+    private static final double LOAN_SHAPE = 1.5;
+
+    private final long seed;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param seed the seed of all workloads.
+     */
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates a graph whose arcs connect uniformly chosen pairs of distinct
+     * nodes with uniform weights.
+     *
+     * @param nodeCount the amount of nodes.
+     * @param arcAmount the amount of arcs to draw.
+     * @param maxLoan   the maximum arc weight.
+     * @return the graph.
+     */
+    public CompactGraph createUniformGraph(int nodeCount,
+                                          int arcAmount,
+                                          long maxLoan) {
+        checkGraphParameters(nodeCount, arcAmount, maxLoan);
+        Random random = new Random(seed);
+        ArcBuffer arcs = new ArcBuffer(arcAmount);
+
+        for (int i = 0; i < arcAmount; ++i) {
+            int lender = random.nextInt(nodeCount);
+            int borrower = random.nextInt(nodeCount - 1);
+
+            if (borrower >= lender) {
+                ++borrower;
+            }
+
+            long weight = Math.abs(random.nextLong() % maxLoan) + 1L;
+            arcs.add(lender, borrower, weight);
+        }
+
+        return arcs.toGraph(createNames(nodeCount));
+    }
+
+    /**
+     * Creates a graph with a power-law degree distribution. Both endpoints
+     * of each arc are drawn with probabilities proportional to
+     * <tt>(i + 1)^(-1 / (exponent - 1))</tt>, so that the expected degrees
+     * follow a power law with the given exponent and the nodes of low IDs
+     * are the hubs.
+     *
+     * @param nodeCount the amount of nodes.
+     * @param arcAmount the amount of arcs to draw.
+     * @param exponent  the exponent of the degree distribution.
+     * @param maxLoan   the maximum arc weight.
+     * @return the graph.
+     */
+    public CompactGraph createPowerLawGraph(int nodeCount,
+                                           int arcAmount,
+                                           double exponent,
+                                           long maxLoan) {
+        checkGraphParameters(nodeCount, arcAmount, maxLoan);
+
+        if (!(exponent > 1.0)) {
+            throw new IllegalArgumentException(
+                    "Illegal exponent: " + exponent + "; must be above 1.");
+        }
+
+        Random random = new Random(seed);
+        double[] cumulativeWeights = new double[nodeCount];
+        double sum = 0.0;
+
+        for (int i = 0; i < nodeCount; ++i) {
+            sum += Math.pow(i + 1, -1.0 / (exponent - 1.0));
+            cumulativeWeights[i] = sum;
+        }
+
+        ArcBuffer arcs = new ArcBuffer(arcAmount);
+
+        for (int i = 0; i < arcAmount; ++i) {
+            int lender = drawNode(cumulativeWeights, random);
+            int borrower;
+
+            do {
+                borrower = drawNode(cumulativeWeights, random);
+            } while (borrower == lender);
+
+            arcs.add(lender, borrower, nextLoan(random, maxLoan));
+        }
+
+        return arcs.toGraph(createNames(nodeCount));
+    }
+
+    /**
+     * Creates a graph of communities of consecutive node IDs. Each arc starts
+     * at a uniformly chosen node and, with probability
+     * <code>locality</code>, ends within the same community; otherwise it
+     * ends at a uniformly chosen node.
+     *
+     * @param nodeCount       the amount of nodes.
+     * @param arcAmount       the amount of arcs to draw.
+     * @param communityAmount the amount of communities.
+     * @param locality        the probability of an arc within a community.
+     * @param maxLoan         the maximum arc weight.
+     * @return the graph.
+     */
+    public CompactGraph createCommunityGraph(int nodeCount,
+                                            int arcAmount,
+                                            int communityAmount,
+                                            double locality,
+                                            long maxLoan) {
+        checkGraphParameters(nodeCount, arcAmount, maxLoan);
+
+        if (communityAmount < 1 || communityAmount > nodeCount / 2) {
+            throw new IllegalArgumentException(
+                    "Illegal community amount: " + communityAmount +
+                    "; must be within [1, " + nodeCount / 2 + "].");
+        }
+
+        checkProbability(locality);
+
+        Random random = new Random(seed);
+        ArcBuffer arcs = new ArcBuffer(arcAmount);
+
+        for (int i = 0; i < arcAmount; ++i) {
+            int lender = random.nextInt(nodeCount);
+            int borrower;
+
+            if (random.nextDouble() < locality) {
+                // Communities of at least two nodes partition [0, nodeCount):
+                int community = (int) ((long) lender * communityAmount
+                                       / nodeCount);
+                int first = communityStart(community,
+                                           communityAmount,
+                                           nodeCount);
+                int end = communityStart(community + 1,
+                                         communityAmount,
+                                         nodeCount);
+
+                borrower = first + random.nextInt(end - first - 1);
+            } else {
+                borrower = random.nextInt(nodeCount - 1);
+            }
+
+            if (borrower >= lender) {
+                ++borrower;
+            }
+
+            arcs.add(lender, borrower, nextLoan(random, maxLoan));
+        }
+
+        return arcs.toGraph(createNames(nodeCount));
+    }
+
+    /**
+     * Creates an equity vector whose absolute equities are drawn from a few
+     * values only, so that many nodes share their balances.
+     *
+     * @param nodeCount             the amount of nodes.
+     * @param distinctBalanceAmount the amount of distinct absolute equities.
+     * @param maxBalance            the maximum absolute equity.
+     * @return the equity vector.
+     */
+    public EquityVector createEqualBalances(int nodeCount,
+                                            int distinctBalanceAmount,
+                                            long maxBalance) {
+        checkBalanceParameters(nodeCount, maxBalance);
+
+        if (distinctBalanceAmount < 1) {
+            throw new IllegalArgumentException(
+                    "Illegal distinct balance amount: " +
+                    distinctBalanceAmount + "; must be at least 1.");
+        }
+
+        Random random = new Random(seed);
+        long[] balances = new long[distinctBalanceAmount];
+
+        for (int i = 0; i < balances.length; ++i) {
+            balances[i] = Math.abs(random.nextLong() % maxBalance) + 1L;
+        }
+
+        long[] equities = new long[nodeCount];
+
+        for (int i = 0; i < nodeCount - 1; ++i) {
+            equities[i] = balances[random.nextInt(balances.length)];
+        }
+
+        return createEquityVector(equities);
+    }
+
+    /**
+     * Creates an equity vector, in which a fraction of the nodes are nearly
+     * settled: their absolute equities are at most
+     * <code>nearZeroBound</code>.
+     *
+     * @param nodeCount        the amount of nodes.
+     * @param nearZeroFraction the fraction of the nearly settled nodes.
+     * @param nearZeroBound    the maximum absolute equity of the nearly
+     *                         settled nodes.
+     * @param maxBalance       the maximum absolute equity of the other nodes.
+     * @return the equity vector.
+     */
+    public EquityVector createNearZeroBalances(int nodeCount,
+                                               double nearZeroFraction,
+                                               long nearZeroBound,
+                                               long maxBalance) {
+        checkBalanceParameters(nodeCount, maxBalance);
+        checkProbability(nearZeroFraction);
+
+        if (nearZeroBound < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal near-zero bound: " + nearZeroBound +
+                    "; must be at least 1.");
+        }
+
+        Random random = new Random(seed);
+        long[] equities = new long[nodeCount];
+
+        for (int i = 0; i < nodeCount - 1; ++i) {
+            long bound = random.nextDouble() < nearZeroFraction ?
+                         nearZeroBound :
+                         maxBalance;
+
+            equities[i] = Math.abs(random.nextLong() % bound) + 1L;
+        }
+
+        return createEquityVector(equities);
+    }
+
+    /**
+     * Creates a graph with the equities of <code>equityVector</code>. The
+     * positive nodes are linked to the negative ones in a random order, and
+     * then <code>cycleAmount</code> directed triangles of random nodes are
+     * added; a cycle leaves the equities of its nodes intact.
+     *
+     * @param equityVector the equities to realize.
+     * @param cycleAmount  the amount of triangles to add.
+     * @param maxLoan      the maximum weight of a triangle.
+     * @return the graph.
+     */
+    public CompactGraph realize(EquityVector equityVector,
+                                int cycleAmount,
+                                long maxLoan) {
+        Objects.requireNonNull(equityVector, "The equity vector is null.");
+        int nodeCount = equityVector.size();
+
+        if (cycleAmount < 0) {
+            throw new IllegalArgumentException(
+                    "Illegal cycle amount: " + cycleAmount +
+                    "; must be at least 0.");
+        }
+
+        if (cycleAmount > 0 && nodeCount < 3) {
+            throw new IllegalArgumentException(
+                    "A triangle needs 3 nodes; the equity vector has " +
+                    nodeCount + ".");
+        }
+
+        if (maxLoan < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal maximum loan: " + maxLoan +
+                    "; must be at least 1.");
+        }
+
+        Random random = new Random(seed);
+        int[] order = new int[nodeCount];
+
+        for (int i = 0; i < nodeCount; ++i) {
+            order[i] = i;
+        }
+
+        for (int i = nodeCount - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        ArcBuffer arcs = new ArcBuffer(nodeCount + 3 * cycleAmount);
+        int ni = 0;
+        long negativeLeft = 0L;
+
+        for (int pi = 0; pi < nodeCount; ++pi) {
+            long positiveLeft = equityVector.getEquity(order[pi]);
+
+            while (positiveLeft > 0L) {
+                while (negativeLeft == 0L) {
+                    negativeLeft =
+                            -Math.min(equityVector.getEquity(order[ni++]), 0L);
+                }
+
+                long amount = Math.min(positiveLeft, negativeLeft);
+                arcs.add(order[pi], order[ni - 1], amount);
+                positiveLeft -= amount;
+                negativeLeft -= amount;
+            }
+        }
+
+        for (int i = 0; i < cycleAmount; ++i) {
+            int a = random.nextInt(nodeCount);
+            int b;
+            int c;
+
+            do {
+                b = random.nextInt(nodeCount);
+            } while (b == a);
+
+            do {
+                c = random.nextInt(nodeCount);
+            } while (c == a || c == b);
+
+            long weight = nextLoan(random, maxLoan);
+            arcs.add(a, b, weight);
+            arcs.add(b, c, weight);
+            arcs.add(c, a, weight);
+        }
+
+        String[] names = new String[nodeCount];
+
+        for (int id = 0; id < nodeCount; ++id) {
+            names[id] = equityVector.getName(id);
+        }
+
+        return arcs.toGraph(names);
+    }
+
+    private static int drawNode(double[] cumulativeWeights, Random random) {
+        double key = random.nextDouble()
+                   * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, key);
+        index = index < 0 ? -index - 1 : index + 1;
+        return Math.min(index, cumulativeWeights.length - 1);
+    }
+
+    private static long nextLoan(Random random, long maxLoan) {
+        double loan = Math.pow(1.0 - random.nextDouble(), -1.0 / LOAN_SHAPE);
+        return (long) Math.min(maxLoan, Math.floor(loan));
+    }
+
+    private static int communityStart(int community,
+                                      int communityAmount,
+                                      int nodeCount) {
+        // The smallest ID mapped to 'community' by the floor division:
+        return (int) (((long) community * nodeCount + communityAmount - 1)
+                      / communityAmount);
+    }
+
+    /**
+     * Signs the absolute equities of all nodes but the last one so that the
+     * running sum stays small, and lets the last node balance the sum.
+     */
+    private static EquityVector createEquityVector(long[] equities) {
+        long sum = 0L;
+
+        for (int i = 0; i < equities.length - 1; ++i) {
+            if (sum > 0L) {
+                equities[i] = -equities[i];
+            }
+
+            sum += equities[i];
+        }
+
+        equities[equities.length - 1] = -sum;
+        return new EquityVector(createNames(equities.length), equities);
+    }
+
+    private static String[] createNames(int nodeCount) {
+        String[] names = new String[nodeCount];
+
+        for (int id = 0; id < nodeCount; ++id) {
+            names[id] = "" + id;
+        }
+
+        return names;
+    }
+
+    private static void checkGraphParameters(int nodeCount,
+                                             int arcAmount,
+                                             long maxLoan) {
+        if (nodeCount < 2) {
+            throw new IllegalArgumentException(
+                    "Illegal node count: " + nodeCount +
+                    "; must be at least 2.");
+        }
+
+        if (arcAmount < 0) {
+            throw new IllegalArgumentException(
+                    "Illegal arc amount: " + arcAmount +
+                    "; must be at least 0.");
+        }
+
+        if (maxLoan < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal maximum loan: " + maxLoan +
+                    "; must be at least 1.");
+        }
+    }
+
+    private static void checkBalanceParameters(int nodeCount,
+                                               long maxBalance) {
+        if (nodeCount < 1) {
+            throw new IllegalArgumentException(
+                    "Illegal node count: " + nodeCount +
+                    "; must be at least 1.");
+        }
+
+        if (maxBalance < 1L) {
+            throw new IllegalArgumentException(
+                    "Illegal maximum balance: " + maxBalance +
+                    "; must be at least 1.");
+        }
+    }
+
+    private static void checkProbability(double probability) {
+        if (!(probability >= 0.0 && probability <= 1.0)) {
+            throw new IllegalArgumentException(
+                    "Illegal probability: " + probability +
+                    "; must be within [0, 1].");
+        }
+    }
+}
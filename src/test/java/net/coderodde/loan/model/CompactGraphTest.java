@@ -0,0 +1,228 @@
+package net.coderodde.loan.model;
+
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests <code>net.coderodde.loan.model.CompactGraph</code>.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class CompactGraphTest {
+
+    private CompactGraph g;
+    private int u;
+    private int v;
+    private int w;
+
+    @Before
+    public void before() {
+        g = new CompactGraph(2);
+        u = g.addNode("A");
+        v = g.addNode("B");
+        w = g.addNode("C");
+    }
+
+    @Test
+    public void testAddNode() {
+        assertEquals(3, g.size());
+        assertEquals(0, u);
+        assertEquals(1, v);
+        assertEquals(2, w);
+        assertEquals(v, g.addNode("B"));
+        assertEquals(3, g.size());
+        assertEquals("C", g.getNodeName(w));
+        assertEquals(w, g.getNodeId("C"));
+        assertEquals(-1, g.getNodeId("NONE"));
+    }
+
+    @Test
+    public void testSetWeight() {
+        g.setWeight(u, v, 10L);
+        g.setWeight(v, w, 5L);
+
+        assertEquals(2, g.getEdgeAmount());
+        assertEquals(15L, g.getTotalFlow());
+        assertEquals(10L, g.getEquity(u));
+        assertEquals(-5L, g.getEquity(v));
+        assertEquals(-5L, g.getEquity(w));
+
+        g.setWeight(u, v, 4L);
+
+        assertEquals(2, g.getEdgeAmount());
+        assertEquals(9L, g.getTotalFlow());
+        assertEquals(4L, g.getWeight(u, v));
+        assertEquals(4L, g.getEquity(u));
+        assertEquals(1L, g.getEquity(v));
+
+        g.addWeight(u, v, 3L);
+        g.addWeight(w, u, 2L);
+
+        assertEquals(3, g.getEdgeAmount());
+        assertEquals(7L, g.getWeight(u, v));
+        assertEquals(2L, g.getWeight(w, u));
+        assertEquals(5L, g.getEquity(u));
+    }
+
+    @Test
+    public void testRemoveArc() {
+        g.setWeight(u, v, 10L);
+        g.setWeight(v, w, 5L);
+
+        assertTrue(g.removeArc(u, v));
+        assertFalse(g.removeArc(u, v));
+        assertFalse(g.isConnected(u, v));
+        assertEquals(1, g.getEdgeAmount());
+        assertEquals(5L, g.getTotalFlow());
+        assertEquals(0L, g.getEquity(u));
+        assertEquals(0, g.getNumberOfBorrowers(u));
+        assertEquals(0, g.getNumberOfLenders(v));
+        assertEquals(1, g.getNumberOfBorrowers(v));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetWeightThrowsOnMissingArc() {
+        g.getWeight(u, v);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetWeightThrowsOnNegativeWeight() {
+        g.setWeight(u, v, -1L);
+    }
+
+    @Test
+    public void testFromArcs() {
+        String[] names = { "A", "B", "C" };
+        int[] lenders = { 0, 1, 0, 2 };
+        int[] borrowers = { 1, 2, 1, 0 };
+        long[] weights = { 4L, 5L, 3L, 2L };
+
+        CompactGraph graph =
+                CompactGraph.fromArcs(names, lenders, borrowers, weights, 4);
+
+        assertEquals(3, graph.size());
+        assertEquals(1, graph.getNodeId("B"));
+        assertEquals(3, graph.getEdgeAmount());
+        assertEquals(14L, graph.getTotalFlow());
+        assertEquals(7L, graph.getWeight(0, 1));
+        assertEquals(5L, graph.getEquity(0));
+        assertEquals(2, graph.getNumberOfLenders(0) +
+                        graph.getNumberOfLenders(2));
+
+        g.setWeight(u, v, 7L);
+        g.setWeight(v, w, 5L);
+        g.setWeight(w, u, 2L);
+
+        assertTrue(g.isEquivalentTo(graph));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromArcsThrowsOnDuplicateName() {
+        CompactGraph.fromArcs(new String[]{ "A", "A" },
+                              new int[0],
+                              new int[0],
+                              new long[0],
+                              0);
+    }
+
+    @Test
+    public void testSlotIteration() {
+        g.setWeight(u, v, 1L);
+        g.setWeight(u, w, 2L);
+        g.removeArc(u, v);
+
+        int count = 0;
+        long sum = 0L;
+
+        for (int slot = 0; slot < g.getBorrowerSlotAmount(u); ++slot) {
+            if (g.getBorrowerAt(u, slot) >= 0) {
+                count++;
+                sum += g.getWeightAt(u, slot);
+            }
+        }
+
+        assertEquals(1, count);
+        assertEquals(2L, sum);
+        assertEquals(0, g.getLenderSlotAmount(u));
+    }
+
+    @Test
+    public void testConversion() {
+        Random random = new Random(13L);
+        Graph graph = new Graph();
+
+        for (int i = 0; i < 30; ++i) {
+            graph.add(new Node("" + i));
+        }
+
+        for (int i = 0; i < 30; ++i) {
+            for (int j = 0; j < 30; ++j) {
+                if (i != j && random.nextFloat() < 0.4f) {
+                    graph.get(i).connectToBorrower(graph.get(j));
+                    graph.get(i).setWeightTo(graph.get(j),
+                                             random.nextInt(50) + 1);
+                }
+            }
+        }
+
+        CompactGraph compact = CompactGraph.fromGraph(graph);
+
+        assertEquals(graph.size(), compact.size());
+        assertEquals(graph.getEdgeAmount(), compact.getEdgeAmount());
+        assertEquals(graph.getTotalFlow(), compact.getTotalFlow());
+
+        for (int i = 0; i < 30; ++i) {
+            assertEquals(graph.get(i).getEquity(), compact.getEquity(i));
+        }
+
+        Graph back = compact.toGraph();
+
+        assertTrue(graph.isEquivalentTo(back));
+        assertEquals(graph.getEdgeAmount(), back.getEdgeAmount());
+        assertEquals(graph.getTotalFlow(), back.getTotalFlow());
+
+        CompactGraph copy = new CompactGraph(compact);
+
+        assertTrue(compact.isEquivalentTo(copy));
+        assertEquals(compact.getEdgeAmount(), copy.getEdgeAmount());
+        assertFalse(compact.isEquivalentTo(compact.copyWithoutArcs()));
+    }
+
+    @Test
+    public void testManyInsertionsAndRemovals() {
+        CompactGraph graph = new CompactGraph();
+        int n = 200;
+
+        for (int i = 0; i < n; ++i) {
+            graph.addNode("" + i);
+        }
+
+        for (int round = 0; round < 3; ++round) {
+            for (int i = 1; i < n; ++i) {
+                graph.setWeight(0, i, i);
+            }
+
+            assertEquals(n - 1, graph.getNumberOfBorrowers(0));
+
+            for (int i = 1; i < n; i += 2) {
+                graph.removeArc(0, i);
+            }
+
+            for (int i = 2; i < n; i += 2) {
+                assertEquals(i, graph.getWeight(0, i));
+                assertEquals(1, graph.getNumberOfLenders(i));
+            }
+
+            for (int i = 2; i < n; i += 2) {
+                graph.removeArc(0, i);
+            }
+
+            assertEquals(0, graph.getEdgeAmount());
+            assertEquals(0L, graph.getTotalFlow());
+            assertEquals(0L, graph.getEquity(0));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.coderodde.loan.model;
+
+import net.coderodde.loan.model.support.LinearSimplifier;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests <code>net.coderodde.loan.model.EquityLedger</code>.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class EquityLedgerTest {
+
+    @Test
+    public void testAddLoan() {
+        EquityLedger ledger = new EquityLedger(1);
+
+        ledger.addLoan("A", "B", 3L);
+        ledger.addLoan("B", "C", 2L);
+        ledger.addLoan("C", "A", 1L);
+
+        assertEquals(3, ledger.size());
+        assertEquals(3L, ledger.getLoanAmount());
+        assertEquals(2L, ledger.getEquity(ledger.getNodeId("A")));
+        assertEquals(-1L, ledger.getEquity(ledger.getNodeId("B")));
+        assertEquals(-1L, ledger.getEquity(ledger.getNodeId("C")));
+        assertEquals(-1, ledger.getNodeId("D"));
+
+        int a = ledger.register("A");
+        int d = ledger.register("D");
+
+        ledger.addLoan(d, a, 2L);
+
+        assertEquals(0L, ledger.getEquity(a));
+        assertEquals(2L, ledger.getEquity(d));
+    }
+
+    @Test
+    public void testSnapshot() {
+        EquityLedger ledger = new EquityLedger();
+
+        ledger.addLoan("A", "B", 3L);
+        ledger.addLoan("B", "C", 2L);
+        ledger.addLoan("C", "A", 1L);
+
+        EquityVector snapshot = ledger.snapshot();
+        CompactGraph result = new LinearSimplifier().simplify(snapshot);
+
+        assertTrue(snapshot.isEquivalentTo(result));
+        assertEquals(2, result.getEdgeAmount());
+
+        ledger.addLoan("B", "A", 2L);
+
+        assertEquals(2L, snapshot.getEquity(0));
+        assertEquals(0L, ledger.snapshot().getEquity(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnNonPositiveAmount() {
+        new EquityLedger().addLoan("A", "B", 0L);
+    }
+}
@@ -0,0 +1,66 @@
+package net.coderodde.loan.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests <code>net.coderodde.loan.model.EquityVector</code>.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class EquityVectorTest {
+
+    @Test
+    public void testOfGraph() {
+        Graph g = new Graph();
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+
+        g.add(a);
+        g.add(b);
+        g.add(c);
+
+        a.connectToBorrower(b);
+        b.connectToBorrower(c);
+        a.setWeightTo(b, 5L);
+        b.setWeightTo(c, 2L);
+
+        EquityVector v = EquityVector.of(g);
+
+        assertEquals(3, v.size());
+        assertEquals("B", v.getName(1));
+        assertEquals(5L, v.getEquity(0));
+        assertEquals(-3L, v.getEquity(1));
+        assertEquals(-2L, v.getEquity(2));
+        assertTrue(v.isEquivalentTo(CompactGraph.fromGraph(g)));
+    }
+
+    @Test
+    public void testToCompactGraph() {
+        EquityVector v = new EquityVector(
+                new String[]{ "A", "B", "C", "D", "E" },
+                new long[]{ -4L, 3L, 0L, -1L, 2L });
+
+        CompactGraph g = v.toCompactGraph();
+
+        assertTrue(v.isEquivalentTo(g));
+        assertEquals(3, g.getEdgeAmount());
+        assertEquals(5L, g.getTotalFlow());
+        assertEquals(3L, g.getWeight(1, 0));
+        assertEquals(1L, g.getWeight(4, 0));
+        assertEquals(1L, g.getWeight(4, 3));
+        assertEquals(0, v.createEmptyGraph().getEdgeAmount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnNonZeroSum() {
+        new EquityVector(new String[]{ "A", "B" }, new long[]{ 1L, 2L });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnDuplicateNames() {
+        new EquityVector(new String[]{ "A", "A" }, new long[]{ 1L, -1L });
+    }
+}
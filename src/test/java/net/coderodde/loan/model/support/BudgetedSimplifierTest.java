@@ -0,0 +1,143 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BudgetedSimplifierTest {
+
+    private static BudgetedSimplifier[] createSimplifiers(SearchBudget budget) {
+        return new BudgetedSimplifier[]{
+            new ExactCombinatorialSimplifier(budget),
+            new FasterExactCombinatorialSimplifier(budget),
+            new ParallelExactCombinatorialSimplifier(budget),
+            new DynamicProgrammingSimplifier(budget),
+            new PartitionalSimplifier(budget),
+            new PermutationalSimplifier(budget),
+        };
+    }
+
+    @Test
+    public void exhaustedBudgetYieldsValidResult() {
+        Random random = new Random(7L);
+        BudgetedSimplifier[] simplifiers =
+                createSimplifiers(SearchBudget.ofIterations(3L));
+
+        for (int iteration = 0; iteration < 10; ++iteration) {
+            EquityVector equities = EquityVector.of(
+                    EquitySimplifierTest.createGraph(10, 0.3f, 9L, random));
+            int linearEdges =
+                    new LinearSimplifier().simplify(equities).getEdgeAmount();
+
+            for (BudgetedSimplifier simplifier : simplifiers) {
+                CompactGraph result = simplifier.simplify(equities);
+
+                assertTrue(equities.isEquivalentTo(result));
+                assertTrue(result.getEdgeAmount() <= linearEdges);
+            }
+        }
+    }
+
+    @Test
+    public void reportsOptimality() {
+        EquityVector equities = new EquityVector(
+                new String[]{ "A", "B", "C", "D", "E", "F" },
+                new long[]{ 1L, 2L, 3L, 9L, -5L, -10L });
+
+        for (BudgetedSimplifier simplifier :
+                createSimplifiers(SearchBudget.UNLIMITED)) {
+            assertEquals(4, simplifier.simplify(equities).getEdgeAmount());
+            assertTrue(simplifier.isLastResultOptimal());
+        }
+
+        for (BudgetedSimplifier simplifier :
+                createSimplifiers(SearchBudget.ofIterations(1L))) {
+            assertTrue(equities.isEquivalentTo(simplifier.simplify(equities)));
+            assertFalse(simplifier.isLastResultOptimal());
+        }
+    }
+
+    @Test
+    public void chargesIndexBuildToBudget() {
+        EquityVector equities = EquitySimplifierTest.createHardEquities(20,
+                                                                        20);
+        BudgetedSimplifier[] simplifiers = {
+            new ExactCombinatorialSimplifier(SearchBudget.ofMillis(200L)),
+            new FasterExactCombinatorialSimplifier(SearchBudget.ofMillis(200L))
+        };
+
+        for (BudgetedSimplifier simplifier : simplifiers) {
+            long startTime = System.currentTimeMillis();
+            CompactGraph result = simplifier.simplify(equities);
+            long duration = System.currentTimeMillis() - startTime;
+
+            assertTrue("Took " + duration + " ms.", duration < 400L);
+            assertTrue(equities.isEquivalentTo(result));
+            assertFalse(simplifier.isLastResultOptimal());
+        }
+
+        SearchBudget budget = SearchBudget.ofIterations(1000L);
+
+        for (BudgetedSimplifier simplifier : createSimplifiers(budget)) {
+            CompactGraph result = simplifier.simplify(equities);
+
+            assertTrue(equities.isEquivalentTo(result));
+            assertEquals(equities.size() - 1, result.getEdgeAmount());
+            assertFalse(simplifier.isLastResultOptimal());
+        }
+    }
+
+    @Test
+    public void reportsOptimalityPerThread() throws Exception {
+        EquityVector hardEquities =
+                EquitySimplifierTest.createHardEquities(10, 10);
+        EquityVector easyEquities =
+                EquitySimplifierTest.createHardEquities(2, 2);
+        BudgetedSimplifier simplifier =
+                new FasterExactCombinatorialSimplifier(
+                        SearchBudget.ofIterations(100L));
+        CountDownLatch hardDone = new CountDownLatch(1);
+        boolean[] easyOptimal = new boolean[1];
+
+        // The easy search completes between the hard one and its query:
+        Thread thread = new Thread(() -> {
+            try {
+                hardDone.await();
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            simplifier.simplify(easyEquities);
+            easyOptimal[0] = simplifier.isLastResultOptimal();
+        });
+
+        thread.start();
+        simplifier.simplify(hardEquities);
+        hardDone.countDown();
+        thread.join();
+
+        assertTrue(easyOptimal[0]);
+        assertFalse(simplifier.isLastResultOptimal());
+    }
+
+    @Test
+    public void reportsSkippedSearchNotOptimal() {
+        // Too many nodes for the group masks:
+        EquityVector equities = EquitySimplifierTest.createHardEquities(60, 5);
+        BudgetedSimplifier[] simplifiers = {
+            new ExactCombinatorialSimplifier(),
+            new FasterExactCombinatorialSimplifier()
+        };
+
+        for (BudgetedSimplifier simplifier : simplifiers) {
+            CompactGraph result = simplifier.simplify(equities);
+
+            assertTrue(equities.isEquivalentTo(result));
+            assertEquals(equities.size() - 1, result.getEdgeAmount());
+            assertFalse(simplifier.isLastResultOptimal());
+        }
+    }
+}
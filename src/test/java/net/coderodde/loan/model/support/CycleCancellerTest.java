@@ -0,0 +1,113 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.loan.model.CompactGraph;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CycleCancellerTest {
+
+    @Test
+    public void keepsArcsBetweenComponents() {
+        CompactGraph graph = createGraph(5);
+        graph.setWeight(0, 1, 3L);
+        graph.setWeight(1, 0, 1L);
+        graph.setWeight(1, 2, 4L);
+        graph.setWeight(2, 3, 2L);
+        graph.setWeight(3, 4, 5L);
+        graph.setWeight(4, 3, 5L);
+
+        new CycleCanceller(ForkJoinPool.commonPool()).cancelCycles(graph);
+
+        assertEquals(3, graph.getEdgeAmount());
+        assertEquals(2L, graph.getWeight(0, 1));
+        assertEquals(4L, graph.getWeight(1, 2));
+        assertEquals(2L, graph.getWeight(2, 3));
+        assertFalse(graph.isConnected(3, 4));
+        assertFalse(graph.isConnected(4, 3));
+    }
+
+    @Test
+    public void removesSelfArcs() {
+        CompactGraph graph = createGraph(3);
+        graph.setWeight(0, 0, 2L);
+        graph.setWeight(0, 1, 1L);
+        graph.setWeight(1, 2, 3L);
+        graph.setWeight(2, 1, 1L);
+        graph.setWeight(2, 2, 4L);
+
+        int cycles = new CycleCanceller(ForkJoinPool.commonPool())
+                .cancelCycles(graph);
+
+        assertEquals(3, cycles);
+        assertEquals(2, graph.getEdgeAmount());
+        assertEquals(1L, graph.getWeight(0, 1));
+        assertEquals(2L, graph.getWeight(1, 2));
+    }
+
+    @Test
+    public void cancelsAllCyclesPreservingEquities() {
+        Random random = new Random(12L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int iteration = 0; iteration < 20; ++iteration) {
+                CompactGraph graph = createClusteredGraph(20, 15, random);
+                CompactGraph original = new CompactGraph(graph);
+
+                new CycleCanceller(pool).cancelCycles(graph);
+
+                assertNull(new IterativeCycleFinder(graph).findCycle());
+
+                for (int node = 0; node < graph.size(); ++node) {
+                    assertEquals(original.getEquity(node),
+                                 graph.getEquity(node));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates a graph of dense clusters, linked by arcs from lower to higher
+     * clusters only, so that each cluster is a component of its own.
+     */
+    private static CompactGraph createClusteredGraph(int clusterAmount,
+                                                     int clusterSize,
+                                                     Random random) {
+        CompactGraph graph = createGraph(clusterAmount * clusterSize);
+
+        for (int cluster = 0; cluster < clusterAmount; ++cluster) {
+            int first = cluster * clusterSize;
+
+            for (int i = 0; i < 3 * clusterSize; ++i) {
+                int lender = first + random.nextInt(clusterSize);
+                int borrower = first + random.nextInt(clusterSize);
+
+                if (lender != borrower) {
+                    graph.addWeight(lender, borrower, random.nextInt(9) + 1);
+                }
+            }
+
+            if (cluster > 0) {
+                graph.addWeight(first - 1 - random.nextInt(clusterSize),
+                                first + random.nextInt(clusterSize),
+                                random.nextInt(9) + 1);
+            }
+        }
+
+        return graph;
+    }
+
+    private static CompactGraph createGraph(int size) {
+        CompactGraph graph = new CompactGraph(size);
+
+        for (int i = 0; i < size; ++i) {
+            graph.addNode("" + i);
+        }
+
+        return graph;
+    }
+}
@@ -1,5 +1,7 @@
 package net.coderodde.loan.model.support;
 
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
 import net.coderodde.loan.model.Graph;
 import net.coderodde.loan.model.Node;
 import org.junit.Test;
@@ -71,4 +73,69 @@ public class CyclePurgeBypassSimplifierTest {
         assertEquals(0, result.getEdgeAmount());
         assertEquals(0L, result.getTotalFlow());
     }
+
+    @Test
+    public void onLargeRandomGraph() {
+        Random random = new Random(9L);
+        int n = 10_000;
+        CompactGraph g = new CompactGraph(n);
+
+        for (int i = 0; i < n; ++i) {
+            g.addNode("" + i);
+        }
+
+        for (int i = 0; i < 5 * n; ++i) {
+            int lender = random.nextInt(n);
+            int borrower = random.nextInt(n);
+
+            if (lender != borrower) {
+                g.addWeight(lender, borrower, random.nextInt(100) + 1);
+            }
+        }
+
+        CompactGraph result = new CyclePurgeBypassSimplifier().simplify(g);
+
+        assertTrue(g.isEquivalentTo(result));
+        assertTrue(result.getTotalFlow() < g.getTotalFlow());
+        assertNull(new IterativeCycleFinder(result).findCycle());
+
+        for (int node = 0; node < n; ++node) {
+            assertFalse(result.getNumberOfLenders(node) > 0 &&
+                        result.getNumberOfBorrowers(node) > 0);
+        }
+    }
+
+    @Test
+    public void bypassesLongChain() {
+        int n = 100_000;
+        CompactGraph g = new CompactGraph(n);
+
+        for (int i = 0; i < n; ++i) {
+            g.addNode("" + i);
+        }
+
+        for (int i = 0; i < n - 1; ++i) {
+            g.setWeight(i, i + 1, 5L);
+        }
+
+        CompactGraph result = new CyclePurgeBypassSimplifier().simplify(g);
+
+        assertEquals(1, result.getEdgeAmount());
+        assertEquals(5L, result.getWeight(0, n - 1));
+    }
+
+    @Test
+    public void removesSelfArcs() {
+        CompactGraph g = new CompactGraph(2);
+        g.addNode("A");
+        g.addNode("B");
+        g.setWeight(0, 0, 2L);
+        g.setWeight(0, 1, 1L);
+
+        CompactGraph result = new CyclePurgeBypassSimplifier().simplify(g);
+
+        assertEquals(1, result.getEdgeAmount());
+        assertEquals(1L, result.getWeight(0, 1));
+        assertTrue(g.isEquivalentTo(result));
+    }
 }
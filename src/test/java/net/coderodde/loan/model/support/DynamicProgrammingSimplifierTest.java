@@ -0,0 +1,191 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DynamicProgrammingSimplifierTest {
+
+    @Test
+    public void agreesWithFasterExactSimplifier() {
+        Random random = new Random(4L);
+
+        for (int iteration = 0; iteration < 10; ++iteration) {
+            EquityVector equities = EquityVector.of(
+                    EquitySimplifierTest.createGraph(14, 0.2f, 6L, random));
+
+            CompactGraph expected =
+                    new FasterExactCombinatorialSimplifier().simplify(equities);
+            CompactGraph actual =
+                    new DynamicProgrammingSimplifier().simplify(equities);
+
+            assertTrue(equities.isEquivalentTo(actual));
+            assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+        }
+    }
+
+    @Test
+    public void agreesWithPartitionalSimplifierOnLargeInput() {
+        Random random = new Random(8L);
+
+        for (int iteration = 0; iteration < 2; ++iteration) {
+            EquityVector equities = createEquitiesWithoutPairs(25, random);
+
+            CompactGraph expected =
+                    new PartitionalSimplifier().simplify(equities);
+            DynamicProgrammingSimplifier simplifier =
+                    new DynamicProgrammingSimplifier();
+            CompactGraph actual = simplifier.simplify(equities);
+
+            assertTrue(simplifier.isLastResultOptimal());
+            assertTrue(equities.isEquivalentTo(actual));
+            assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+        }
+    }
+
+    @Test
+    public void findsAllGroups() {
+        // Four disjoint groups of three nodes each and no opposite pairs:
+        long[] equities = { 3L, 4L, -7L, 5L, 6L, -11L,
+                            -8L, -9L, 17L, -10L, -12L, 22L };
+        String[] names = new String[equities.length];
+
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = "" + i;
+        }
+
+        CompactGraph graph = new DynamicProgrammingSimplifier()
+                .simplify(new EquityVector(names, equities));
+
+        assertEquals(8, graph.getEdgeAmount());
+    }
+
+    @Test
+    public void searchesSmallestNodesIfTableExceedsBound() {
+        long[] equities = { 1L, 2L, 3L, 9L, -5L, -10L };
+        EquityVector equityVector =
+                new EquityVector(new String[]{ "A", "B", "C", "D", "E", "F" },
+                                 equities);
+
+        // The table for {1, 2, 3, -5} takes 8 bytes and has {2, 3, -5}:
+        DynamicProgrammingSimplifier boundedSimplifier =
+                new DynamicProgrammingSimplifier(8L);
+        DynamicProgrammingSimplifier tinySimplifier =
+                new DynamicProgrammingSimplifier(1L);
+        DynamicProgrammingSimplifier unboundedSimplifier =
+                new DynamicProgrammingSimplifier(32L);
+        CompactGraph bounded = boundedSimplifier.simplify(equityVector);
+        CompactGraph tiny = tinySimplifier.simplify(equityVector);
+        CompactGraph unbounded = unboundedSimplifier.simplify(equityVector);
+
+        assertEquals(32L, DynamicProgrammingSimplifier.getTableBytes(6));
+        assertEquals(4, boundedSimplifier.getTableNodeAmount(6));
+        assertTrue(equityVector.isEquivalentTo(bounded));
+        assertTrue(equityVector.isEquivalentTo(tiny));
+        assertTrue(equityVector.isEquivalentTo(unbounded));
+        assertEquals(4, bounded.getEdgeAmount());
+        assertEquals(5, tiny.getEdgeAmount());
+        assertEquals(4, unbounded.getEdgeAmount());
+        assertFalse(boundedSimplifier.isLastResultOptimal());
+        assertFalse(tinySimplifier.isLastResultOptimal());
+        assertTrue(unboundedSimplifier.isLastResultOptimal());
+    }
+
+    @Test
+    public void searchesSmallestNodesAboveMaximumSize() {
+        // Four groups {1, 2, -3} among 24 large equities:
+        Random random = new Random(8L);
+        List<Long> equityList = new ArrayList<Long>();
+        long sum = 0L;
+
+        for (int i = 0; i < 4; ++i) {
+            equityList.add(1L);
+            equityList.add(2L);
+            equityList.add(-3L);
+        }
+
+        for (int i = 0; i < 23; ++i) {
+            long equity = random.nextInt(1_000_000) + 100L;
+            equity = i % 2 == 0 ? equity : -equity;
+            equityList.add(equity);
+            sum += equity;
+        }
+
+        equityList.add(-sum);
+        Collections.shuffle(equityList, random);
+
+        String[] names = new String[equityList.size()];
+        long[] equities = new long[names.length];
+
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = "" + i;
+            equities[i] = equityList.get(i);
+        }
+
+        EquityVector equityVector = new EquityVector(names, equities);
+        DynamicProgrammingSimplifier simplifier =
+                new DynamicProgrammingSimplifier(
+                        DynamicProgrammingSimplifier.getTableBytes(12));
+        CompactGraph result = simplifier.simplify(equityVector);
+
+        // The table holds the 12 small equities; the large ones are linked
+        // as a single group:
+        assertTrue(equityVector.isEquivalentTo(result));
+        assertEquals(names.length - 5, result.getEdgeAmount());
+        assertFalse(simplifier.isLastResultOptimal());
+    }
+
+    @Test
+    public void fitsTableToIterationBudget() {
+        EquityVector equities = EquitySimplifierTest.createHardEquities(20,
+                                                                        20);
+        DynamicProgrammingSimplifier simplifier =
+                new DynamicProgrammingSimplifier(
+                        SearchBudget.ofIterations(1000L));
+        CompactGraph result = simplifier.simplify(equities);
+
+        assertEquals(9, simplifier.getTableNodeAmount(equities.size()));
+        assertTrue(equities.isEquivalentTo(result));
+        assertEquals(equities.size() - 1, result.getEdgeAmount());
+        assertFalse(simplifier.isLastResultOptimal());
+    }
+
+    /**
+     * Creates <code>n</code> equities, so that no two of them cancel each
+     * other and all the nodes are left for the table.
+     */
+    private static EquityVector createEquitiesWithoutPairs(int n,
+                                                           Random random) {
+        String[] names = new String[n];
+        long[] equities = new long[n];
+
+        for (;;) {
+            long sum = 0L;
+
+            for (int i = 0; i < n - 1; ++i) {
+                // Positive equities are odd, negative ones even:
+                equities[i] = i % 2 == 0 ?
+                              2 * random.nextInt(30) + 1 :
+                              -2 * random.nextInt(30) - 2;
+                sum += equities[i];
+            }
+
+            equities[n - 1] = -sum;
+
+            if (sum != 0L && Math.abs(sum) % 2 == (sum > 0L ? 0 : 1)) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < n; ++i) {
+            names[i] = "" + i;
+        }
+
+        return new EquityVector(names, equities);
+    }
+}
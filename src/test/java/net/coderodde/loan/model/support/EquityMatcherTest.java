@@ -0,0 +1,120 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.coderodde.loan.model.CompactGraph;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EquityMatcherTest {
+
+    @Test
+    public void matchesPairs() {
+        long[] equities = { 5L, 3L, 3L, -3L, -5L, -1L, -2L };
+        List<Integer> positiveNodeList = list(0, 1, 2);
+        List<Integer> negativeNodeList = list(3, 4, 5, 6);
+        CompactGraph graph = createGraph(equities.length);
+
+        EquityMatcher matcher = new EquityMatcher(positiveNodeList,
+                                                  negativeNodeList,
+                                                  equities);
+
+        assertEquals(2, matcher.matchPairs(graph));
+        matcher.removeMatched();
+
+        assertEquals(list(2), positiveNodeList);
+        assertEquals(list(5, 6), negativeNodeList);
+        assertEquals(5L, graph.getWeight(0, 4));
+        assertEquals(3L, graph.getWeight(1, 3));
+    }
+
+    @Test
+    public void matchesTriples() {
+        long[] equities = { 6L, 3L, 4L, -4L, -2L, -7L };
+        List<Integer> positiveNodeList = list(0, 1, 2);
+        List<Integer> negativeNodeList = list(3, 4, 5);
+        CompactGraph graph = createGraph(equities.length);
+
+        EquityMatcher matcher = new EquityMatcher(positiveNodeList,
+                                                  negativeNodeList,
+                                                  equities);
+
+        assertEquals(2, matcher.matchTriples(graph));
+        matcher.removeMatched();
+
+        assertTrue(positiveNodeList.isEmpty());
+        assertTrue(negativeNodeList.isEmpty());
+        assertEquals(4L, graph.getWeight(0, 3));
+        assertEquals(2L, graph.getWeight(0, 4));
+        assertEquals(3L, graph.getWeight(1, 5));
+        assertEquals(4L, graph.getWeight(2, 5));
+    }
+
+    @Test
+    public void matchesTriplesOfRepeatedEquities() {
+        int amount = 1000;
+        long[] equities = new long[3 * amount];
+        List<Integer> positiveNodeList = new ArrayList<Integer>();
+        List<Integer> negativeNodeList = new ArrayList<Integer>();
+
+        for (int i = 0; i < amount; ++i) {
+            equities[i] = 6L;
+            equities[amount + 2 * i] = -2L;
+            equities[amount + 2 * i + 1] = -4L;
+            positiveNodeList.add(i);
+            negativeNodeList.add(amount + 2 * i);
+            negativeNodeList.add(amount + 2 * i + 1);
+        }
+
+        CompactGraph graph = createGraph(equities.length);
+        EquityMatcher matcher = new EquityMatcher(positiveNodeList,
+                                                  negativeNodeList,
+                                                  equities);
+
+        assertEquals(amount, matcher.matchTriples(graph));
+        matcher.removeMatched();
+
+        assertTrue(positiveNodeList.isEmpty());
+        assertTrue(negativeNodeList.isEmpty());
+
+        for (int node = 0; node < equities.length; ++node) {
+            assertEquals(equities[node], graph.getEquity(node));
+        }
+    }
+
+    @Test
+    public void resolvesSmallGroupsPreservingEquities() {
+        long[] equities = { 7L, 4L, 3L, 9L, -4L, -5L, -2L, -3L, -9L };
+        List<Integer> positiveNodeList = list(0, 1, 2, 3);
+        List<Integer> negativeNodeList = list(4, 5, 6, 7, 8);
+        CompactGraph graph = createGraph(equities.length);
+
+        int groups = Utils.resolveSmallGroups(positiveNodeList,
+                                              negativeNodeList,
+                                              equities,
+                                              graph);
+
+        assertEquals(4, groups);
+        assertTrue(positiveNodeList.isEmpty());
+        assertTrue(negativeNodeList.isEmpty());
+
+        for (int node = 0; node < equities.length; ++node) {
+            assertEquals(equities[node], graph.getEquity(node));
+        }
+    }
+
+    private static CompactGraph createGraph(int size) {
+        CompactGraph graph = new CompactGraph(size);
+
+        for (int i = 0; i < size; ++i) {
+            graph.addNode("" + i);
+        }
+
+        return graph;
+    }
+
+    private static List<Integer> list(Integer... ids) {
+        return new ArrayList<Integer>(Arrays.asList(ids));
+    }
+}
@@ -0,0 +1,148 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.Graph;
+import net.coderodde.loan.model.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests that the equity based simplifiers produce equivalent
+ * graphs via all the entry points of <code>Algorithm</code>.
+ *
+ * @author coderodde
+ * @version 1.6
+ */
+public class EquitySimplifierTest {
+
+    private static final Algorithm[] ALGORITHMS = {
+        new LinearSimplifier(),
+        new GreedyCombinatorialSimplifier(),
+        new FastGreedyCombinatorialSimplifier(),
+        new ExactCombinatorialSimplifier(),
+        new FasterExactCombinatorialSimplifier(),
+        new PartitionalSimplifier(),
+        new ParallelExactCombinatorialSimplifier(),
+        new DynamicProgrammingSimplifier(),
+        new PermutationalSimplifier(),
+    };
+
+    @Test
+    public void allEntryPointsProduceEquivalentGraphs() {
+        Random random = new Random(1L);
+
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            Graph input = createGraph(7, 0.4f, 10L, random);
+            CompactGraph compactInput = CompactGraph.fromGraph(input);
+            EquityVector equities = EquityVector.of(input);
+
+            for (Algorithm algorithm : ALGORITHMS) {
+                Graph result = algorithm.simplify(input);
+                CompactGraph compactResult = algorithm.simplify(compactInput);
+                CompactGraph equityResult = algorithm.simplify(equities);
+
+                assertTrue(input.isEquivalentTo(result));
+                assertTrue(compactInput.isEquivalentTo(compactResult));
+                assertTrue(equities.isEquivalentTo(equityResult));
+                assertEquals(result.getEdgeAmount(),
+                             equityResult.getEdgeAmount());
+                assertTrue(result.getEdgeAmount() < input.size());
+            }
+        }
+    }
+
+    @Test
+    public void exactSimplifiersAgree() {
+        Random random = new Random(2L);
+
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            EquityVector equities =
+                    EquityVector.of(createGraph(8, 0.3f, 5L, random));
+
+            int edges1 = new ExactCombinatorialSimplifier()
+                    .simplify(equities).getEdgeAmount();
+            int edges2 = new FasterExactCombinatorialSimplifier()
+                    .simplify(equities).getEdgeAmount();
+            int edges3 = new PartitionalSimplifier()
+                    .simplify(equities).getEdgeAmount();
+            int edges4 = new ParallelExactCombinatorialSimplifier()
+                    .simplify(equities).getEdgeAmount();
+            int edges5 = new DynamicProgrammingSimplifier()
+                    .simplify(equities).getEdgeAmount();
+            int edges6 = new PermutationalSimplifier()
+                    .simplify(equities).getEdgeAmount();
+
+            assertEquals(edges1, edges2);
+            assertEquals(edges1, edges3);
+            assertEquals(edges1, edges4);
+            assertEquals(edges1, edges5);
+            assertEquals(edges1, edges6);
+        }
+    }
+
+    @Test
+    public void handlesZeroEquities() {
+        EquityVector equities = new EquityVector(new String[]{ "A", "B" },
+                                                 new long[]{ 0L, 0L });
+
+        for (Algorithm algorithm : ALGORITHMS) {
+            assertEquals(0, algorithm.simplify(equities).getEdgeAmount());
+        }
+    }
+
+    static Graph createGraph(int size,
+                             float loadFactor,
+                             long maxLoan,
+                             Random random) {
+        Graph graph = new Graph();
+
+        for (int i = 0; i < size; ++i) {
+            graph.add(new Node("" + i));
+        }
+
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                if (i != j && random.nextFloat() < loadFactor) {
+                    graph.get(i).connectToBorrower(graph.get(j));
+                    graph.get(i).setWeightTo(graph.get(j),
+                                             random.nextInt((int) maxLoan) + 1);
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Creates the equities of <code>p</code> positive and <code>q</code>
+     * negative nodes with large random absolute values, so that no proper
+     * subset sums to zero.
+     */
+    static EquityVector createHardEquities(int p, int q) {
+        Random random = new Random(p * 31 + q);
+        int n = p + q;
+        String[] names = new String[n];
+        long[] equities = new long[n];
+        long sum = 0L;
+
+        for (int i = 0; i < n - 1; ++i) {
+            long amount = i < p ?
+                          (1L << 40) :
+                          (1L << 40) / q * p;
+            amount += random.nextInt(Integer.MAX_VALUE);
+            equities[i] = i < p ? amount : -amount;
+            sum += equities[i];
+        }
+
+        equities[n - 1] = -sum;
+
+        for (int i = 0; i < n; ++i) {
+            names[i] = "Node " + i;
+        }
+
+        return new EquityVector(names, equities);
+    }
+}
@@ -0,0 +1,69 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ExactCombinatorialSimplifierTest {
+
+    @Test
+    public void linksTooManyNodesInSingleGroup() {
+        assertLinksSingleGroup(EquitySimplifierTest.createHardEquities(60, 5));
+    }
+
+    @Test
+    public void searchesLopsidedEquitiesExactly() {
+        int q = 25;
+        EquityVector equityVector = createLopsidedEquities(4, q);
+        BudgetedSimplifier[] simplifiers = {
+            new ExactCombinatorialSimplifier(),
+            new FasterExactCombinatorialSimplifier()
+        };
+
+        for (BudgetedSimplifier simplifier : simplifiers) {
+            CompactGraph result = simplifier.simplify(equityVector);
+
+            assertTrue(simplifier.isLastResultOptimal());
+            assertTrue(equityVector.isEquivalentTo(result));
+            assertEquals(q, result.getEdgeAmount());
+        }
+    }
+
+    private static void assertLinksSingleGroup(EquityVector equities) {
+        EquitySimplifier[] simplifiers = {
+            new ExactCombinatorialSimplifier(),
+            new FasterExactCombinatorialSimplifier(),
+            new ParallelExactCombinatorialSimplifier()
+        };
+
+        for (EquitySimplifier simplifier : simplifiers) {
+            CompactGraph result = simplifier.simplify(equities);
+
+            assertTrue(equities.isEquivalentTo(result));
+            assertEquals(equities.size() - 1, result.getEdgeAmount());
+        }
+    }
+
+    /**
+     * Creates the equities of <code>p</code> positive nodes, each matching
+     * the sum of every <code>p</code>th of the <code>q</code> negative nodes.
+     */
+    static EquityVector createLopsidedEquities(int p, int q) {
+        Random random = new Random(p * 31 + q);
+        String[] names = new String[p + q];
+        long[] equities = new long[p + q];
+
+        for (int i = 0; i < q; ++i) {
+            equities[p + i] = -random.nextInt(1000) - 1L;
+            equities[i % p] -= equities[p + i];
+        }
+
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = "" + i;
+        }
+
+        return new EquityVector(names, equities);
+    }
+}
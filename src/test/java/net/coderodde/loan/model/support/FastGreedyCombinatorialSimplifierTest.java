@@ -0,0 +1,130 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FastGreedyCombinatorialSimplifierTest {
+
+    @Test
+    public void splitsOffGroupsOfFourNodes() {
+        // {5, 7, -4, -8} and {1, 9, -6, -4}; no pairs or triples:
+        EquityVector equities = createEquityVector(
+                5L, 7L, -4L, -8L, 1L, 9L, -6L, -4L);
+
+        CompactGraph result =
+                new FastGreedyCombinatorialSimplifier().simplify(equities);
+
+        assertTrue(equities.isEquivalentTo(result));
+        assertEquals(6, result.getEdgeAmount());
+    }
+
+    @Test
+    public void agreesWithGreedyOnSmallGroups() {
+        Random random = new Random(16L);
+
+        for (int iteration = 0; iteration < 30; ++iteration) {
+            EquityVector equities = createRandomEquityVector(12, 9L, random);
+
+            CompactGraph result =
+                    new FastGreedyCombinatorialSimplifier(6)
+                            .simplify(equities);
+
+            assertTrue(equities.isEquivalentTo(result));
+            assertTrue(result.getEdgeAmount()
+                    <= new LinearSimplifier().simplify(equities)
+                                             .getEdgeAmount());
+        }
+    }
+
+    @Test
+    public void handlesThousandsOfNodes() {
+        EquityVector equities =
+                createRandomEquityVector(3000, 1000L, new Random(17L));
+
+        CompactGraph result =
+                new FastGreedyCombinatorialSimplifier().simplify(equities);
+
+        assertTrue(equities.isEquivalentTo(result));
+        assertTrue(result.getEdgeAmount()
+                < new LinearSimplifier().simplify(equities).getEdgeAmount());
+    }
+
+    @Test
+    public void enumeratesQuadraticallyManySubsets() {
+        // Large equities leave next to no small groups to split off:
+        Random random = new Random(18L);
+        int n = 2000;
+        long[] equities = new long[2 * n];
+        long sum = 0L;
+
+        for (int i = 0; i < equities.length - 1; ++i) {
+            long equity = random.nextInt(1_000_000_000) + 1;
+            equities[i] = i < n ? equity : -equity;
+            sum += equities[i];
+        }
+
+        equities[equities.length - 1] = -sum;
+
+        FastGreedyCombinatorialSimplifier simplifier =
+                new FastGreedyCombinatorialSimplifier();
+        long[] combinations = new long[1];
+
+        simplifier.setListener(new SimplificationListener() {
+            @Override
+            public void onCount(Algorithm algorithm,
+                                Counter counter,
+                                long amount) {
+                if (counter == Counter.COMBINATIONS_ENUMERATED) {
+                    combinations[0] += amount;
+                }
+            }
+        });
+
+        EquityVector equityVector = createEquityVector(equities);
+        CompactGraph result = simplifier.simplify(equityVector);
+
+        assertTrue(equityVector.isEquivalentTo(result));
+        assertTrue(combinations[0] > 0L);
+        assertTrue(combinations[0] < 4L * n * n);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsOnTooLargeGroupSize() {
+        new FastGreedyCombinatorialSimplifier(7);
+    }
+
+    private static EquityVector createRandomEquityVector(int size,
+                                                         long maximumEquity,
+                                                         Random random) {
+        long[] equities = new long[size];
+        long sum = 0L;
+
+        for (int i = 0; i < size - 1; ++i) {
+            equities[i] = random.nextInt((int) maximumEquity) + 1;
+
+            if (random.nextBoolean()) {
+                equities[i] = -equities[i];
+            }
+
+            sum += equities[i];
+        }
+
+        equities[size - 1] = -sum;
+        return createEquityVector(equities);
+    }
+
+    private static EquityVector createEquityVector(long... equities) {
+        String[] names = new String[equities.length];
+
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = "" + i;
+        }
+
+        return new EquityVector(names, equities);
+    }
+}
@@ -0,0 +1,58 @@
+package net.coderodde.loan.model.support;
+
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GreedyCombinatorialSimplifierTest {
+
+    @Test
+    public void resolvesTriplesBeforeSearch() {
+        // The search alone would link 1 and 3 to the last -4, after linking
+        // 14 to the first two; the triple {1, 3, -4} is now resolved first:
+        EquityVector equities = createEquityVector(
+                1L, 3L, -4L, -4L, -4L, -6L, 14L);
+
+        CompactGraph result =
+                new GreedyCombinatorialSimplifier().simplify(equities);
+
+        assertTrue(equities.isEquivalentTo(result));
+        assertEquals(5, result.getEdgeAmount());
+        assertEquals(1L, result.getWeight(0, 2));
+        assertEquals(3L, result.getWeight(1, 2));
+        assertEquals(4L, result.getWeight(6, 3));
+        assertEquals(4L, result.getWeight(6, 4));
+        assertEquals(6L, result.getWeight(6, 5));
+    }
+
+    @Test
+    public void breaksTiesInLexicographicOrder() {
+        // The three -3 nodes tie; in lexicographic order, 11 is linked to
+        // the first two of them and the last one is left to 4 and -5:
+        EquityVector equities = createEquityVector(
+                -3L, -5L, -3L, -3L, 4L, -5L, 4L, 11L);
+
+        CompactGraph result =
+                new GreedyCombinatorialSimplifier().simplify(equities);
+
+        assertTrue(equities.isEquivalentTo(result));
+        assertEquals(6, result.getEdgeAmount());
+        assertEquals(3L, result.getWeight(7, 0));
+        assertEquals(5L, result.getWeight(7, 1));
+        assertEquals(3L, result.getWeight(7, 2));
+        assertEquals(3L, result.getWeight(4, 3));
+        assertEquals(1L, result.getWeight(4, 5));
+        assertEquals(4L, result.getWeight(6, 5));
+    }
+
+    static EquityVector createEquityVector(long... equities) {
+        String[] names = new String[equities.length];
+
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = "" + i;
+        }
+
+        return new EquityVector(names, equities);
+    }
+}
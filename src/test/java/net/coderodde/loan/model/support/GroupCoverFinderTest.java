@@ -0,0 +1,58 @@
+package net.coderodde.loan.model.support;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GroupCoverFinderTest {
+
+    @Test
+    public void findsLargestDisjointCover() {
+        // Positive nodes are the bits 0, 1 and 2; negative are 3, 4 and 5.
+        LongList groups = new LongList();
+        groups.add(0b111111L);
+        groups.add(0b001001L);
+        groups.add(0b110110L);
+        groups.add(0b010010L);
+        groups.add(0b100100L);
+        groups.add(0b011011L);
+
+        long[] cover = new GroupCoverFinder(groups, 0b111L, 6).find();
+
+        assertEquals(3, cover.length);
+        assertEquals(0b001001L, cover[0]);
+        assertEquals(0b010010L, cover[1]);
+        assertEquals(0b100100L, cover[2]);
+    }
+
+    @Test
+    public void completesPartialCoverWithUncoveredNodes() {
+        LongList groups = new LongList();
+        groups.add(0b0101L);
+
+        long[] cover = new GroupCoverFinder(groups, 0b11L, 4).find();
+
+        assertEquals(2, cover.length);
+        assertEquals(0b0101L, cover[0]);
+        assertEquals(0b1010L, cover[1]);
+    }
+
+    @Test
+    public void returnsGreedyCoverIfBudgetRunsOut() {
+        LongList groups = new LongList();
+        groups.add(0b111111L);
+        groups.add(0b011011L);
+        groups.add(0b001001L);
+        groups.add(0b010010L);
+
+        long[] cover = new GroupCoverFinder(groups,
+                                            0b111L,
+                                            6,
+                                            SearchBudget.ofIterations(1L)
+                                                        .start()).find();
+
+        assertEquals(3, cover.length);
+        assertEquals(0b001001L, cover[0]);
+        assertEquals(0b010010L, cover[1]);
+        assertEquals(0b100100L, cover[2]);
+    }
+}
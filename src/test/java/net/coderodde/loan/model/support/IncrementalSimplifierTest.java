@@ -0,0 +1,187 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityLedger;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IncrementalSimplifierTest {
+
+    @Test
+    public void repairsOnlyAffectedComponents() {
+        EquityLedger ledger = new EquityLedger();
+
+        ledger.addLoan("A", "B", 5L);
+        ledger.addLoan("C", "D", 3L);
+        ledger.addLoan("E", "F", 7L);
+
+        CompactGraph graph =
+                new GreedyCombinatorialSimplifier().simplify(ledger.snapshot());
+
+        assertEquals(3, graph.getEdgeAmount());
+
+        EquityLedger batch = new EquityLedger();
+        batch.addLoan("B", "A", 2L);
+        batch.addLoan("G", "A", 1L);
+
+        ArcDiff diff = new IncrementalSimplifier().update(graph,
+                                                          batch.snapshot());
+
+        ledger.addLoan("B", "A", 2L);
+        ledger.addLoan("G", "A", 1L);
+
+        assertTrue(ledger.snapshot().isEquivalentTo(graph));
+        assertEquals(1, diff.getReweightedAmount());
+        assertEquals(1, diff.getAddedAmount());
+        assertEquals(0, diff.getRemovedAmount());
+        assertEquals(3L, graph.getWeight(graph.getNodeId("C"),
+                                         graph.getNodeId("D")));
+        assertEquals(7L, graph.getWeight(graph.getNodeId("E"),
+                                         graph.getNodeId("F")));
+    }
+
+    @Test
+    public void splitsMergedGroupsBack() {
+        EquityLedger ledger = new EquityLedger();
+
+        ledger.addLoan("A", "B", 5L);
+        ledger.addLoan("C", "D", 3L);
+        ledger.addLoan("E", "F", 7L);
+
+        IncrementalSimplifier simplifier = new IncrementalSimplifier();
+        CompactGraph graph =
+                new GreedyCombinatorialSimplifier().simplify(ledger.snapshot());
+
+        EquityLedger batch = new EquityLedger();
+        batch.addLoan("B", "C", 2L);
+        simplifier.update(graph, batch.snapshot());
+        ledger.addLoan("B", "C", 2L);
+
+        assertTrue(ledger.snapshot().isEquivalentTo(graph));
+
+        batch = new EquityLedger();
+        batch.addLoan("C", "B", 2L);
+        simplifier.update(graph, batch.snapshot());
+        ledger.addLoan("C", "B", 2L);
+
+        assertTrue(ledger.snapshot().isEquivalentTo(graph));
+        assertEquals(3, graph.getEdgeAmount());
+
+        batch = new EquityLedger();
+        batch.addLoan("A", "B", 1L);
+        ArcDiff diff = simplifier.update(graph, batch.snapshot());
+        ledger.addLoan("A", "B", 1L);
+
+        assertTrue(ledger.snapshot().isEquivalentTo(graph));
+        assertEquals(1, diff.size());
+        assertEquals(graph.getNodeId("A"), diff.getLender(0));
+        assertEquals(graph.getNodeId("B"), diff.getBorrower(0));
+        assertEquals(5L, diff.getOldWeight(0));
+        assertEquals(6L, diff.getNewWeight(0));
+        assertEquals(3L, graph.getWeight(graph.getNodeId("C"),
+                                         graph.getNodeId("D")));
+    }
+
+    @Test
+    public void keepsUntouchedGroupsOfRelinkedComponent() {
+        Random random = new Random(5L);
+        EquityLedger ledger = new EquityLedger();
+        IncrementalSimplifier simplifier = new IncrementalSimplifier();
+        CompactGraph graph = new CompactGraph();
+        int groupAmount = 50;
+
+        for (int group = 0; group < groupAmount; ++group) {
+            EquityLedger batch = new EquityLedger();
+            String[] names = { "L" + group, "M" + group, "N" + group };
+            long amount = 0L;
+
+            // Grow the amounts so that no node has a zero equity:
+            for (int i = 0; i < 2; ++i) {
+                amount += random.nextInt(20) + 1;
+                batch.addLoan(names[i], names[i + 1], amount);
+                ledger.addLoan(names[i], names[i + 1], amount);
+            }
+
+            simplifier.update(graph, batch.snapshot());
+        }
+
+        // Merge all the groups into one component and then settle the
+        // merging loans:
+        for (int round = 0; round < 2; ++round) {
+            EquityLedger batch = new EquityLedger();
+
+            for (int group = 1; group < groupAmount; ++group) {
+                String lender = "L" + (round == 0 ? group : group - 1);
+                String borrower = "L" + (round == 0 ? group - 1 : group);
+                batch.addLoan(lender, borrower, 1L);
+                ledger.addLoan(lender, borrower, 1L);
+            }
+
+            simplifier.update(graph, batch.snapshot());
+            assertTrue(ledger.snapshot().isEquivalentTo(graph));
+        }
+
+        assertEquals(2 * groupAmount, graph.getEdgeAmount());
+
+        EquityLedger batch = new EquityLedger();
+        batch.addLoan("L7", "N7", 4L);
+        ledger.addLoan("L7", "N7", 4L);
+        ArcDiff diff = simplifier.update(graph, batch.snapshot());
+
+        assertTrue(ledger.snapshot().isEquivalentTo(graph));
+        assertTrue(diff.size() > 0);
+
+        for (int i = 0; i < diff.size(); ++i) {
+            assertEquals("7", graph.getNodeName(diff.getLender(i))
+                                  .substring(1));
+            assertEquals("7", graph.getNodeName(diff.getBorrower(i))
+                                  .substring(1));
+        }
+    }
+
+    @Test
+    public void diffReplaysOnCopy() {
+        Random random = new Random(3L);
+        EquityLedger ledger = new EquityLedger();
+
+        for (int i = 0; i < 300; ++i) {
+            ledger.addLoan("" + random.nextInt(60),
+                           "" + random.nextInt(60),
+                           random.nextInt(20) + 1);
+        }
+
+        IncrementalSimplifier simplifier = new IncrementalSimplifier();
+        CompactGraph graph = new LinearSimplifier().simplify(ledger.snapshot());
+
+        for (int round = 0; round < 30; ++round) {
+            CompactGraph replica = new CompactGraph(graph);
+            EquityLedger batch = new EquityLedger();
+
+            for (int i = 0; i < 3; ++i) {
+                String lender = "" + random.nextInt(70);
+                String borrower = "" + random.nextInt(70);
+                long amount = random.nextInt(20) + 1;
+                batch.addLoan(lender, borrower, amount);
+                ledger.addLoan(lender, borrower, amount);
+            }
+
+            EquityVector deltas = batch.snapshot();
+            ArcDiff diff = simplifier.update(graph, deltas);
+
+            for (int i = 0; i < deltas.size(); ++i) {
+                if (deltas.getEquity(i) != 0L) {
+                    replica.addNode(deltas.getName(i));
+                }
+            }
+
+            diff.applyTo(replica);
+
+            assertTrue(ledger.snapshot().isEquivalentTo(graph));
+            assertTrue(graph.isEquivalentTo(replica));
+            assertEquals(graph.getEdgeAmount(), replica.getEdgeAmount());
+            assertTrue(graph.getEdgeAmount() < graph.size());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package net.coderodde.loan.model.support;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.SimplificationListener.Phase;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class InstrumentedSimplifierTest {
+
+    private static final class RecordingListener
+            implements SimplificationListener {
+
+        final Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+        final Map<Counter, Long> counts = new EnumMap<>(Counter.class);
+        int starts;
+        int finishes;
+        int inputArcAmount;
+        long inputFlow;
+        int outputArcAmount;
+        long outputFlow;
+
+        @Override
+        public void onStart(Algorithm algorithm,
+                            int nodeAmount,
+                            int arcAmount,
+                            long flow) {
+            ++starts;
+            inputArcAmount = arcAmount;
+            inputFlow = flow;
+        }
+
+        @Override
+        public void onPhase(Algorithm algorithm, Phase phase, long nanos) {
+            assertTrue(nanos >= 0L);
+            phases.merge(phase, nanos, Long::sum);
+        }
+
+        @Override
+        public void onCount(Algorithm algorithm,
+                            Counter counter,
+                            long amount) {
+            counts.merge(counter, amount, Long::sum);
+        }
+
+        @Override
+        public void onFinish(Algorithm algorithm,
+                             int arcAmount,
+                             long flow,
+                             long nanos) {
+            ++finishes;
+            outputArcAmount = arcAmount;
+            outputFlow = flow;
+        }
+    }
+
+    @Test
+    public void defaultsToNoOpListener() {
+        assertSame(SimplificationListener.NO_OP,
+                   new LinearSimplifier().getListener());
+        assertSame(SimplificationListener.NO_OP,
+                   new CyclePurgeBypassSimplifier().getListener());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullListener() {
+        new LinearSimplifier().setListener(null);
+    }
+
+    @Test
+    public void reportsInputAndOutput() {
+        CompactGraph input = createInput(20, 3L);
+        RecordingListener listener = new RecordingListener();
+        LinearSimplifier simplifier = new LinearSimplifier();
+        simplifier.setListener(listener);
+
+        CompactGraph result = simplifier.simplify(input);
+
+        assertEquals(1, listener.starts);
+        assertEquals(1, listener.finishes);
+        assertEquals(input.getEdgeAmount(), listener.inputArcAmount);
+        assertEquals(input.getTotalFlow(), listener.inputFlow);
+        assertEquals(result.getEdgeAmount(), listener.outputArcAmount);
+        assertEquals(result.getTotalFlow(), listener.outputFlow);
+        assertTrue(listener.phases.containsKey(Phase.SPLIT));
+        assertTrue(listener.phases.containsKey(Phase.LINK));
+
+        simplifier.simplify(EquityVector.of(input));
+
+        assertEquals(2, listener.starts);
+        assertEquals(-1, listener.inputArcAmount);
+        assertEquals(-1L, listener.inputFlow);
+    }
+
+    @Test
+    public void reportsSearchCounts() {
+        CompactGraph input = createInput(10, 4L);
+        RecordingListener listener = new RecordingListener();
+        GreedyCombinatorialSimplifier simplifier =
+                new GreedyCombinatorialSimplifier();
+        simplifier.setListener(listener);
+
+        CompactGraph result = simplifier.simplify(input);
+        int nodes = 0;
+
+        for (int id = 0; id < result.size(); ++id) {
+            if (result.getEquity(id) != 0L) {
+                ++nodes;
+            }
+        }
+
+        assertTrue(listener.phases.containsKey(Phase.SORT));
+        assertTrue(listener.phases.containsKey(Phase.SEARCH));
+        assertEquals(nodes - result.getEdgeAmount(),
+                     (long) listener.counts.get(Counter.GROUPS_FOUND));
+        assertTrue(listener.counts.get(Counter.COMBINATIONS_ENUMERATED) > 0L);
+    }
+
+    @Test
+    public void reportsSearchResolvedUpFront() {
+        // All the nodes pair up before the search:
+        EquityVector equities =
+                new EquityVector(new String[]{ "A", "B", "C", "D" },
+                                 new long[]{ 3L, -3L, 2L, -2L });
+        InstrumentedSimplifier[] simplifiers = {
+            new FasterExactCombinatorialSimplifier(),
+            new ParallelExactCombinatorialSimplifier(),
+            new DynamicProgrammingSimplifier(),
+            new PermutationalSimplifier(),
+            new FastGreedyCombinatorialSimplifier()
+        };
+
+        for (InstrumentedSimplifier simplifier : simplifiers) {
+            RecordingListener listener = new RecordingListener();
+            simplifier.setListener(listener);
+            simplifier.simplify(equities);
+
+            assertTrue(simplifier.getClass().getSimpleName(),
+                       listener.phases.containsKey(Phase.SEARCH));
+            assertEquals(2, listener.outputArcAmount);
+        }
+    }
+
+    @Test
+    public void reportsCyclesAndBypasses() {
+        CompactGraph input = new CompactGraph(3);
+        input.addNode("A");
+        input.addNode("B");
+        input.addNode("C");
+        input.setWeight(0, 1, 3L);
+        input.setWeight(1, 2, 3L);
+        input.setWeight(2, 0, 1L);
+
+        RecordingListener listener = new RecordingListener();
+        CyclePurgeBypassSimplifier simplifier =
+                new CyclePurgeBypassSimplifier();
+        simplifier.setListener(listener);
+
+        CompactGraph result = simplifier.simplify(input);
+
+        assertEquals(1L, (long) listener.counts.get(Counter.CYCLES_PURGED));
+        assertEquals(1L, (long) listener.counts.get(Counter.BYPASSES_APPLIED));
+        assertEquals(1, result.getEdgeAmount());
+        assertEquals(1, listener.outputArcAmount);
+        assertEquals(2L, listener.outputFlow);
+        assertTrue(listener.phases.containsKey(Phase.CYCLE_PURGE));
+        assertTrue(listener.phases.containsKey(Phase.BYPASS));
+    }
+
+    private static CompactGraph createInput(int size, long seed) {
+        return CompactGraph.fromGraph(
+                EquitySimplifierTest.createGraph(size,
+                                                 0.3f,
+                                                 5L,
+                                                 new Random(seed)));
+    }
+}
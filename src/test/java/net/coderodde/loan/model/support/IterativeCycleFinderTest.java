@@ -0,0 +1,97 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IterativeCycleFinderTest {
+
+    @Test
+    public void findsCycle() {
+        CompactGraph graph = createGraph(3);
+        graph.setWeight(0, 1, 3L);
+        graph.setWeight(1, 2, 2L);
+        graph.setWeight(2, 0, 1L);
+
+        int[] cycle = new IterativeCycleFinder(graph).findCycle();
+
+        assertArrayEquals(new int[]{ 0, 1, 2 }, cycle);
+    }
+
+    @Test
+    public void returnsNullOnAcyclicGraph() {
+        CompactGraph graph = createGraph(3);
+        graph.setWeight(0, 1, 3L);
+        graph.setWeight(1, 2, 2L);
+        graph.setWeight(0, 2, 1L);
+
+        assertNull(new IterativeCycleFinder(graph).findCycle());
+    }
+
+    @Test
+    public void handlesLongChains() {
+        int n = 200_000;
+        CompactGraph graph = createGraph(n);
+
+        for (int i = 0; i < n; ++i) {
+            graph.setWeight(i, (i + 1) % n, 1L);
+        }
+
+        IterativeCycleFinder finder = new IterativeCycleFinder(graph);
+        int[] cycle = finder.findCycle();
+
+        assertEquals(n, cycle.length);
+
+        graph.removeArc(n - 1, 0);
+
+        assertNull(finder.findCycle());
+    }
+
+    @Test
+    public void purgesAllCyclesWhenResumed() {
+        Random random = new Random(8L);
+
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            CompactGraph graph = createGraph(60);
+
+            for (int i = 0; i < 400; ++i) {
+                int lender = random.nextInt(60);
+                int borrower = random.nextInt(60);
+
+                if (lender != borrower) {
+                    graph.addWeight(lender, borrower, random.nextInt(9) + 1);
+                }
+            }
+
+            CompactGraph original = new CompactGraph(graph);
+            IterativeCycleFinder finder = new IterativeCycleFinder(graph);
+            int[] cycle;
+
+            while ((cycle = finder.findCycle()) != null) {
+                for (int i = 0; i < cycle.length; ++i) {
+                    int lender = cycle[i];
+                    int borrower = cycle[(i + 1) % cycle.length];
+
+                    assertTrue(graph.isConnected(lender, borrower));
+                }
+
+                // Cancel just the last arc of the cycle:
+                graph.removeArc(cycle[cycle.length - 1], cycle[0]);
+            }
+
+            assertNull(new IterativeCycleFinder(graph).findCycle());
+            assertTrue(graph.getEdgeAmount() < original.getEdgeAmount());
+        }
+    }
+
+    private static CompactGraph createGraph(int size) {
+        CompactGraph graph = new CompactGraph(size);
+
+        for (int i = 0; i < size; ++i) {
+            graph.addNode("" + i);
+        }
+
+        return graph;
+    }
+}
@@ -0,0 +1,38 @@
+package net.coderodde.loan.model.support;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LinkageEdgeCounterTest {
+
+    @Test
+    public void countsLinkablePartitions() {
+        LinkageEdgeCounter counter =
+                new LinkageEdgeCounter(new long[]{ 1L, 2L, 3L, 4L },
+                                       new long[]{ 3L, 7L });
+
+        // {1, 2} ~ {3}, {3, 4} ~ {7}:
+        assertEquals(4, counter.count(new int[]{ 0, 0, 1, 1 },
+                                      new int[]{ 0, 1 }));
+        // The block order does not matter:
+        assertEquals(4, counter.count(new int[]{ 1, 1, 0, 0 },
+                                      new int[]{ 0, 1 }));
+        // A single block:
+        assertEquals(5, counter.count(new int[]{ 0, 0, 0, 0 },
+                                      new int[]{ 0, 0 }));
+    }
+
+    @Test
+    public void rejectsUnlinkablePartitions() {
+        LinkageEdgeCounter counter =
+                new LinkageEdgeCounter(new long[]{ 1L, 2L, 3L, 4L },
+                                       new long[]{ 3L, 7L });
+
+        assertEquals(Integer.MAX_VALUE,
+                     counter.count(new int[]{ 0, 1, 0, 1 },
+                                   new int[]{ 0, 1 }));
+        assertEquals(Integer.MAX_VALUE,
+                     counter.count(new int[]{ 0, 0, 1, 2 },
+                                   new int[]{ 0, 1 }));
+    }
+}
@@ -0,0 +1,111 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MinimumFlowSimplifierTest {
+
+    @Test
+    public void keepsExistingPositiveToNegativeArcs() {
+        CompactGraph graph = createGraph(4);
+        graph.setWeight(0, 3, 3L);
+        graph.setWeight(1, 2, 2L);
+
+        CompactGraph result = new MinimumFlowSimplifier().simplify(graph);
+
+        assertEquals(2, result.getEdgeAmount());
+        assertEquals(3L, result.getWeight(0, 3));
+        assertEquals(2L, result.getWeight(1, 2));
+    }
+
+    @Test
+    public void routesThroughIntermediateNodesDirectly() {
+        CompactGraph graph = createGraph(4);
+        // 0 lends 5 to 1, which lends 3 to 2 and 2 to 3:
+        graph.setWeight(0, 1, 5L);
+        graph.setWeight(1, 2, 3L);
+        graph.setWeight(1, 3, 2L);
+        graph.setWeight(0, 2, 1L);
+
+        CompactGraph result = new MinimumFlowSimplifier().simplify(graph);
+
+        assertTrue(graph.isEquivalentTo(result));
+        assertEquals(6L, result.getTotalFlow());
+        assertEquals(2, result.getEdgeAmount());
+        assertEquals(4L, result.getWeight(0, 2));
+        assertEquals(2L, result.getWeight(0, 3));
+    }
+
+    @Test
+    public void minimizesFlowOnRandomGraphs() {
+        Random random = new Random(14L);
+
+        for (int iteration = 0; iteration < 10; ++iteration) {
+            int n = 500;
+            CompactGraph graph = createGraph(n);
+
+            for (int i = 0; i < 4 * n; ++i) {
+                int lender = random.nextInt(n);
+                int borrower = random.nextInt(n);
+
+                if (lender != borrower) {
+                    graph.addWeight(lender, borrower, random.nextInt(50) + 1);
+                }
+            }
+
+            CompactGraph result = new MinimumFlowSimplifier().simplify(graph);
+            long positiveEquitySum = 0L;
+            int nonzeroNodes = 0;
+
+            for (int node = 0; node < n; ++node) {
+                long equity = graph.getEquity(node);
+
+                if (equity != 0L) {
+                    ++nonzeroNodes;
+                }
+
+                if (equity > 0L) {
+                    positiveEquitySum += equity;
+                    assertEquals(0, result.getNumberOfLenders(node));
+                } else if (equity < 0L) {
+                    assertEquals(0, result.getNumberOfBorrowers(node));
+                }
+            }
+
+            assertTrue(graph.isEquivalentTo(result));
+            assertEquals(positiveEquitySum, result.getTotalFlow());
+            assertTrue(result.getEdgeAmount() < nonzeroNodes);
+        }
+    }
+
+    @Test
+    public void hasNoMoreArcsThanLinearSimplifier() {
+        Random random = new Random(140L);
+
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            int n = 30 + random.nextInt(15);
+            CompactGraph graph = CompactGraph.fromGraph(
+                    EquitySimplifierTest.createGraph(n, 0.1f, 20L, random));
+
+            CompactGraph result = new MinimumFlowSimplifier().simplify(graph);
+            CompactGraph linearResult = new LinearSimplifier().simplify(graph);
+
+            assertTrue(graph.isEquivalentTo(result));
+            assertEquals(linearResult.getTotalFlow(), result.getTotalFlow());
+            assertTrue(result.getEdgeAmount() <=
+                       linearResult.getEdgeAmount());
+        }
+    }
+
+    private static CompactGraph createGraph(int size) {
+        CompactGraph graph = new CompactGraph(size);
+
+        for (int i = 0; i < size; ++i) {
+            graph.addNode("" + i);
+        }
+
+        return graph;
+    }
+}
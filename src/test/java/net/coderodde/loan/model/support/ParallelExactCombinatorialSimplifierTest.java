@@ -0,0 +1,116 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParallelExactCombinatorialSimplifierTest {
+
+    @Test
+    public void unrankAndNextFollowCombinationIndexGenerator() {
+        int n = 14;
+        long[][] binomials =
+                ParallelExactCombinatorialSimplifier.computeBinomials(n);
+        CombinationIndexGenerator generator = new CombinationIndexGenerator(n);
+        int[] expected;
+        int[] actual = null;
+        long rank = 0L;
+
+        while ((expected = generator.inc()) != null) {
+            if (actual == null || actual.length != expected.length) {
+                actual = new int[expected.length];
+                rank = 0L;
+            } else {
+                assertTrue(ParallelExactCombinatorialSimplifier.next(n,
+                                                                     actual));
+            }
+
+            int[] unranked = new int[expected.length];
+            ParallelExactCombinatorialSimplifier.unrank(n,
+                                                        rank++,
+                                                        binomials,
+                                                        unranked);
+
+            if (rank == 1L) {
+                actual = unranked.clone();
+            }
+
+            assertArrayEquals(expected, actual);
+            assertArrayEquals(expected, unranked);
+        }
+    }
+
+    @Test
+    public void producesSameArcsAsSequentialSearch() {
+        Random random = new Random(5L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int iteration = 0; iteration < 10; ++iteration) {
+                EquityVector equities = EquityVector.of(
+                        EquitySimplifierTest.createGraph(14, 0.2f, 6L, random));
+
+                CompactGraph expected = new FasterExactCombinatorialSimplifier()
+                        .simplify(equities);
+                CompactGraph actual =
+                        new ParallelExactCombinatorialSimplifier(pool)
+                        .simplify(equities);
+
+                assertTrue(equities.isEquivalentTo(actual));
+                assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+                expected.forEachArc((lender, borrower, weight) ->
+                        assertEquals(weight, actual.getWeight(lender,
+                                                              borrower)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void indexesSameSideAsSequentialSearch() {
+        EquityVector equities =
+                ExactCombinatorialSimplifierTest.createLopsidedEquities(3, 24);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            ParallelExactCombinatorialSimplifier simplifier =
+                    new ParallelExactCombinatorialSimplifier(pool);
+            CompactGraph expected = new FasterExactCombinatorialSimplifier()
+                    .simplify(equities);
+            CompactGraph actual = simplifier.simplify(equities);
+
+            assertTrue(simplifier.isLastResultOptimal());
+            assertEquals(24, actual.getEdgeAmount());
+            expected.forEachArc((lender, borrower, weight) ->
+                    assertEquals(weight, actual.getWeight(lender, borrower)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void stopsWhenBudgetRunsOut() {
+        EquityVector equities = EquitySimplifierTest.createHardEquities(26, 6);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            ParallelExactCombinatorialSimplifier simplifier =
+                    new ParallelExactCombinatorialSimplifier(
+                            SearchBudget.ofMillis(100L), pool);
+
+            long startTime = System.currentTimeMillis();
+            CompactGraph result = simplifier.simplify(equities);
+            long duration = System.currentTimeMillis() - startTime;
+
+            assertTrue("Took " + duration + " ms.", duration < 2000L);
+            assertFalse(simplifier.isLastResultOptimal());
+            assertTrue(equities.isEquivalentTo(result));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.SimplificationListener;
+import net.coderodde.loan.model.SimplificationListener.Counter;
+import net.coderodde.loan.model.support.PartitionalSimplifier.SearchMode;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PartitionalSimplifierTest {
+
+    @Test
+    public void branchAndBoundAgreesWithEnumeration() {
+        Random random = new Random(18L);
+        PartitionalSimplifier enumeration =
+                new PartitionalSimplifier(SearchBudget.UNLIMITED,
+                                          SearchMode.ENUMERATION);
+        PartitionalSimplifier branchAndBound = new PartitionalSimplifier();
+
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            EquityVector equities = EquityVector.of(
+                    EquitySimplifierTest.createGraph(8, 0.3f, 5L, random));
+
+            CompactGraph expected = enumeration.simplify(equities);
+            CompactGraph actual = branchAndBound.simplify(equities);
+
+            assertTrue(equities.isEquivalentTo(actual));
+            assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+        }
+    }
+
+    @Test
+    public void branchAndBoundAgreesWithDynamicProgrammingSimplifier() {
+        Random random = new Random(19L);
+        PartitionalSimplifier simplifier = new PartitionalSimplifier();
+
+        for (int iteration = 0; iteration < 10; ++iteration) {
+            EquityVector equities = EquityVector.of(
+                    EquitySimplifierTest.createGraph(20, 0.2f, 8L, random));
+
+            CompactGraph expected =
+                    new DynamicProgrammingSimplifier().simplify(equities);
+            CompactGraph actual = simplifier.simplify(equities);
+
+            assertTrue(simplifier.isLastResultOptimal());
+            assertTrue(equities.isEquivalentTo(actual));
+            assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+        }
+    }
+
+    @Test
+    public void parallelEnumerationAgreesWithEnumeration() {
+        Random random = new Random(20L);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        PartitionalSimplifier enumeration =
+                new PartitionalSimplifier(SearchBudget.UNLIMITED,
+                                          SearchMode.ENUMERATION);
+        PartitionalSimplifier parallel =
+                new PartitionalSimplifier(SearchBudget.UNLIMITED,
+                                          SearchMode.PARALLEL_ENUMERATION,
+                                          pool);
+
+        try {
+            for (int iteration = 0; iteration < 20; ++iteration) {
+                EquityVector equities = EquityVector.of(
+                        EquitySimplifierTest.createGraph(9, 0.3f, 5L, random));
+
+                CompactGraph expected = enumeration.simplify(equities);
+                CompactGraph actual = parallel.simplify(equities);
+
+                assertTrue(parallel.isLastResultOptimal());
+                assertTrue(equities.isEquivalentTo(actual));
+                assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+                expected.forEachArc((lender, borrower, weight) ->
+                        assertEquals(weight, actual.getWeight(lender,
+                                                              borrower)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelEnumerationReportsExhaustedBudget() {
+        Random random = new Random(21L);
+        PartitionalSimplifier simplifier =
+                new PartitionalSimplifier(SearchBudget.ofIterations(1L),
+                                          SearchMode.PARALLEL_ENUMERATION);
+        EquityVector equities = EquityVector.of(
+                EquitySimplifierTest.createGraph(12, 0.3f, 5L, random));
+
+        CompactGraph result = simplifier.simplify(equities);
+
+        assertFalse(simplifier.isLastResultOptimal());
+        assertTrue(equities.isEquivalentTo(result));
+    }
+
+    @Test
+    public void parallelEnumerationStopsOnTime() {
+        // Every partition of one side matches one of the other side, so the
+        // tasks soon skip all but the partitions of the most blocks:
+        int n = 16;
+        String[] names = new String[2 * n];
+        long[] equities = new long[2 * n];
+
+        for (int i = 0; i < 2 * n; ++i) {
+            names[i] = "" + i;
+            equities[i] = i < n ? 1L : -1L;
+        }
+
+        EquityVector equityVector = new EquityVector(names, equities);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        PartitionalSimplifier simplifier =
+                new PartitionalSimplifier(SearchBudget.ofMillis(200L),
+                                          SearchMode.PARALLEL_ENUMERATION,
+                                          pool);
+
+        try {
+            long startTime = System.currentTimeMillis();
+            CompactGraph result = simplifier.simplify(equityVector);
+            long duration = System.currentTimeMillis() - startTime;
+
+            assertTrue("Took " + duration + " ms.", duration < 5000L);
+            assertFalse(simplifier.isLastResultOptimal());
+            assertTrue(equityVector.isEquivalentTo(result));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelEnumerationSharesIterationBudget() {
+        Random random = new Random(22L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        long budget = 100_000L;
+        PartitionalSimplifier simplifier =
+                new PartitionalSimplifier(SearchBudget.ofIterations(budget),
+                                          SearchMode.PARALLEL_ENUMERATION,
+                                          pool);
+        long[] partitions = new long[1];
+
+        simplifier.setListener(new SimplificationListener() {
+            @Override
+            public void onCount(Algorithm algorithm,
+                                Counter counter,
+                                long amount) {
+                if (counter == Counter.PARTITIONS_ENUMERATED) {
+                    partitions[0] += amount;
+                }
+            }
+        });
+
+        try {
+            EquityVector equities = EquityVector.of(
+                    EquitySimplifierTest.createGraph(30, 0.3f, 50L, random));
+
+            CompactGraph result = simplifier.simplify(equities);
+
+            // Each of the 16 tasks may overspend by less than 1024:
+            assertTrue(partitions[0] < budget + 16 * 1024);
+            assertFalse(simplifier.isLastResultOptimal());
+            assertTrue(equities.isEquivalentTo(result));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullPool() {
+        new PartitionalSimplifier(SearchBudget.UNLIMITED,
+                                  SearchMode.PARALLEL_ENUMERATION,
+                                  null);
+    }
+}
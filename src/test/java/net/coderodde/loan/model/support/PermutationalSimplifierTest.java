@@ -0,0 +1,79 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PermutationalSimplifierTest {
+
+    @Test
+    public void agreesWithDynamicProgrammingSimplifier() {
+        Random random = new Random(6L);
+        PermutationalSimplifier simplifier = new PermutationalSimplifier();
+
+        for (int iteration = 0; iteration < 10; ++iteration) {
+            EquityVector equities = EquityVector.of(
+                    EquitySimplifierTest.createGraph(14, 0.2f, 6L, random));
+
+            CompactGraph expected =
+                    new DynamicProgrammingSimplifier().simplify(equities);
+            CompactGraph actual = simplifier.simplify(equities);
+
+            assertTrue(simplifier.isLastResultOptimal());
+            assertTrue(equities.isEquivalentTo(actual));
+            assertEquals(expected.getEdgeAmount(), actual.getEdgeAmount());
+        }
+    }
+
+    @Test
+    public void returnsValidResultWhenBudgetRunsOut() {
+        // The sorted orderings close no prefix before the last one:
+        EquityVector equities = new EquityVector(
+                new String[]{ "A", "B", "C", "D", "E", "F" },
+                new long[]{ 1L, 2L, 3L, 9L, -5L, -10L });
+
+        PermutationalSimplifier bounded =
+                new PermutationalSimplifier(SearchBudget.ofIterations(1L));
+        PermutationalSimplifier unbounded = new PermutationalSimplifier();
+
+        CompactGraph boundedResult = bounded.simplify(equities);
+        CompactGraph unboundedResult = unbounded.simplify(equities);
+
+        assertFalse(bounded.isLastResultOptimal());
+        assertTrue(unbounded.isLastResultOptimal());
+        assertTrue(equities.isEquivalentTo(boundedResult));
+        assertTrue(equities.isEquivalentTo(unboundedResult));
+        assertEquals(5, boundedResult.getEdgeAmount());
+        assertEquals(4, unboundedResult.getEdgeAmount());
+    }
+
+    @Test
+    public void defaultBudgetBoundsLargeSearch() {
+        EquityVector equities = EquitySimplifierTest.createHardEquities(20,
+                                                                        20);
+        PermutationalSimplifier simplifier = new PermutationalSimplifier();
+
+        assertSame(PermutationalSimplifier.DEFAULT_BUDGET,
+                   simplifier.getBudget());
+
+        CompactGraph result = simplifier.simplify(equities);
+
+        assertTrue(equities.isEquivalentTo(result));
+        assertEquals(equities.size() - 1, result.getEdgeAmount());
+        assertFalse(simplifier.isLastResultOptimal());
+    }
+
+    @Test
+    public void searchesDeepOrderingsWithoutRecursion() {
+        EquityVector equities =
+                EquitySimplifierTest.createHardEquities(5000, 5000);
+        PermutationalSimplifier simplifier = new PermutationalSimplifier();
+
+        CompactGraph result = simplifier.simplify(equities);
+
+        assertTrue(equities.isEquivalentTo(result));
+        assertTrue(result.getEdgeAmount() < equities.size());
+    }
+}
@@ -0,0 +1,232 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import net.coderodde.loan.model.Algorithm;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import net.coderodde.loan.model.support.PartitionalSimplifier.SearchMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SimplificationTaskTest {
+
+    private static final long TIMEOUT_SECONDS = 30L;
+
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsResultOfSimplifier() throws Exception {
+        EquityVector equities = EquityVector.of(
+                EquitySimplifierTest.createGraph(8,
+                                                 0.3f,
+                                                 5L,
+                                                 new Random(25L)));
+        ExactCombinatorialSimplifier simplifier =
+                new ExactCombinatorialSimplifier();
+        SimplificationTask task =
+                SimplificationTask.submit(simplifier, equities, executor);
+
+        CompactGraph result = task.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(task.isDone());
+        assertFalse(task.isCancelled());
+        assertEquals(1.0, task.getProgress(), 0.0);
+        assertTrue(task.isResultOptimal());
+        assertTrue(equities.isEquivalentTo(result));
+        assertEquals(simplifier.simplify(equities).getEdgeAmount(),
+                     result.getEdgeAmount());
+    }
+
+    @Test
+    public void reportsResultsNotProvenOptimal() throws Exception {
+        EquityVector equities = EquitySimplifierTest.createHardEquities(10,
+                                                                        10);
+        Algorithm[] algorithms = {
+            new FasterExactCombinatorialSimplifier(
+                    SearchBudget.ofIterations(10L)),
+            new LinearSimplifier()
+        };
+
+        for (Algorithm algorithm : algorithms) {
+            SimplificationTask task =
+                    SimplificationTask.submit(algorithm, equities, executor);
+
+            task.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertFalse(task.isResultOptimal());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsOptimalityQueryBeforeDone() {
+        SimplificationTask task = SimplificationTask.submit(
+                new FasterExactCombinatorialSimplifier(),
+                EquitySimplifierTest.createHardEquities(30, 30),
+                executor);
+
+        try {
+            task.isResultOptimal();
+        } finally {
+            task.cancel(true);
+        }
+    }
+
+    @Test
+    public void cancelsEnumeration() throws Exception {
+        PartitionalSimplifier simplifier =
+                new PartitionalSimplifier(SearchBudget.UNLIMITED,
+                                          SearchMode.ENUMERATION);
+        assertCancels(simplifier, false);
+    }
+
+    @Test
+    public void cancelsParallelEnumeration() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        PartitionalSimplifier simplifier =
+                new PartitionalSimplifier(SearchBudget.UNLIMITED,
+                                          SearchMode.PARALLEL_ENUMERATION,
+                                          pool);
+        assertCancels(simplifier, false);
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancelsExactSearch() throws Exception {
+        assertCancels(new FasterExactCombinatorialSimplifier(), true);
+    }
+
+    @Test
+    public void cancelsGreedySearch() throws Exception {
+        assertCancels(new GreedyCombinatorialSimplifier(), false);
+    }
+
+    @Test
+    public void cancelsParallelExactSearch() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        assertCancels(new ParallelExactCombinatorialSimplifier(pool), false);
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancelsDynamicProgramming() throws Exception {
+        DynamicProgrammingSimplifier simplifier =
+                new DynamicProgrammingSimplifier(SearchBudget.UNLIMITED,
+                                                 1L << 26);
+        assertCancels(simplifier,
+                      EquitySimplifierTest.createHardEquities(14, 13),
+                      false);
+    }
+
+    @Test
+    public void cancelsPolynomialSimplifiers() {
+        CompactGraph graph = CompactGraph.fromGraph(
+                EquitySimplifierTest.createGraph(30,
+                                                 0.3f,
+                                                 9L,
+                                                 new Random(26L)));
+
+        assertStopsOnCancellation(new MinimumFlowSimplifier(), graph);
+        assertStopsOnCancellation(new CyclePurgeBypassSimplifier(), graph);
+        assertStopsOnCancellation(
+                new FastGreedyCombinatorialSimplifier(),
+                EquitySimplifierTest.createHardEquities(60, 60)
+                                    .toCompactGraph());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullAlgorithm() {
+        SimplificationTask.submit(null, new CompactGraph(0), executor);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullExecutor() {
+        SimplificationTask.submit(new LinearSimplifier(),
+                                  new CompactGraph(0),
+                                  null);
+    }
+
+    /**
+     * Runs <code>algorithm</code> under a progress cancelled up front and
+     * checks that it gives up.
+     */
+    private static void assertStopsOnCancellation(Algorithm algorithm,
+                                                  CompactGraph graph) {
+        SearchProgress progress = new SearchProgress();
+        progress.install();
+        progress.cancel();
+
+        try {
+            algorithm.simplify(graph);
+            fail("The cancelled simplification returned a result.");
+        } catch (CancellationException ex) {
+        } finally {
+            SearchProgress.uninstall();
+        }
+    }
+
+    /**
+     * Starts a search too large to complete, waits until it reports
+     * progress, cancels it and checks that the worker thread gets released.
+     */
+    private void assertCancels(Algorithm algorithm,
+                               boolean mayInterruptIfRunning)
+    throws Exception {
+        assertCancels(algorithm,
+                      EquitySimplifierTest.createHardEquities(26, 6),
+                      mayInterruptIfRunning);
+    }
+
+    private void assertCancels(Algorithm algorithm,
+                               EquityVector equities,
+                               boolean mayInterruptIfRunning)
+    throws Exception {
+        SimplificationTask task =
+                SimplificationTask.submit(algorithm, equities, executor);
+        long deadline = System.nanoTime()
+                      + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+
+        while (task.getProgress() == 0.0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1L);
+        }
+
+        assertTrue(task.getProgress() < 1.0);
+        assertFalse(task.isDone());
+        assertTrue(task.cancel(mayInterruptIfRunning));
+        assertTrue(task.isCancelled());
+        assertEquals(1.0, task.getProgress(), 0.0);
+
+        try {
+            task.get();
+            fail("The cancelled task returned a result.");
+        } catch (CancellationException ex) {
+        }
+
+        // The single worker thread is free again only if the search
+        // stopped:
+        SimplificationTask next =
+                SimplificationTask.submit(
+                        new LinearSimplifier(),
+                        EquitySimplifierTest.createHardEquities(2, 2),
+                        executor);
+        assertEquals(3,
+                     next.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                         .getEdgeAmount());
+    }
+}
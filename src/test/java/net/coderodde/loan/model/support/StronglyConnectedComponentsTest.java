@@ -0,0 +1,122 @@
+package net.coderodde.loan.model.support;
+
+import java.util.Random;
+import net.coderodde.loan.model.CompactGraph;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StronglyConnectedComponentsTest {
+
+    @Test
+    public void findsComponents() {
+        CompactGraph graph = createGraph(6);
+        // Components {0, 1, 2}, {3, 4} and {5}:
+        graph.setWeight(0, 1, 1L);
+        graph.setWeight(1, 2, 1L);
+        graph.setWeight(2, 0, 1L);
+        graph.setWeight(2, 3, 1L);
+        graph.setWeight(3, 4, 1L);
+        graph.setWeight(4, 3, 1L);
+        graph.setWeight(4, 5, 1L);
+
+        StronglyConnectedComponents scc =
+                new StronglyConnectedComponents(graph);
+
+        assertEquals(3, scc.getComponentAmount());
+        assertEquals(scc.getComponent(0), scc.getComponent(1));
+        assertEquals(scc.getComponent(0), scc.getComponent(2));
+        assertEquals(scc.getComponent(3), scc.getComponent(4));
+        assertNotEquals(scc.getComponent(0), scc.getComponent(3));
+        assertNotEquals(scc.getComponent(3), scc.getComponent(5));
+        assertEquals(3, scc.getComponentSize(scc.getComponent(0)));
+        assertEquals(2, scc.getComponentSize(scc.getComponent(3)));
+        assertEquals(1, scc.getComponentSize(scc.getComponent(5)));
+
+        // Reverse topological order:
+        assertTrue(scc.getComponent(5) < scc.getComponent(3));
+        assertTrue(scc.getComponent(3) < scc.getComponent(0));
+    }
+
+    @Test
+    public void handlesLongChains() {
+        int n = 200_000;
+        CompactGraph graph = createGraph(n);
+
+        for (int i = 0; i < n - 1; ++i) {
+            graph.setWeight(i, i + 1, 1L);
+        }
+
+        assertEquals(n, new StronglyConnectedComponents(graph)
+                                .getComponentAmount());
+
+        graph.setWeight(n - 1, 0, 1L);
+
+        assertEquals(1, new StronglyConnectedComponents(graph)
+                                .getComponentAmount());
+    }
+
+    @Test
+    public void agreesWithReachability() {
+        Random random = new Random(12L);
+        int n = 30;
+
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            CompactGraph graph = createGraph(n);
+
+            for (int i = 0; i < 45; ++i) {
+                int lender = random.nextInt(n);
+                int borrower = random.nextInt(n);
+
+                if (lender != borrower) {
+                    graph.addWeight(lender, borrower, 1L);
+                }
+            }
+
+            boolean[][] reachable = computeReachability(graph);
+            StronglyConnectedComponents scc =
+                    new StronglyConnectedComponents(graph);
+
+            for (int u = 0; u < n; ++u) {
+                for (int v = 0; v < n; ++v) {
+                    assertEquals(reachable[u][v] && reachable[v][u],
+                                 scc.getComponent(u) == scc.getComponent(v));
+                }
+            }
+        }
+    }
+
+    private static boolean[][] computeReachability(CompactGraph graph) {
+        int n = graph.size();
+        boolean[][] reachable = new boolean[n][n];
+
+        for (int u = 0; u < n; ++u) {
+            reachable[u][u] = true;
+
+            for (int v = 0; v < n; ++v) {
+                if (graph.isConnected(u, v)) {
+                    reachable[u][v] = true;
+                }
+            }
+        }
+
+        for (int k = 0; k < n; ++k) {
+            for (int u = 0; u < n; ++u) {
+                for (int v = 0; v < n; ++v) {
+                    reachable[u][v] |= reachable[u][k] && reachable[k][v];
+                }
+            }
+        }
+
+        return reachable;
+    }
+
+    private static CompactGraph createGraph(int size) {
+        CompactGraph graph = new CompactGraph(size);
+
+        for (int i = 0; i < size; ++i) {
+            graph.addNode("" + i);
+        }
+
+        return graph;
+    }
+}
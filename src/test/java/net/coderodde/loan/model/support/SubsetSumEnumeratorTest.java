@@ -0,0 +1,166 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SubsetSumEnumeratorTest {
+
+    @Test
+    public void enumeratesAllSubsetsBySizeWithSingleSwaps() {
+        for (int n = 1; n <= 10; ++n) {
+            long[] weights = new long[n];
+
+            for (int i = 0; i < n; ++i) {
+                weights[i] = 1L << i;
+            }
+
+            SubsetSumEnumerator enumerator = new SubsetSumEnumerator(weights);
+            Set<Long> visited = new HashSet<Long>();
+            int previousSize = 0;
+            long previousMask = 0L;
+
+            while (enumerator.inc()) {
+                long mask = toMask(enumerator);
+
+                // The sum of the powers of two is the mask:
+                assertEquals(mask, enumerator.getSum());
+                assertTrue(visited.add(mask));
+                assertTrue(enumerator.size() >= previousSize);
+
+                if (enumerator.size() == previousSize) {
+                    assertEquals(2, Long.bitCount(mask ^ previousMask));
+                } else {
+                    assertTrue(enumerator.hasNoGaps());
+                }
+
+                previousSize = enumerator.size();
+                previousMask = mask;
+            }
+
+            assertEquals((1L << n) - 1L, visited.size());
+            assertFalse(enumerator.inc());
+        }
+    }
+
+    @Test
+    public void visitsEachSubsetOfRemainingElementsOnce() {
+        Random random = new Random(17L);
+
+        for (int iteration = 0; iteration < 200; ++iteration) {
+            int n = 1 + random.nextInt(10);
+            long[] weights = new long[n];
+            List<Integer> elements = new ArrayList<Integer>(n);
+
+            for (int i = 0; i < n; ++i) {
+                weights[i] = random.nextInt(100);
+                elements.add(i);
+            }
+
+            SubsetSumEnumerator enumerator = new SubsetSumEnumerator(weights);
+            Set<Long> visited = new HashSet<Long>();
+            long removedMask = 0L;
+
+            while (enumerator.inc()) {
+                long mask = 0L;
+                long sum = 0L;
+
+                for (int i = 0; i < enumerator.size(); ++i) {
+                    int element = elements.get(enumerator.getIndex(i));
+                    mask |= 1L << element;
+                    sum += weights[element];
+                }
+
+                assertEquals(sum, enumerator.getSum());
+                assertEquals(0L, mask & removedMask);
+                assertTrue(visited.add(mask));
+
+                if (random.nextInt(8) == 0) {
+                    for (int i = enumerator.size() - 1; i >= 0; --i) {
+                        elements.remove(enumerator.getIndex(i));
+                    }
+
+                    removedMask |= mask;
+                    enumerator.remove();
+                    assertEquals(elements.size(),
+                                 enumerator.getWeightAmount());
+                }
+            }
+
+            long survivorMask = ((1L << n) - 1L) & ~removedMask;
+
+            // Each nonempty subset of the survivors was visited:
+            for (long subset = survivorMask;
+                    subset != 0L;
+                    subset = (subset - 1L) & survivorMask) {
+                assertTrue(visited.contains(subset));
+            }
+        }
+    }
+
+    @Test
+    public void followsCombinationIndexGeneratorInLexicographicOrder() {
+        Random random = new Random(18L);
+
+        for (int iteration = 0; iteration < 200; ++iteration) {
+            int n = 1 + random.nextInt(10);
+            long[] weights = new long[n];
+            List<Long> remainingWeights = new ArrayList<Long>(n);
+
+            for (int i = 0; i < n; ++i) {
+                weights[i] = random.nextInt(100);
+                remainingWeights.add(weights[i]);
+            }
+
+            SubsetSumEnumerator enumerator =
+                    new SubsetSumEnumerator(weights, true);
+            CombinationIndexGenerator generator =
+                    new CombinationIndexGenerator(n);
+            int[] indices;
+
+            while ((indices = generator.inc()) != null) {
+                assertTrue(enumerator.inc());
+                assertArrayEquals(indices, enumerator.getIndices());
+
+                long sum = 0L;
+
+                for (int index : indices) {
+                    sum += remainingWeights.get(index);
+                }
+
+                assertEquals(sum, enumerator.getSum());
+
+                if (random.nextInt(8) == 0) {
+                    for (int i = indices.length - 1; i >= 0; --i) {
+                        remainingWeights.remove(indices[i]);
+                    }
+
+                    if (remainingWeights.isEmpty()) {
+                        break;
+                    }
+
+                    generator.remove();
+                    enumerator.remove();
+                }
+            }
+
+            if (!remainingWeights.isEmpty()) {
+                assertFalse(enumerator.inc());
+            }
+        }
+    }
+
+    private static long toMask(SubsetSumEnumerator enumerator) {
+        long mask = 0L;
+
+        for (int i = 0; i < enumerator.size(); ++i) {
+            mask |= 1L << enumerator.getIndex(i);
+        }
+
+        return mask;
+    }
+}
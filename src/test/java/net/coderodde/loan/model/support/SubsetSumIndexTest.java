@@ -0,0 +1,118 @@
+package net.coderodde.loan.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SubsetSumIndexTest {
+
+    @Test
+    public void findsAllMatchingSubsets() {
+        long[] equities = { 5L, -1L, -2L, -3L, -4L, 5L };
+        SubsetSumIndex index =
+                new SubsetSumIndex(Arrays.asList(1, 2, 3, 4), equities, 2);
+
+        assertEquals(15, index.size());
+
+        SearchBudget.Meter meter = SearchBudget.UNLIMITED.start();
+        LongList groups = new LongList();
+        assertTrue(index.findGroups(0b01L, 5L, groups, meter));
+
+        assertEquals(2, groups.size());
+        assertTrue(groups.get(0) == 0b100101L || groups.get(1) == 0b100101L);
+        assertTrue(groups.get(0) == 0b011001L || groups.get(1) == 0b011001L);
+
+        groups.clear();
+        assertTrue(index.findGroups(0b11L, 10L, groups, meter));
+
+        assertEquals(1, groups.size());
+        assertEquals(0b111111L, groups.get(0));
+
+        groups.clear();
+        assertTrue(index.findGroups(0b01L, 11L, groups, meter));
+
+        assertEquals(0, groups.size());
+    }
+
+    @Test
+    public void enumeratesNodesLeftOutOfIndex() {
+        Random random = new Random(6L);
+        long[] equities = new long[12];
+        List<Integer> nodeList = new ArrayList<Integer>();
+
+        for (int i = 0; i < equities.length; ++i) {
+            equities[i] = -random.nextInt(20) - 1L;
+            nodeList.add(i);
+        }
+
+        SearchBudget.Meter meter = SearchBudget.UNLIMITED.start();
+        SubsetSumIndex fullIndex =
+                new SubsetSumIndex(nodeList, equities, 3, 12, meter);
+
+        for (int indexedSize = 0; indexedSize < 12; indexedSize += 4) {
+            SubsetSumIndex index = new SubsetSumIndex(nodeList,
+                                                      equities,
+                                                      3,
+                                                      indexedSize,
+                                                      meter);
+
+            assertEquals((1 << indexedSize) - 1, index.size());
+
+            for (long sum = 1L; sum <= 60L; ++sum) {
+                LongList expected = new LongList();
+                LongList actual = new LongList();
+                assertTrue(fullIndex.findGroups(0b101L, sum, expected, meter));
+                assertTrue(index.findGroups(0b101L, sum, actual, meter));
+                assertEquals(toSortedList(expected), toSortedList(actual));
+            }
+        }
+    }
+
+    @Test
+    public void indexesWithinMemoryBound() {
+        int indexedSize = SubsetSumIndex.getIndexedSize(40);
+
+        assertEquals(10, SubsetSumIndex.getIndexedSize(10));
+        assertTrue(SubsetSumIndex.getBuildBytes(indexedSize)
+                   <= SubsetSumIndex.MAXIMUM_BUILD_BYTES);
+        assertTrue(SubsetSumIndex.getBuildBytes(indexedSize + 1)
+                   > SubsetSumIndex.MAXIMUM_BUILD_BYTES);
+        assertTrue(SubsetSumIndex.canIndex(40, 24));
+        assertFalse(SubsetSumIndex.canIndex(10, 60));
+    }
+
+    @Test
+    public void stopsBuildingWhenCancelled() {
+        long[] equities = new long[20];
+        List<Integer> nodeList = new ArrayList<Integer>();
+
+        for (int i = 0; i < equities.length; ++i) {
+            equities[i] = -i - 1L;
+            nodeList.add(i);
+        }
+
+        SearchProgress progress = new SearchProgress();
+        progress.cancel();
+        SearchBudget.Meter meter = SearchBudget.UNLIMITED.start(progress);
+
+        new SubsetSumIndex(nodeList, equities, 0, meter);
+
+        assertTrue(meter.isExhausted());
+        assertEquals(1L << 10, meter.getIterations());
+    }
+
+    private static List<Long> toSortedList(LongList groups) {
+        List<Long> list = new ArrayList<Long>(groups.size());
+
+        for (int i = 0; i < groups.size(); ++i) {
+            list.add(groups.get(i));
+        }
+
+        Collections.sort(list);
+        return list;
+    }
+}
@@ -0,0 +1,138 @@
+package net.coderodde.loan.workload;
+
+import java.util.HashSet;
+import java.util.Set;
+import net.coderodde.loan.model.CompactGraph;
+import net.coderodde.loan.model.EquityVector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class WorkloadGeneratorTest {
+
+    @Test
+    public void sameSeedGivesSameGraph() {
+        CompactGraph graph1 =
+                new WorkloadGenerator(1L).createPowerLawGraph(100, 1000, 2.5,
+                                                              1000L);
+        CompactGraph graph2 =
+                new WorkloadGenerator(1L).createPowerLawGraph(100, 1000, 2.5,
+                                                              1000L);
+
+        assertEquals(graph1.getEdgeAmount(), graph2.getEdgeAmount());
+        assertEquals(graph1.getTotalFlow(), graph2.getTotalFlow());
+        graph1.forEachArc((lender, borrower, weight) ->
+                assertEquals(weight, graph2.getWeight(lender, borrower)));
+    }
+
+    @Test
+    public void uniformGraphHasNoSelfLoops() {
+        CompactGraph graph =
+                new WorkloadGenerator(2L).createUniformGraph(50, 2000, 30L);
+
+        assertEquals(50, graph.size());
+        assertTrue(graph.getEdgeAmount() <= 2000);
+        assertTrue(graph.getEdgeAmount() > 1000);
+
+        graph.forEachArc((lender, borrower, weight) -> {
+            assertNotEquals(lender, borrower);
+            assertTrue(weight >= 1L);
+        });
+    }
+
+    @Test
+    public void powerLawGraphHasHubs() {
+        CompactGraph graph =
+                new WorkloadGenerator(3L).createPowerLawGraph(10_000, 50_000,
+                                                              2.1, 1000L);
+        int maximumDegree = 0;
+
+        for (int id = 0; id < graph.size(); ++id) {
+            maximumDegree = Math.max(maximumDegree,
+                                     graph.getNumberOfBorrowers(id) +
+                                     graph.getNumberOfLenders(id));
+        }
+
+        // The average degree is at most 10:
+        assertTrue(maximumDegree > 1000);
+    }
+
+    @Test
+    public void communityGraphIsMostlyLocal() {
+        int nodeCount = 1000;
+        int communityAmount = 10;
+        CompactGraph graph =
+                new WorkloadGenerator(4L).createCommunityGraph(nodeCount,
+                                                               20_000,
+                                                               communityAmount,
+                                                               0.9,
+                                                               1000L);
+        int[] localArcs = new int[1];
+
+        graph.forEachArc((lender, borrower, weight) -> {
+            if (lender * communityAmount / nodeCount
+                    == borrower * communityAmount / nodeCount) {
+                localArcs[0]++;
+            }
+        });
+
+        assertTrue(localArcs[0] > graph.getEdgeAmount() * 0.85);
+    }
+
+    @Test
+    public void equalBalancesRepeat() {
+        EquityVector equities =
+                new WorkloadGenerator(5L).createEqualBalances(1000, 3, 100L);
+
+        Set<Long> balances = new HashSet<>();
+
+        for (int id = 0; id < equities.size(); ++id) {
+            balances.add(Math.abs(equities.getEquity(id)));
+        }
+
+        assertTrue(balances.size() <= 4);
+    }
+
+    @Test
+    public void nearZeroBalancesAreSmall() {
+        EquityVector equities =
+                new WorkloadGenerator(6L).createNearZeroBalances(1000, 0.8, 3L,
+                                                                 1_000_000L);
+        int nearZero = 0;
+
+        for (int id = 0; id < equities.size(); ++id) {
+            if (Math.abs(equities.getEquity(id)) <= 3L) {
+                ++nearZero;
+            }
+        }
+
+        assertTrue(nearZero > 700);
+        assertTrue(nearZero < 900);
+    }
+
+    @Test
+    public void realizedGraphHasTheEquities() {
+        WorkloadGenerator generator = new WorkloadGenerator(7L);
+        EquityVector equities = generator.createEqualBalances(200, 5, 50L);
+        CompactGraph graph = generator.realize(equities, 1000, 100L);
+
+        assertTrue(equities.isEquivalentTo(graph));
+        assertTrue(graph.getEdgeAmount() > 2000);
+    }
+
+    @Test
+    public void buildsMillionsOfArcs() {
+        CompactGraph graph =
+                new WorkloadGenerator(8L).createPowerLawGraph(100_000,
+                                                              2_000_000,
+                                                              2.5,
+                                                              1_000_000L);
+
+        assertTrue(graph.getEdgeAmount() > 1_000_000);
+        assertTrue(EquityVector.of(graph).isEquivalentTo(graph));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooManyCommunities() {
+        new WorkloadGenerator(9L).createCommunityGraph(10, 10, 6, 0.5, 10L);
+    }
+}